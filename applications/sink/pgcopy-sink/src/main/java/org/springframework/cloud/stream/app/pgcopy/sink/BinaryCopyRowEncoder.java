@@ -0,0 +1,549 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.pgcopy.sink;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.cloud.stream.app.pgcopy.sink.PgcopySinkProperties.ColumnType;
+
+/**
+ * Encodes JSON object or {@link Map} payloads in the PostgreSQL binary COPY format. The value for every configured
+ * column is looked up by name in the payload and written with the binary representation of its column type;
+ * missing values are written as NULL.
+ */
+class BinaryCopyRowEncoder implements CopyRowEncoder {
+
+	private static final byte[] HEADER = {
+			'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0, // signature
+			0, 0, 0, 0, // flags
+			0, 0, 0, 0 // header extension length
+	};
+
+	private static final byte[] TRAILER = { (byte) 0xFF, (byte) 0xFF };
+
+	private static final long POSTGRES_EPOCH_SECONDS = 946684800L;
+
+	private static final int NUMERIC_POSITIVE = 0x0000;
+
+	private static final int NUMERIC_NEGATIVE = 0x4000;
+
+	private static final byte JSONB_VERSION = 1;
+
+	private static final long[] POWERS_OF_TEN = {
+			1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L,
+			10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L, 100_000_000_000_000L,
+			1_000_000_000_000_000L, 10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+	};
+
+	private final String[] columns;
+
+	private final ColumnType[] types;
+
+	private final ObjectMapper objectMapper;
+
+	private final Map<String, Integer> columnIndex = new HashMap<>();
+
+	BinaryCopyRowEncoder(List<String> columns, Map<String, ColumnType> columnTypes, ObjectMapper objectMapper) {
+		this.columns = columns.toArray(new String[0]);
+		this.types = new ColumnType[this.columns.length];
+		for (int i = 0; i < this.columns.length; i++) {
+			this.types[i] = columnTypes.getOrDefault(this.columns[i], ColumnType.TEXT);
+			this.columnIndex.put(this.columns[i], i);
+		}
+		this.objectMapper = objectMapper;
+	}
+
+	@Override
+	public byte[] header() {
+		return HEADER;
+	}
+
+	@Override
+	public void encode(Object payload, CopyBuffer buffer) {
+		Object[] values = (payload instanceof Map) ? fromMap((Map<?, ?>) payload) : fromJson(payload);
+		try {
+			buffer.writeShort(this.columns.length);
+			for (int i = 0; i < this.columns.length; i++) {
+				if (values[i] == null) {
+					buffer.writeInt(-1);
+				}
+				else {
+					writeValue(buffer, this.types[i], values[i]);
+				}
+			}
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		catch (DateTimeException e) {
+			throw new IllegalArgumentException("Invalid date-time value: " + e.getMessage(), e);
+		}
+	}
+
+	@Override
+	public byte[] trailer() {
+		return TRAILER;
+	}
+
+	private Object[] fromMap(Map<?, ?> payload) {
+		Object[] values = new Object[this.columns.length];
+		for (int i = 0; i < this.columns.length; i++) {
+			values[i] = payload.get(this.columns[i]);
+		}
+		return values;
+	}
+
+	/**
+	 * Read the top level fields of a JSON object straight into the column slots, without building an intermediate
+	 * map. Numbers are read with the precision their column type needs.
+	 */
+	private Object[] fromJson(Object payload) {
+		Object[] values = new Object[this.columns.length];
+		try (JsonParser parser = createParser(payload)) {
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				throw new IllegalArgumentException("Payload is not a JSON object");
+			}
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				Integer index = this.columnIndex.get(parser.currentName());
+				JsonToken token = parser.nextToken();
+				if (index == null) {
+					parser.skipChildren();
+				}
+				else if (token != JsonToken.VALUE_NULL) {
+					values[index] = readValue(parser, token, this.types[index]);
+				}
+			}
+		}
+		catch (IOException e) {
+			throw new IllegalArgumentException("Payload is not a JSON object: " + e.getMessage(), e);
+		}
+		return values;
+	}
+
+	private JsonParser createParser(Object payload) throws IOException {
+		if (payload instanceof byte[]) {
+			return this.objectMapper.getFactory().createParser((byte[]) payload);
+		}
+		if (payload instanceof String) {
+			return this.objectMapper.getFactory().createParser((String) payload);
+		}
+		throw new IllegalArgumentException("Expected a JSON object or a Map but received "
+				+ payload.getClass().getName());
+	}
+
+	private Object readValue(JsonParser parser, JsonToken token, ColumnType type) throws IOException {
+		if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+			return this.objectMapper.readTree(parser);
+		}
+		if (token.isNumeric()) {
+			switch (type) {
+				case NUMERIC:
+					return parser.getDecimalValue();
+				case FLOAT8:
+					return parser.getDoubleValue();
+				default:
+					return (token == JsonToken.VALUE_NUMBER_INT) ? parser.getNumberValue() : parser.getDecimalValue();
+			}
+		}
+		if (token.isBoolean()) {
+			return parser.getBooleanValue();
+		}
+		return parser.getText();
+	}
+
+	private void writeValue(CopyBuffer out, ColumnType type, Object value) throws IOException {
+		switch (type) {
+			case BOOL:
+				out.writeInt(1);
+				out.write(toBoolean(value) ? 1 : 0);
+				break;
+			case INT4:
+				out.writeInt(4);
+				out.writeInt(toInt(value));
+				break;
+			case INT8:
+				out.writeInt(8);
+				out.writeLong(toLong(value));
+				break;
+			case FLOAT8:
+				out.writeInt(8);
+				out.writeDouble(toNumber(value).doubleValue());
+				break;
+			case NUMERIC:
+				writeNumeric(out, toBigDecimal(value));
+				break;
+			case TIMESTAMP:
+			case TIMESTAMPTZ:
+				out.writeInt(8);
+				out.writeLong(toPostgresMicros(toInstant(value)));
+				break;
+			case UUID:
+				UUID uuid = (value instanceof UUID) ? (UUID) value : UUID.fromString(value.toString());
+				out.writeInt(16);
+				out.writeLong(uuid.getMostSignificantBits());
+				out.writeLong(uuid.getLeastSignificantBits());
+				break;
+			case JSONB:
+				int jsonStart = out.size();
+				out.writeInt(0);
+				out.write(JSONB_VERSION);
+				if (value instanceof String) {
+					out.writeUtf8(validJson((String) value));
+				}
+				else {
+					out.write(this.objectMapper.writeValueAsBytes(value));
+				}
+				out.setInt(jsonStart, out.size() - jsonStart - 4);
+				break;
+			default:
+				int textStart = out.size();
+				out.writeInt(0);
+				out.writeUtf8(value.toString());
+				out.setInt(textStart, out.size() - textStart - 4);
+		}
+	}
+
+	/**
+	 * Write a numeric in the server's base 10000 representation: digit count, weight of the first digit, sign,
+	 * display scale, followed by the digits themselves.
+	 */
+	static void writeNumeric(CopyBuffer out, BigDecimal value) {
+		int scale = Math.max(value.scale(), 0);
+		int integerGroups;
+		int[] digits;
+		int fractionGroups = (scale + 3) / 4;
+		if (scale <= 16 && value.precision() - value.scale() + scale <= 15) {
+			// fast path: split the unscaled value into base 10000 digits arithmetically
+			long unscaled = Math.abs(value.scaleByPowerOfTen(scale).longValueExact());
+			long aligned = unscaled * POWERS_OF_TEN[fractionGroups * 4 - scale];
+			int count = fractionGroups;
+			for (long rest = aligned / POWERS_OF_TEN[fractionGroups * 4]; rest > 0; rest /= 10000) {
+				count++;
+			}
+			digits = new int[count];
+			for (int i = count - 1; i >= 0; i--) {
+				digits[i] = (int) (aligned % 10000);
+				aligned /= 10000;
+			}
+			integerGroups = count - fractionGroups;
+		}
+		else {
+			String plain = value.setScale(scale).unscaledValue().abs().toString();
+			int point = plain.length() - scale;
+			String integerPart = (point > 0) ? plain.substring(0, point) : "";
+			String fractionPart = (point > 0) ? plain.substring(point) : "0".repeat(-point) + plain;
+			integerGroups = (integerPart.length() + 3) / 4;
+			digits = new int[integerGroups + fractionGroups];
+			int offset = integerPart.length() - integerGroups * 4;
+			for (int i = 0; i < integerGroups; i++) {
+				digits[i] = parseGroup(integerPart, offset + i * 4);
+			}
+			for (int i = integerGroups; i < digits.length; i++) {
+				digits[i] = parseGroup(fractionPart, (i - integerGroups) * 4);
+			}
+		}
+
+		int weight = integerGroups - 1;
+		int first = 0;
+		while (first < digits.length && digits[first] == 0) {
+			first++;
+			weight--;
+		}
+		int last = digits.length;
+		while (last > first && digits[last - 1] == 0) {
+			last--;
+		}
+		int count = last - first;
+		if (count == 0) {
+			weight = 0;
+		}
+
+		out.writeInt(8 + count * 2);
+		out.writeShort(count);
+		out.writeShort(weight);
+		out.writeShort((count > 0 && value.signum() < 0) ? NUMERIC_NEGATIVE : NUMERIC_POSITIVE);
+		out.writeShort(scale);
+		for (int i = first; i < last; i++) {
+			out.writeShort(digits[i]);
+		}
+	}
+
+	/**
+	 * Parse four decimal digits starting at the given position, treating positions outside the text as zeros so
+	 * that integer parts are padded on the left and fraction parts on the right.
+	 */
+	private static int parseGroup(String digits, int start) {
+		int group = 0;
+		for (int i = start; i < start + 4; i++) {
+			group = group * 10 + ((i < 0 || i >= digits.length()) ? 0 : digits.charAt(i) - '0');
+		}
+		return group;
+	}
+
+	static long toPostgresMicros(Instant instant) {
+		return (instant.getEpochSecond() - POSTGRES_EPOCH_SECONDS) * 1_000_000L + instant.getNano() / 1000;
+	}
+
+	/**
+	 * Convert a value to an instant. Numbers are taken as milliseconds since the epoch, text is parsed as an ISO-8601
+	 * date-time and interpreted as UTC if it carries no offset.
+	 */
+	static Instant toInstant(Object value) {
+		if (value instanceof Instant) {
+			return (Instant) value;
+		}
+		if (value instanceof Number) {
+			return Instant.ofEpochMilli(((Number) value).longValue());
+		}
+		if (value instanceof Date) {
+			return ((Date) value).toInstant();
+		}
+		if (value instanceof OffsetDateTime) {
+			return ((OffsetDateTime) value).toInstant();
+		}
+		if (value instanceof ZonedDateTime) {
+			return ((ZonedDateTime) value).toInstant();
+		}
+		if (value instanceof LocalDateTime) {
+			return ((LocalDateTime) value).toInstant(ZoneOffset.UTC);
+		}
+		String text = value.toString();
+		Instant instant = parseIsoInstant(text);
+		if (instant != null) {
+			return instant;
+		}
+		try {
+			return ZonedDateTime.parse(text).toInstant();
+		}
+		catch (DateTimeParseException e) {
+			return LocalDateTime.parse(text).toInstant(ZoneOffset.UTC);
+		}
+	}
+
+	/**
+	 * Fast path for the common 'yyyy-MM-ddTHH:mm:ss[.fraction][Z|+HH:MM|-HH:MM]' layout, which avoids the cost of
+	 * the general purpose {@link java.time.format.DateTimeFormatter}. Returns null if the text has any other layout.
+	 */
+	private static Instant parseIsoInstant(String text) {
+		int length = text.length();
+		if (length < 19 || text.charAt(4) != '-' || text.charAt(7) != '-' || text.charAt(10) != 'T'
+				|| text.charAt(13) != ':' || text.charAt(16) != ':') {
+			return null;
+		}
+		int year = digits(text, 0, 4);
+		int month = digits(text, 5, 2);
+		int day = digits(text, 8, 2);
+		int hour = digits(text, 11, 2);
+		int minute = digits(text, 14, 2);
+		int second = digits(text, 17, 2);
+		if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31 || hour < 0 || hour > 23
+				|| minute < 0 || minute > 59 || second < 0 || second > 59) {
+			return null;
+		}
+		int position = 19;
+		int nanos = 0;
+		if (position < length && text.charAt(position) == '.') {
+			int scale = 100_000_000;
+			position++;
+			while (position < length && Character.isDigit(text.charAt(position))) {
+				nanos += (text.charAt(position++) - '0') * scale;
+				scale /= 10;
+			}
+		}
+		int offsetSeconds = 0;
+		if (position < length) {
+			char sign = text.charAt(position);
+			if (sign == 'Z' && position + 1 == length) {
+				offsetSeconds = 0;
+			}
+			else if ((sign == '+' || sign == '-') && position + 6 == length && text.charAt(position + 3) == ':') {
+				int offsetHours = digits(text, position + 1, 2);
+				int offsetMinutes = digits(text, position + 4, 2);
+				if (offsetHours < 0 || offsetMinutes < 0) {
+					return null;
+				}
+				offsetSeconds = (sign == '-' ? -1 : 1) * (offsetHours * 3600 + offsetMinutes * 60);
+			}
+			else {
+				return null;
+			}
+		}
+		if (day > 28 && day > LocalDate.of(year, month, 1).lengthOfMonth()) {
+			return null;
+		}
+		long epochDay = LocalDate.of(year, month, day).toEpochDay();
+		return Instant.ofEpochSecond(epochDay * 86400 + hour * 3600 + minute * 60 + second - offsetSeconds, nanos);
+	}
+
+	private static int digits(String text, int start, int count) {
+		int value = 0;
+		for (int i = start; i < start + count; i++) {
+			char c = text.charAt(i);
+			if (c < '0' || c > '9') {
+				return -1;
+			}
+			value = value * 10 + (c - '0');
+		}
+		return value;
+	}
+
+	/**
+	 * Return the given JSON text, a single JSON value, which is sent as is, after reading through it without
+	 * building it.
+	 */
+	private String validJson(String json) throws IOException {
+		try (JsonParser parser = this.objectMapper.getFactory().createParser(json)) {
+			if (parser.nextToken() == null) {
+				throw new IllegalArgumentException("Value is not valid JSON: it is empty");
+			}
+			parser.skipChildren();
+			if (parser.nextToken() != null) {
+				throw new IllegalArgumentException("Value " + json + " is not valid JSON: it holds more than a value");
+			}
+		}
+		catch (JsonProcessingException e) {
+			throw new IllegalArgumentException("Value " + json + " is not valid JSON: " + e.getOriginalMessage(), e);
+		}
+		return json;
+	}
+
+	/**
+	 * The value of a boolean column, accepting the same literals as PostgreSQL does, ignoring case and surrounding
+	 * whitespace: {@code true}, {@code yes}, {@code on}, {@code 1} and {@code false}, {@code no}, {@code off},
+	 * {@code 0}, or any unambiguous prefix of them.
+	 */
+	private static boolean toBoolean(Object value) {
+		if (value instanceof Boolean) {
+			return (Boolean) value;
+		}
+		String text = value.toString().trim().toLowerCase(Locale.ROOT);
+		if (!text.isEmpty()) {
+			switch (text.charAt(0)) {
+				case 't':
+					if ("true".startsWith(text)) {
+						return true;
+					}
+					break;
+				case 'f':
+					if ("false".startsWith(text)) {
+						return false;
+					}
+					break;
+				case 'y':
+					if ("yes".startsWith(text)) {
+						return true;
+					}
+					break;
+				case 'n':
+					if ("no".startsWith(text)) {
+						return false;
+					}
+					break;
+				case 'o':
+					// "o" alone is ambiguous
+					if ("on".equals(text)) {
+						return true;
+					}
+					if (text.length() > 1 && "off".startsWith(text)) {
+						return false;
+					}
+					break;
+				case '1':
+					if (text.length() == 1) {
+						return true;
+					}
+					break;
+				case '0':
+					if (text.length() == 1) {
+						return false;
+					}
+					break;
+				default:
+					break;
+			}
+		}
+		throw new IllegalArgumentException("Value " + value + " is not a bool");
+	}
+
+	private static Number toNumber(Object value) {
+		return (value instanceof Number) ? (Number) value : new BigDecimal(value.toString());
+	}
+
+	/**
+	 * The exact value of an integer column, rejecting values out of range or with a fraction rather than truncating
+	 * them, so that the row is isolated as a bad one.
+	 */
+	private static int toInt(Object value) {
+		if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			return ((Number) value).intValue();
+		}
+		try {
+			return toBigDecimal(value).intValueExact();
+		}
+		catch (ArithmeticException e) {
+			throw new IllegalArgumentException("Value " + value + " is not an int4", e);
+		}
+	}
+
+	private static long toLong(Object value) {
+		if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			return ((Number) value).longValue();
+		}
+		try {
+			return toBigDecimal(value).longValueExact();
+		}
+		catch (ArithmeticException e) {
+			throw new IllegalArgumentException("Value " + value + " is not an int8", e);
+		}
+	}
+
+	private static BigDecimal toBigDecimal(Object value) {
+		if (value instanceof BigDecimal) {
+			return (BigDecimal) value;
+		}
+		if (value instanceof BigInteger) {
+			return new BigDecimal((BigInteger) value);
+		}
+		if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+			return BigDecimal.valueOf(((Number) value).longValue());
+		}
+		return new BigDecimal(value.toString());
+	}
+
+}
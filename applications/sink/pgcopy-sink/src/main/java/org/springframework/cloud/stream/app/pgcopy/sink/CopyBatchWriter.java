@@ -0,0 +1,347 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.pgcopy.sink;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.core.BaseConnection;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+/**
+ * Copies a batch of payloads in a single transaction. When the batch fails, it is split in halves which are copied
+ * again, recursively, until the rows causing the failure are isolated. The isolated rows are then written to the
+ * error table, if one is configured, with a single JDBC batch. The halves are copied within savepoints of one
+ * transaction, which also writes the error table, so the good rows of a failed batch are only committed once all of
+ * them are copied and every bad row is recorded.
+ * <p>
+ * Only data errors are isolated this way; when a batch, one of its halves or the error table fails for any other
+ * reason, such as a lost connection, that transaction is rolled back and the failure is rethrown, so that nothing of
+ * the batch is written and it can be copied again as a whole. Whether it is depends on the caller: the binder
+ * delivers a batch again according to its retry and error handling settings, the other modes log the failure.
+ * <p>
+ * Rows are encoded into a buffer kept by each thread and sent to the server in chunks of
+ * {@link CopyBuffer#CHUNK_SIZE} bytes.
+ * <p>
+ * When a {@link StagingMerge} is given, every batch is copied into a staging table and merged into the table in the
+ * same transaction.
+ * <p>
+ * The batch sizes, the rows written, the time spent copying and committing, the rows written to the error table, the
+ * bisected batches and the rows of failed batches are recorded in the given {@link CopyMetrics}.
+ */
+class CopyBatchWriter {
+
+	private static final Log logger = LogFactory.getLog(CopyBatchWriter.class);
+
+	private static final ThreadLocal<CopyBuffer> BUFFERS = ThreadLocal.withInitial(CopyBuffer::new);
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final TransactionTemplate txTemplate;
+
+	private final TransactionTemplate savepointTemplate;
+
+	private final String sql;
+
+	private final CopyRowEncoder copyRowEncoder;
+
+	private final String tableName;
+
+	private final String errorTable;
+
+	private final StagingMerge stagingMerge;
+
+	private final CopyMetrics metrics;
+
+	CopyBatchWriter(JdbcTemplate jdbcTemplate, TransactionTemplate txTemplate, String sql,
+			CopyRowEncoder copyRowEncoder, String tableName, String errorTable) {
+
+		this(jdbcTemplate, txTemplate, sql, copyRowEncoder, tableName, errorTable, null, CopyMetrics.NONE);
+	}
+
+	CopyBatchWriter(JdbcTemplate jdbcTemplate, TransactionTemplate txTemplate, String sql,
+			CopyRowEncoder copyRowEncoder, String tableName, String errorTable, StagingMerge stagingMerge,
+			CopyMetrics metrics) {
+
+		this.jdbcTemplate = jdbcTemplate;
+		this.txTemplate = txTemplate;
+		this.savepointTemplate = savepointTemplate(txTemplate);
+		this.sql = sql;
+		this.copyRowEncoder = copyRowEncoder;
+		this.tableName = tableName;
+		this.errorTable = errorTable;
+		this.stagingMerge = stagingMerge;
+		this.metrics = metrics;
+	}
+
+	long write(Collection<?> payloads) {
+		if (logger.isDebugEnabled()) {
+			logger.debug("Executing batch of size " + payloads.size() + " for " + this.sql);
+		}
+		this.metrics.batch(payloads.size());
+		try {
+			long rows = copy(payloads);
+			if (logger.isDebugEnabled()) {
+				logger.debug("Wrote " + rows + " rows");
+			}
+			this.metrics.rowsWritten(rows);
+			return rows;
+		}
+		catch (DataAccessException e) {
+			if (!isDataError(e)) {
+				throw e;
+			}
+			logger.error("Error while copying batch of data: " + e.getMessage());
+			logger.error("Bisecting current batch of " + payloads.size() + " rows to isolate bad rows");
+			this.metrics.bisected();
+			List<RowError> errors = new ArrayList<>();
+			long rows = this.txTemplate.execute(transactionStatus -> {
+				timeCommit();
+				long copied = isolate(new ArrayList<>(payloads), e, errors);
+				writeErrors(errors);
+				return copied;
+			});
+			if (StringUtils.hasText(this.errorTable)) {
+				this.metrics.errorRowsWritten(errors.size());
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Re-tried batch and wrote " + rows + " rows, " + errors.size() + " rows failed");
+			}
+			this.metrics.rowsWritten(rows);
+			return rows;
+		}
+	}
+
+	/**
+	 * Copy the payloads in a transaction of their own or, while a failed batch is bisected, in a savepoint of the
+	 * transaction of the batch.
+	 */
+	long copy(Collection<?> payloads) {
+		TransactionTemplate template = TransactionSynchronizationManager.isActualTransactionActive()
+				? this.savepointTemplate : this.txTemplate;
+		return template.execute(transactionStatus -> this.jdbcTemplate.execute(
+				(ConnectionCallback<Long>) connection -> {
+					if (this.stagingMerge != null) {
+						this.stagingMerge.prepare(connection);
+					}
+					long start = System.nanoTime();
+					CopyIn ci = connection.unwrap(BaseConnection.class).getCopyAPI()
+							.copyIn((this.stagingMerge != null) ? this.stagingMerge.getCopySql() : this.sql);
+					CopyBuffer buffer = BUFFERS.get();
+					buffer.reset();
+					buffer.write(this.copyRowEncoder.header());
+					for (Object payload : payloads) {
+						PgcopySinkConfiguration.encodeRow(this.copyRowEncoder, payload, buffer);
+						if (buffer.isFull()) {
+							buffer.flushTo(ci);
+						}
+					}
+					buffer.write(this.copyRowEncoder.trailer());
+					buffer.flushTo(ci);
+					long rows = ci.endCopy();
+					this.metrics.copied(System.nanoTime() - start);
+					if (this.stagingMerge != null) {
+						this.stagingMerge.merge(connection);
+						if (!transactionStatus.isNewTransaction()) {
+							this.stagingMerge.clear(connection);
+						}
+					}
+					if (transactionStatus.isNewTransaction()) {
+						timeCommit();
+					}
+					return rows;
+				}));
+	}
+
+	private static TransactionTemplate savepointTemplate(TransactionTemplate txTemplate) {
+		if (txTemplate == null) {
+			return null;
+		}
+		TransactionTemplate savepointTemplate = new TransactionTemplate(txTemplate.getTransactionManager(), txTemplate);
+		savepointTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+		return savepointTemplate;
+	}
+
+	private void timeCommit() {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+			private long start;
+
+			@Override
+			public void beforeCommit(boolean readOnly) {
+				this.start = System.nanoTime();
+			}
+
+			@Override
+			public void afterCommit() {
+				CopyBatchWriter.this.metrics.committed(System.nanoTime() - this.start);
+			}
+
+		});
+	}
+
+	/**
+	 * Isolate the bad rows of a failed batch by copying each of its halves; a half that fails is bisected further.
+	 * When the first half succeeds, the second half must contain the bad rows, so it is bisected right away without
+	 * copying it as a whole. Such a half has no observed failure, and a single row is then copied once more before
+	 * it is reported. Only data errors, as told by {@link #isDataError(DataAccessException)}, are attributed to rows;
+	 * any other failure of a half or of a single row is rethrown, so that it never sends a good row to the error
+	 * table, and rolls back the halves already copied.
+	 */
+	private long isolate(List<?> payloads, DataAccessException failure, List<RowError> errors) {
+		if (payloads.size() == 1) {
+			Object payload = payloads.get(0);
+			if (failure == null) {
+				try {
+					return copy(payloads);
+				}
+				catch (DataAccessException e) {
+					failure = rethrowUnlessDataError(e);
+				}
+			}
+			logger.error("Copy for single row caused error: " + failure.getMessage());
+			logger.error("Bad Data: \n" + payload);
+			errors.add(new RowError(payload, failure));
+			return 0;
+		}
+		int middle = payloads.size() / 2;
+		List<?> first = payloads.subList(0, middle);
+		List<?> second = payloads.subList(middle, payloads.size());
+		long rows;
+		try {
+			rows = copy(first);
+		}
+		catch (DataAccessException e) {
+			rows = isolate(first, rethrowUnlessDataError(e), errors);
+			return rows + copyOrIsolate(second, errors);
+		}
+		return rows + isolate(second, null, errors);
+	}
+
+	private long copyOrIsolate(List<?> payloads, List<RowError> errors) {
+		try {
+			return copy(payloads);
+		}
+		catch (DataAccessException e) {
+			return isolate(payloads, rethrowUnlessDataError(e), errors);
+		}
+	}
+
+	private static DataAccessException rethrowUnlessDataError(DataAccessException e) {
+		if (!isDataError(e)) {
+			throw e;
+		}
+		return e;
+	}
+
+	/**
+	 * Whether the failure was caused by the data of the rows copied: a {@link DataIntegrityViolationException}, which
+	 * payloads that cannot be encoded are reported as, or an SQLState of class 22 (data exception) or 23 (integrity
+	 * constraint violation). Transient failures and failures to reach the database never are.
+	 */
+	static boolean isDataError(DataAccessException e) {
+		if (e instanceof TransientDataAccessException || e instanceof DataAccessResourceFailureException) {
+			return false;
+		}
+		if (e instanceof DataIntegrityViolationException) {
+			return true;
+		}
+		for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+			if (cause instanceof SQLException) {
+				String sqlState = ((SQLException) cause).getSQLState();
+				return sqlState != null && (sqlState.startsWith("22") || sqlState.startsWith("23"));
+			}
+		}
+		return false;
+	}
+
+	private void writeErrors(List<RowError> errors) {
+		if (!StringUtils.hasText(this.errorTable) || errors.isEmpty()) {
+			return;
+		}
+		List<Object[]> rows = new ArrayList<>(errors.size());
+		for (RowError error : errors) {
+			rows.add(new Object[] { this.tableName, error.message, error.payload });
+		}
+		try {
+			this.jdbcTemplate.batchUpdate(
+					"insert into " + this.errorTable + " (table_name, error_message, payload) values (?, ?, ?)", rows);
+		}
+		catch (DataAccessException e) {
+			logger.error("Writing to error table failed: " + e.getMessage());
+			throw e;
+		}
+	}
+
+	/**
+	 * Record a batch that failed as a whole where the failure cannot be rethrown to the binder, on the threads of the
+	 * parallel and pipelined modes: its rows are counted as failed and written to the error table, if one is
+	 * configured, so that they can be found and copied again. A failure to write the error table is only logged.
+	 */
+	void failed(Collection<?> payloads, RuntimeException failure) {
+		logger.error("Copy of batch of " + payloads.size() + " rows failed", failure);
+		this.metrics.failedRows(payloads.size());
+		if (!StringUtils.hasText(this.errorTable)) {
+			return;
+		}
+		List<RowError> errors = new ArrayList<>(payloads.size());
+		for (Object payload : payloads) {
+			errors.add(new RowError(payload, failure));
+		}
+		try {
+			this.txTemplate.executeWithoutResult(transactionStatus -> writeErrors(errors));
+			this.metrics.errorRowsWritten(errors.size());
+		}
+		catch (RuntimeException e) {
+			logger.error("The " + errors.size() + " rows of the failed batch were not written to the error table: "
+					+ e.getMessage());
+		}
+	}
+
+	private static final class RowError {
+
+		private final Object payload;
+
+		private final String message;
+
+		private RowError(Object payload, RuntimeException exception) {
+			this.payload = payload;
+			this.message = (exception.getCause() != null) ? exception.getCause().getMessage() : exception.getMessage();
+		}
+
+	}
+
+}
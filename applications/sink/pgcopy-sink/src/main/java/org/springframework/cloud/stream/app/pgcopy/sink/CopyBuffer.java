@@ -0,0 +1,193 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.pgcopy.sink;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import org.postgresql.copy.CopyIn;
+
+/**
+ * A growable byte buffer that rows are encoded into before being sent to the server in large chunks. Strings are
+ * encoded as UTF-8, the encoding the driver always uses for the connection, without intermediate byte arrays.
+ * <p>
+ * A buffer is meant to be reused: {@link #flushTo(CopyIn)} sends its content and empties it while keeping the
+ * allocated capacity.
+ */
+class CopyBuffer {
+
+	/**
+	 * Number of buffered bytes after which the content should be sent to the server.
+	 */
+	static final int CHUNK_SIZE = 64 * 1024;
+
+	private byte[] bytes;
+
+	private int size;
+
+	CopyBuffer() {
+		this(CHUNK_SIZE + 1024);
+	}
+
+	CopyBuffer(int capacity) {
+		this.bytes = new byte[capacity];
+	}
+
+	int size() {
+		return this.size;
+	}
+
+	boolean isFull() {
+		return this.size >= CHUNK_SIZE;
+	}
+
+	void reset() {
+		this.size = 0;
+		if (this.bytes.length > 16 * CHUNK_SIZE) {
+			// release the memory taken by an exceptionally large row
+			this.bytes = new byte[CHUNK_SIZE + 1024];
+		}
+	}
+
+	/**
+	 * Discard everything written after the given size, typically a row that could not be encoded completely.
+	 */
+	void truncate(int size) {
+		this.size = size;
+	}
+
+	void write(int b) {
+		ensureCapacity(1);
+		this.bytes[this.size++] = (byte) b;
+	}
+
+	void write(byte[] data) {
+		write(data, 0, data.length);
+	}
+
+	void write(byte[] data, int offset, int length) {
+		ensureCapacity(length);
+		System.arraycopy(data, offset, this.bytes, this.size, length);
+		this.size += length;
+	}
+
+	void writeShort(int value) {
+		ensureCapacity(2);
+		this.bytes[this.size++] = (byte) (value >>> 8);
+		this.bytes[this.size++] = (byte) value;
+	}
+
+	void writeInt(int value) {
+		ensureCapacity(4);
+		putInt(this.size, value);
+		this.size += 4;
+	}
+
+	void writeLong(long value) {
+		writeInt((int) (value >>> 32));
+		writeInt((int) value);
+	}
+
+	void writeDouble(double value) {
+		writeLong(Double.doubleToLongBits(value));
+	}
+
+	/**
+	 * Overwrite the four bytes at the given position, typically a length written before the value it describes.
+	 */
+	void setInt(int position, int value) {
+		putInt(position, value);
+	}
+
+	/**
+	 * Write the UTF-8 encoding of the given characters. Unpaired surrogates are replaced with '?', as
+	 * {@link String#getBytes(java.nio.charset.Charset)} does.
+	 */
+	void writeUtf8(CharSequence text) {
+		int length = text.length();
+		ensureCapacity(length);
+		// ASCII only text, by far the most common, needs no more than one byte per character
+		byte[] bytes = this.bytes;
+		int offset = this.size;
+		int i = 0;
+		while (i < length) {
+			char c = text.charAt(i);
+			if (c >= 0x80) {
+				break;
+			}
+			bytes[offset + i] = (byte) c;
+			i++;
+		}
+		this.size = offset + i;
+		for (; i < length; i++) {
+			char c = text.charAt(i);
+			if (c < 0x80) {
+				write(c);
+			}
+			else if (c < 0x800) {
+				ensureCapacity(2);
+				this.bytes[this.size++] = (byte) (0xC0 | (c >> 6));
+				this.bytes[this.size++] = (byte) (0x80 | (c & 0x3F));
+			}
+			else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+				int codePoint = Character.toCodePoint(c, text.charAt(++i));
+				ensureCapacity(4);
+				this.bytes[this.size++] = (byte) (0xF0 | (codePoint >> 18));
+				this.bytes[this.size++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+				this.bytes[this.size++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+				this.bytes[this.size++] = (byte) (0x80 | (codePoint & 0x3F));
+			}
+			else if (Character.isSurrogate(c)) {
+				write('?');
+			}
+			else {
+				ensureCapacity(3);
+				this.bytes[this.size++] = (byte) (0xE0 | (c >> 12));
+				this.bytes[this.size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+				this.bytes[this.size++] = (byte) (0x80 | (c & 0x3F));
+			}
+		}
+	}
+
+	/**
+	 * Send the buffered bytes with a single call and empty the buffer.
+	 */
+	void flushTo(CopyIn copyIn) throws SQLException {
+		if (this.size > 0) {
+			copyIn.writeToCopy(this.bytes, 0, this.size);
+			this.size = 0;
+		}
+	}
+
+	byte[] toByteArray() {
+		return Arrays.copyOf(this.bytes, this.size);
+	}
+
+	private void putInt(int position, int value) {
+		this.bytes[position] = (byte) (value >>> 24);
+		this.bytes[position + 1] = (byte) (value >>> 16);
+		this.bytes[position + 2] = (byte) (value >>> 8);
+		this.bytes[position + 3] = (byte) value;
+	}
+
+	private void ensureCapacity(int length) {
+		if (this.size + length > this.bytes.length) {
+			this.bytes = Arrays.copyOf(this.bytes, Math.max(this.bytes.length * 2, this.size + length));
+		}
+	}
+
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.pgcopy.sink;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+
+/**
+ * The meters recorded while copying rows into one table, all tagged with the name of the table.
+ */
+class CopyMetrics {
+
+	/**
+	 * Metrics that are not published anywhere.
+	 */
+	static final CopyMetrics NONE = new CopyMetrics(new CompositeMeterRegistry(), "none");
+
+	static final String BISECT = "bisect";
+
+	static final String BATCH = "batch";
+
+	static final String ENCODING = "encoding";
+
+	private final MeterRegistry meterRegistry;
+
+	private final String tableName;
+
+	private final Counter rows;
+
+	private final DistributionSummary batchSize;
+
+	private final Timer copy;
+
+	private final Timer commit;
+
+	private final Counter errorRows;
+
+	private final Counter failedRows;
+
+	private final Counter bisectFallbacks;
+
+	private final Counter batchFallbacks;
+
+	private final Counter encodingFallbacks;
+
+	CopyMetrics(MeterRegistry meterRegistry, String tableName) {
+		this.meterRegistry = meterRegistry;
+		this.tableName = tableName;
+		this.rows = Counter.builder("pgcopy.rows")
+				.description("Rows written to the table")
+				.tag("table", tableName)
+				.register(meterRegistry);
+		this.batchSize = DistributionSummary.builder("pgcopy.batch.size")
+				.description("Rows per COPY operation")
+				.baseUnit("rows")
+				.tag("table", tableName)
+				.register(meterRegistry);
+		this.copy = Timer.builder("pgcopy.copy")
+				.description("Time from the start of a COPY operation until the server acknowledged its end")
+				.tag("table", tableName)
+				.register(meterRegistry);
+		this.commit = Timer.builder("pgcopy.commit")
+				.description("Time spent committing the transaction of a COPY operation")
+				.tag("table", tableName)
+				.register(meterRegistry);
+		this.errorRows = Counter.builder("pgcopy.error.rows")
+				.description("Rows written to the error table")
+				.tag("table", tableName)
+				.register(meterRegistry);
+		this.failedRows = Counter.builder("pgcopy.failed.rows")
+				.description("Rows of batches that failed as a whole on a copy thread")
+				.tag("table", tableName)
+				.register(meterRegistry);
+		this.bisectFallbacks = fallbacks(meterRegistry, tableName, BISECT);
+		this.batchFallbacks = fallbacks(meterRegistry, tableName, BATCH);
+		this.encodingFallbacks = fallbacks(meterRegistry, tableName, ENCODING);
+	}
+
+	void batch(int size) {
+		this.batchSize.record(size);
+	}
+
+	void rowsWritten(long count) {
+		this.rows.increment(count);
+	}
+
+	void copied(long nanos) {
+		this.copy.record(nanos, TimeUnit.NANOSECONDS);
+	}
+
+	void committed(long nanos) {
+		this.commit.record(nanos, TimeUnit.NANOSECONDS);
+	}
+
+	void errorRowsWritten(int count) {
+		this.errorRows.increment(count);
+	}
+
+	/**
+	 * Record the rows of a batch that failed as a whole where the failure could not be rethrown.
+	 */
+	void failedRows(int count) {
+		this.failedRows.increment(count);
+	}
+
+	/**
+	 * Record that a failed batch is retried by bisecting it.
+	 */
+	void bisected() {
+		this.bisectFallbacks.increment();
+	}
+
+	/**
+	 * Record that the rows of a failed streaming transaction are handed to the batch writer.
+	 */
+	void switchedToBatch() {
+		this.batchFallbacks.increment();
+	}
+
+	/**
+	 * Record that a payload that could not be encoded is handed to the batch writer.
+	 */
+	void encodingFailed() {
+		this.encodingFallbacks.increment();
+	}
+
+	/**
+	 * Publish the encoded size of the rows of the open streaming transaction, whose payloads are retained on the heap
+	 * for the fallback.
+	 */
+	<T> void streamingPendingBytes(T writer, ToDoubleFunction<T> pendingBytes) {
+		Gauge.builder("pgcopy.streaming.pending.bytes", writer, pendingBytes)
+				.description("Encoded bytes of the rows written to the open streaming transaction")
+				.baseUnit("bytes")
+				.tag("table", this.tableName)
+				.register(this.meterRegistry);
+	}
+
+	private static Counter fallbacks(MeterRegistry meterRegistry, String tableName, String type) {
+		return Counter.builder("pgcopy.fallbacks")
+				.description("Failed COPY operations or rows handed to a slower, more forgiving write path")
+				.tag("table", tableName)
+				.tag("type", type)
+				.register(meterRegistry);
+	}
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.pgcopy.sink;
+
+/**
+ * Turns message payloads into the bytes sent to the server during a COPY operation.
+ */
+@FunctionalInterface
+interface CopyRowEncoder {
+
+	/**
+	 * Bytes that do not contribute anything to the COPY data stream.
+	 */
+	byte[] NONE = new byte[0];
+
+	/**
+	 * Return the bytes to send once at the start of every COPY operation.
+	 * @return the header bytes
+	 */
+	default byte[] header() {
+		return NONE;
+	}
+
+	/**
+	 * Encode a single payload as one row of the COPY data stream, appending it to the given buffer.
+	 * @param payload the message payload
+	 * @param buffer the buffer receiving the row bytes, including any row terminator
+	 */
+	void encode(Object payload, CopyBuffer buffer);
+
+	/**
+	 * Encode a single payload as one row of the COPY data stream.
+	 * @param payload the message payload
+	 * @return the row bytes, including any row terminator
+	 */
+	default byte[] encode(Object payload) {
+		CopyBuffer buffer = new CopyBuffer(64);
+		encode(payload, buffer);
+		return buffer.toByteArray();
+	}
+
+	/**
+	 * Return the bytes to send once at the end of every COPY operation.
+	 * @return the trailer bytes
+	 */
+	default byte[] trailer() {
+		return NONE;
+	}
+
+}
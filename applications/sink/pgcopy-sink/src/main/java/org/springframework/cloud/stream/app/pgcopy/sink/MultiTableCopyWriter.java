@@ -0,0 +1,219 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.pgcopy.sink;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.messaging.Message;
+
+/**
+ * Routes every message to a buffer for the table selected by an expression. Each table has its own COPY statement
+ * and flush policy: a buffer is copied once it holds the table's batch size, or once no message was added to it for
+ * the table's idle timeout, checked whenever {@link #flushIdle()} is called.
+ * <p>
+ * The number of buffers holding rows at any time is bounded; when a message for a new table arrives and the bound is
+ * reached, the buffer that was least recently written to is copied first.
+ * <p>
+ * A buffer is only discarded once copied. When the copy fails, which the {@link CopyBatchWriter} only lets happen
+ * for failures not caused by the data, the buffer keeps its rows to be copied again later, and the message being
+ * written is rejected, so that the binder can deliver it again. The buffers that cannot be copied on close are handed
+ * to {@link CopyBatchWriter#failed(java.util.Collection, RuntimeException)}.
+ */
+class MultiTableCopyWriter {
+
+	private static final Log logger = LogFactory.getLog(MultiTableCopyWriter.class);
+
+	private static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_$]*(\\.[A-Za-z_][A-Za-z0-9_$]*)?");
+
+	private final Expression tableExpression;
+
+	private final EvaluationContext evaluationContext;
+
+	private final String defaultTable;
+
+	private final Function<String, TablePolicy> policies;
+
+	private final int maxOpenBuffers;
+
+	private final int maxTables;
+
+	private final Map<String, TablePolicy> knownTables = new HashMap<>();
+
+	private final LinkedHashMap<String, TableBuffer> buffers = new LinkedHashMap<>(16, 0.75f, true);
+
+	MultiTableCopyWriter(Expression tableExpression, EvaluationContext evaluationContext, String defaultTable,
+			Function<String, TablePolicy> policies, int maxOpenBuffers, int maxTables) {
+
+		this.tableExpression = tableExpression;
+		this.evaluationContext = evaluationContext;
+		this.defaultTable = defaultTable;
+		this.policies = policies;
+		this.maxOpenBuffers = maxOpenBuffers;
+		this.maxTables = maxTables;
+	}
+
+	synchronized void write(Message<?> message) {
+		String table = this.tableExpression.getValue(this.evaluationContext, message, String.class);
+		if (table == null) {
+			table = this.defaultTable;
+		}
+		TableBuffer buffer = this.buffers.get(table);
+		if (buffer == null) {
+			if (!TABLE_NAME.matcher(table).matches()) {
+				throw new IllegalArgumentException("Invalid table name '" + table + "'");
+			}
+			TablePolicy policy = this.knownTables.get(table);
+			if (policy == null) {
+				if (this.knownTables.size() >= this.maxTables) {
+					throw new IllegalArgumentException("Cannot write to table '" + table + "', the maximum of "
+							+ this.maxTables + " tables has been reached");
+				}
+				policy = this.policies.apply(table);
+				this.knownTables.put(table, policy);
+			}
+			if (this.maxOpenBuffers > 0 && this.buffers.size() >= this.maxOpenBuffers) {
+				Iterator<TableBuffer> eldest = this.buffers.values().iterator();
+				TableBuffer evicted = eldest.next();
+				if (logger.isDebugEnabled()) {
+					logger.debug("Copying buffer for " + evicted.table + " to open a buffer for " + table);
+				}
+				evicted.copy();
+				eldest.remove();
+			}
+			buffer = new TableBuffer(table, policy);
+			this.buffers.put(table, buffer);
+		}
+		buffer.add(message.getPayload());
+		if (buffer.isFull()) {
+			try {
+				buffer.copy();
+			}
+			catch (RuntimeException e) {
+				buffer.removeLast();
+				if (buffer.isEmpty()) {
+					this.buffers.remove(table);
+				}
+				throw e;
+			}
+			this.buffers.remove(table);
+		}
+	}
+
+	synchronized void flushIdle() {
+		long now = System.currentTimeMillis();
+		for (Iterator<TableBuffer> iterator = this.buffers.values().iterator(); iterator.hasNext();) {
+			TableBuffer buffer = iterator.next();
+			if (buffer.isIdle(now)) {
+				try {
+					buffer.copy();
+				}
+				catch (RuntimeException e) {
+					logger.error("Copy of idle buffer for " + buffer.table + " failed, keeping its "
+							+ buffer.payloads.size() + " rows: " + e.getMessage());
+					continue;
+				}
+				iterator.remove();
+			}
+		}
+	}
+
+	synchronized void flush() {
+		for (TableBuffer buffer : this.buffers.values()) {
+			try {
+				buffer.copy();
+			}
+			catch (RuntimeException e) {
+				buffer.policy.batchWriter.failed(buffer.payloads, e);
+			}
+		}
+		this.buffers.clear();
+	}
+
+	/**
+	 * How the rows for one table are copied and when its buffer is flushed.
+	 */
+	static final class TablePolicy {
+
+		private final CopyBatchWriter batchWriter;
+
+		private final int batchSize;
+
+		private final long idleTimeout;
+
+		TablePolicy(CopyBatchWriter batchWriter, int batchSize, long idleTimeout) {
+			this.batchWriter = batchWriter;
+			this.batchSize = batchSize;
+			this.idleTimeout = idleTimeout;
+		}
+
+	}
+
+	private static final class TableBuffer {
+
+		private final String table;
+
+		private final TablePolicy policy;
+
+		private final List<Object> payloads = new ArrayList<>();
+
+		private long lastUpdate;
+
+		private TableBuffer(String table, TablePolicy policy) {
+			this.table = table;
+			this.policy = policy;
+		}
+
+		private void add(Object payload) {
+			this.payloads.add(payload);
+			this.lastUpdate = System.currentTimeMillis();
+		}
+
+		private void removeLast() {
+			this.payloads.remove(this.payloads.size() - 1);
+		}
+
+		private boolean isEmpty() {
+			return this.payloads.isEmpty();
+		}
+
+		private boolean isFull() {
+			return this.payloads.size() >= this.policy.batchSize;
+		}
+
+		private boolean isIdle(long now) {
+			return now - this.lastUpdate >= this.policy.idleTimeout;
+		}
+
+		private void copy() {
+			this.policy.batchWriter.write(this.payloads);
+		}
+
+	}
+
+}
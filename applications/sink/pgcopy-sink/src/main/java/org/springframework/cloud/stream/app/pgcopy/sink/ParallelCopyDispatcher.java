@@ -0,0 +1,148 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.pgcopy.sink;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Hands batches to a fixed number of worker threads, each running its own COPY operations and therefore using its
+ * own connection from the pool. When a partition key expression is set, every batch is split so that rows with the
+ * same key are always copied by the same worker; otherwise batches are handed to the workers in turn.
+ * <p>
+ * The number of batches handed to the workers and not yet committed is bounded; the dispatching thread blocks until
+ * a worker completes a batch once that bound is reached.
+ * <p>
+ * A batch that fails on a worker is handed back to the {@link CopyBatchWriter}, which counts its rows and writes them
+ * to the error table, if one is configured.
+ */
+class ParallelCopyDispatcher {
+
+	private static final Log logger = LogFactory.getLog(ParallelCopyDispatcher.class);
+
+	private final CopyBatchWriter batchWriter;
+
+	private final Expression partitionKeyExpression;
+
+	private final EvaluationContext evaluationContext;
+
+	private final ExecutorService[] workers;
+
+	private final Semaphore inFlight;
+
+	private final AtomicInteger next = new AtomicInteger();
+
+	private volatile boolean closed;
+
+	ParallelCopyDispatcher(CopyBatchWriter batchWriter, int parallelism, int maxInFlightBatches,
+			Expression partitionKeyExpression, EvaluationContext evaluationContext) {
+
+		this.batchWriter = batchWriter;
+		this.partitionKeyExpression = partitionKeyExpression;
+		this.evaluationContext = evaluationContext;
+		this.workers = new ExecutorService[parallelism];
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("pgcopy-");
+		for (int i = 0; i < parallelism; i++) {
+			this.workers[i] = Executors.newSingleThreadExecutor(threadFactory);
+		}
+		this.inFlight = new Semaphore(maxInFlightBatches > 0 ? maxInFlightBatches : 2 * parallelism);
+	}
+
+	void dispatch(Collection<?> payloads) {
+		if (this.partitionKeyExpression == null) {
+			submit(Math.floorMod(this.next.getAndIncrement(), this.workers.length), payloads);
+			return;
+		}
+		List<List<Object>> partitions = new ArrayList<>(this.workers.length);
+		for (int i = 0; i < this.workers.length; i++) {
+			partitions.add(new ArrayList<>());
+		}
+		for (Object payload : payloads) {
+			Object key = this.partitionKeyExpression.getValue(this.evaluationContext, payload);
+			partitions.get(Math.floorMod(ObjectUtils.nullSafeHashCode(key), this.workers.length)).add(payload);
+		}
+		for (int i = 0; i < this.workers.length; i++) {
+			if (!partitions.get(i).isEmpty()) {
+				submit(i, partitions.get(i));
+			}
+		}
+	}
+
+	void close() {
+		this.closed = true;
+		for (ExecutorService worker : this.workers) {
+			worker.shutdown();
+		}
+		try {
+			for (ExecutorService worker : this.workers) {
+				if (!worker.awaitTermination(30, TimeUnit.SECONDS)) {
+					logger.warn("Timed out waiting for pending COPY operations to complete");
+				}
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void submit(int worker, Collection<?> payloads) {
+		if (this.closed) {
+			this.batchWriter.write(payloads);
+			return;
+		}
+		try {
+			this.inFlight.acquire();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for a COPY worker", e);
+		}
+		try {
+			this.workers[worker].execute(() -> {
+				try {
+					this.batchWriter.write(payloads);
+				}
+				catch (RuntimeException e) {
+					this.batchWriter.failed(payloads, e);
+				}
+				finally {
+					this.inFlight.release();
+				}
+			});
+		}
+		catch (RejectedExecutionException e) {
+			this.inFlight.release();
+			this.batchWriter.write(payloads);
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2016-2019 the original author or authors.
+ * Copyright 2016-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,23 +16,25 @@
 
 package org.springframework.cloud.stream.app.pgcopy.sink;
 
-import java.sql.Connection;
-import java.sql.SQLException;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.List;
 import java.util.function.Consumer;
 
 import javax.sql.DataSource;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
 import jakarta.annotation.PreDestroy;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.postgresql.copy.CopyIn;
-import org.postgresql.copy.CopyManager;
-import org.postgresql.core.BaseConnection;
 
+import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.FactoryBean;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.stream.binding.InputBindingLifecycle;
@@ -41,16 +43,17 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.integration.aggregator.DefaultAggregatingMessageGroupProcessor;
 import org.springframework.integration.aggregator.ExpressionEvaluatingCorrelationStrategy;
 import org.springframework.integration.aggregator.MessageCountReleaseStrategy;
 import org.springframework.integration.annotation.ServiceActivator;
 import org.springframework.integration.channel.DirectChannel;
 import org.springframework.integration.config.AggregatorFactoryBean;
+import org.springframework.integration.expression.ExpressionUtils;
 import org.springframework.integration.store.MessageGroupStore;
 import org.springframework.integration.store.MessageGroupStoreReaper;
 import org.springframework.integration.store.SimpleMessageStore;
-import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.datasource.init.DataSourceInitializer;
 import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
@@ -64,6 +67,7 @@ import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.support.TransactionCallback;
 import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 
 /**
@@ -84,50 +88,103 @@ public class PgcopySinkConfiguration {
 	private PgcopySinkProperties properties;
 
 	@Bean
-	public Consumer<Message<?>> pgcopyConsumer(MessageHandler aggregatingMessageHandler) {
-		return aggregatingMessageHandler::handleMessage;
+	public MessageChannel toSink() {
+		return new DirectChannel();
 	}
 
 	@Bean
-	@Primary
-	FactoryBean<MessageHandler> aggregatorFactoryBean(MessageChannel toSink, MessageGroupStore messageGroupStore) {
-		AggregatorFactoryBean aggregatorFactoryBean = new AggregatorFactoryBean();
-		aggregatorFactoryBean.setCorrelationStrategy(
-				new ExpressionEvaluatingCorrelationStrategy("payload.getClass().name"));
-		aggregatorFactoryBean.setReleaseStrategy(new MessageCountReleaseStrategy(properties.getBatchSize()));
-		aggregatorFactoryBean.setMessageStore(messageGroupStore);
-		aggregatorFactoryBean.setProcessorBean(new DefaultAggregatingMessageGroupProcessor());
-		aggregatorFactoryBean.setExpireGroupsUponCompletion(true);
-		aggregatorFactoryBean.setSendPartialResultOnExpiry(true);
-		aggregatorFactoryBean.setOutputChannel(toSink);
-		return aggregatorFactoryBean;
-	}
+	@ServiceActivator(inputChannel = "toSink")
+	public MessageHandler datasetSinkMessageHandler(final CopyBatchWriter batchWriter,
+													final ObjectProvider<ParallelCopyDispatcher> parallelCopyDispatcher) {
 
-	@Bean
-	public MessageChannel toSink() {
-		return new DirectChannel();
+		final ParallelCopyDispatcher dispatcher = parallelCopyDispatcher.getIfAvailable();
+
+		return new MessageHandler() {
+
+			@Override
+			public void handleMessage(Message<?> message) throws MessagingException {
+				Object payload = message.getPayload();
+				if (payload instanceof Collection<?> && dispatcher != null) {
+					dispatcher.dispatch((Collection<?>) payload);
+				}
+				else if (payload instanceof Collection<?>) {
+					batchWriter.write((Collection<?>) payload);
+				}
+				else {
+					throw new IllegalStateException("Expected a collection of strings but received " +
+							message.getPayload().getClass().getName());
+				}
+			}
+		};
 	}
 
 	@Bean
-	@ServiceActivator(inputChannel = "toSink")
-	public MessageHandler datasetSinkMessageHandler(final JdbcTemplate jdbcTemplate,
-													final PlatformTransactionManager platformTransactionManager) {
+	CopyBatchWriter copyBatchWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager platformTransactionManager,
+			CopyRowEncoder copyRowEncoder, ObjectProvider<MeterRegistry> meterRegistry) {
 
-		final TransactionTemplate txTemplate = new TransactionTemplate(platformTransactionManager);
+		TransactionTemplate txTemplate = new TransactionTemplate(platformTransactionManager);
 
 		if (StringUtils.hasText(properties.getErrorTable())) {
 			verifyErrorTable(jdbcTemplate, txTemplate);
 		}
 
+		return new CopyBatchWriter(jdbcTemplate, txTemplate, copySql(properties), copyRowEncoder,
+				properties.getTableName(), properties.getErrorTable(),
+				stagingMerge(properties, properties.getTableName(), properties.getColumns()),
+				new CopyMetrics(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry), properties.getTableName()));
+	}
+
+	@Bean(destroyMethod = "close")
+	@ConditionalOnExpression("${pgcopy.parallelism:1} > 1")
+	ParallelCopyDispatcher parallelCopyDispatcher(CopyBatchWriter copyBatchWriter, BeanFactory beanFactory) {
+		return new ParallelCopyDispatcher(copyBatchWriter, properties.getParallelism(),
+				properties.getMaxInFlightBatches(), properties.getPartitionKeyExpression(),
+				ExpressionUtils.createStandardEvaluationContext(beanFactory));
+	}
+
+	@Bean
+	CopyRowEncoder copyRowEncoder(ObjectProvider<ObjectMapper> objectMapper) {
+		return copyRowEncoder(properties, properties.getColumns(), objectMapper);
+	}
+
+	@ConditionalOnProperty("pgcopy.initialize")
+	@Bean
+	public DataSourceInitializer nonBootDataSourceInitializer(DataSource dataSource, ResourceLoader resourceLoader) {
+		DataSourceInitializer dataSourceInitializer = new DataSourceInitializer();
+		dataSourceInitializer.setDataSource(dataSource);
+		ResourceDatabasePopulator databasePopulator = new ResourceDatabasePopulator();
+		databasePopulator.setIgnoreFailedDrops(true);
+		dataSourceInitializer.setDatabasePopulator(databasePopulator);
+		if ("true".equals(properties.getInitialize())) {
+			databasePopulator.addScript(new DefaultInitializationScriptResource(properties.getTableName(),
+					properties.getColumns()));
+		}
+		else {
+			databasePopulator.addScript(resourceLoader.getResource(properties.getInitialize()));
+		}
+		return dataSourceInitializer;
+	}
+
+	@Bean
+	public JdbcTemplate jdbcTemplate(DataSource dataSource) {
+		JdbcTemplate jt = new JdbcTemplate(dataSource);
+		return jt;
+	}
+
+	static String copySql(PgcopySinkProperties properties) {
+		return copySql(properties, properties.getTableName(), properties.getColumns());
+	}
+
+	static String copySql(PgcopySinkProperties properties, String tableName, List<String> columnNames) {
 		StringBuilder columns = new StringBuilder();
-		for (String col : properties.getColumns()) {
+		for (String col : columnNames) {
 			if (columns.length() > 0) {
 				columns.append(",");
 			}
 			columns.append(col);
 		}
 		// the copy command
-		final StringBuilder sql = new StringBuilder("COPY " + properties.getTableName());
+		StringBuilder sql = new StringBuilder("COPY " + tableName);
 		if (columns.length() > 0) {
 			sql.append(" (" + columns + ")");
 		}
@@ -137,6 +194,9 @@ public class PgcopySinkConfiguration {
 		if (properties.getFormat() == PgcopySinkProperties.Format.CSV) {
 			options.append("CSV");
 		}
+		else if (properties.getFormat() == PgcopySinkProperties.Format.BINARY) {
+			options.append("BINARY");
+		}
 		if (properties.getDelimiter() != null) {
 			options.append(escapedOptionCharacterValue(options.length(), "DELIMITER", properties.getDelimiter()));
 		}
@@ -152,149 +212,49 @@ public class PgcopySinkConfiguration {
 		if (options.length() > 0) {
 			sql.append(" WITH " + options.toString());
 		}
-
-		return new MessageHandler() {
-
-			@Override
-			public void handleMessage(Message<?> message) throws MessagingException {
-				Object payload = message.getPayload();
-				if (payload instanceof Collection<?>) {
-					final Collection<?> payloads = (Collection<?>) payload;
-					if (logger.isDebugEnabled()) {
-						logger.debug("Executing batch of size " + payloads.size() + " for " + sql);
-					}
-					try {
-						long rows = doCopy(payloads, txTemplate);
-						if (logger.isDebugEnabled()) {
-							logger.debug("Wrote " + rows + " rows");
-						}
-					}
-					catch (DataAccessException e) {
-						logger.error("Error while copying batch of data: " + e.getMessage());
-						logger.error("Switching to single row copy for current batch");
-						long rows = 0;
-						for (Object singlePayload : payloads) {
-							try {
-								rows = rows + doCopy(Collections.singletonList(singlePayload), txTemplate);
-							}
-							catch (DataAccessException e2) {
-								logger.error("Copy for single row caused error: " + e2.getMessage());
-								logger.error("Bad Data: \n" + singlePayload);
-								if (StringUtils.hasText(properties.getErrorTable())) {
-									writeError(e2, singlePayload);
-								}
-							}
-						}
-						if (logger.isDebugEnabled()) {
-							logger.debug("Re-tried batch and wrote " + rows + " rows");
-						}
-					}
-				}
-				else {
-					throw new IllegalStateException("Expected a collection of strings but received " +
-							message.getPayload().getClass().getName());
-				}
-			}
-
-			private void writeError(final DataAccessException exception, final Object payload) {
-				final String message;
-				if (exception.getCause() != null) {
-					message = exception.getCause().getMessage();
-				}
-				else {
-					message = exception.getMessage();
-				}
-				try {
-					txTemplate.execute(new TransactionCallback<Long>() {
-						@Override
-						public Long doInTransaction(TransactionStatus transactionStatus) {
-							jdbcTemplate.update(
-									"insert into " + properties.getErrorTable() + " (table_name, error_message, payload) values (?, ?, ?)",
-									new Object[]{properties.getTableName(), message, payload});
-							return null;
-						}
-					});
-				}
-				catch (DataAccessException e) {
-					logger.error("Writing to error table failed: " + e.getMessage());
-				}
-			}
-
-			private long doCopy(final Collection<?> payloads, TransactionTemplate txTemplate) {
-				Long rows = txTemplate.execute(transactionStatus -> jdbcTemplate.execute(
-						new ConnectionCallback<Long>() {
-							@Override
-							public Long doInConnection(Connection connection) throws SQLException, DataAccessException {
-								CopyManager cm = connection.unwrap(BaseConnection.class).getCopyAPI();
-								CopyIn ci = cm.copyIn(sql.toString());
-								for (Object payloadData : payloads) {
-									String textPayload = (payloadData instanceof byte[]) ?
-											new String((byte[]) payloadData) : (String) payloadData;
-									byte[] data = (textPayload + "\n").getBytes();
-									ci.writeToCopy(data, 0, data.length);
-								}
-								return Long.valueOf(ci.endCopy());
-							}
-						}
-				));
-				return rows;
-			}
-		};
+		return sql.toString();
 	}
 
-	@ConditionalOnProperty("pgcopy.initialize")
-	@Bean
-	public DataSourceInitializer nonBootDataSourceInitializer(DataSource dataSource, ResourceLoader resourceLoader) {
-		DataSourceInitializer dataSourceInitializer = new DataSourceInitializer();
-		dataSourceInitializer.setDataSource(dataSource);
-		ResourceDatabasePopulator databasePopulator = new ResourceDatabasePopulator();
-		databasePopulator.setIgnoreFailedDrops(true);
-		dataSourceInitializer.setDatabasePopulator(databasePopulator);
-		if ("true".equals(properties.getInitialize())) {
-			databasePopulator.addScript(new DefaultInitializationScriptResource(properties.getTableName(),
-					properties.getColumns()));
-		}
-		else {
-			databasePopulator.addScript(resourceLoader.getResource(properties.getInitialize()));
+	static CopyRowEncoder copyRowEncoder(PgcopySinkProperties properties, List<String> columns,
+			ObjectProvider<ObjectMapper> objectMapper) {
+		if (properties.getFormat() == PgcopySinkProperties.Format.BINARY) {
+			return new BinaryCopyRowEncoder(columns, properties.getColumnTypes(),
+					objectMapper.getIfAvailable(ObjectMapper::new));
 		}
-		return dataSourceInitializer;
-	}
-
-	@Bean
-	MessageGroupStore messageGroupStore() {
-		SimpleMessageStore messageGroupStore = new SimpleMessageStore();
-		messageGroupStore.setTimeoutOnIdle(true);
-		messageGroupStore.setCopyOnGet(false);
-		return messageGroupStore;
+		return PgcopySinkConfiguration::textRow;
 	}
 
-	@Bean
-	MessageGroupStoreReaper messageGroupStoreReaper(MessageGroupStore messageStore,
-													InputBindingLifecycle inputBindingLifecycle) {
-		MessageGroupStoreReaper messageGroupStoreReaper = new MessageGroupStoreReaper(messageStore);
-		messageGroupStoreReaper.setPhase(inputBindingLifecycle.getPhase() - 1);
-		messageGroupStoreReaper.setTimeout(properties.getIdleTimeout());
-		messageGroupStoreReaper.setAutoStartup(true);
-		messageGroupStoreReaper.setExpireOnDestroy(true);
-		return messageGroupStoreReaper;
+	static StagingMerge stagingMerge(PgcopySinkProperties properties, String tableName, List<String> columns) {
+		if (properties.getMerge().getConflictColumns().isEmpty()) {
+			return null;
+		}
+		return new StagingMerge(properties, tableName, columns);
 	}
 
-	@Bean
-	ReaperTask reaperTask() {
-		return new ReaperTask();
+	static void textRow(Object payload, CopyBuffer buffer) {
+		if (payload instanceof byte[]) {
+			buffer.write((byte[]) payload);
+		}
+		else {
+			buffer.writeUtf8((String) payload);
+		}
+		buffer.write('\n');
 	}
 
-	@Bean
-	public JdbcTemplate jdbcTemplate(DataSource dataSource) {
-		JdbcTemplate jt = new JdbcTemplate(dataSource);
-		return jt;
+	static void encodeRow(CopyRowEncoder copyRowEncoder, Object payload, CopyBuffer buffer) {
+		try {
+			copyRowEncoder.encode(payload, buffer);
+		}
+		catch (IllegalArgumentException e) {
+			throw new DataIntegrityViolationException("Unable to encode payload: " + e.getMessage(), e);
+		}
 	}
 
-	private String quotedOptionCharacterValue(int length, String option, char value) {
+	private static String quotedOptionCharacterValue(int length, String option, char value) {
 		return (length > 0 ? " " : "") + option + " '" + (value == '\'' ? "''" : value) + "'";
 	}
 
-	private String escapedOptionCharacterValue(int length, String option, String value) {
+	private static String escapedOptionCharacterValue(int length, String option, String value) {
 		return (length > 0 ? " " : "") + option + " " + (value.startsWith("\\") ? "E'" + value : "'" + value) + "'";
 	}
 
@@ -316,6 +276,178 @@ public class PgcopySinkConfiguration {
 		}
 	}
 
+	@Configuration
+	@ConditionalOnProperty(prefix = "pgcopy", name = "mode", havingValue = "aggregating", matchIfMissing = true)
+	static class AggregatingConfiguration {
+
+		@Bean
+		public Consumer<Message<?>> pgcopyConsumer(MessageHandler aggregatingMessageHandler) {
+			return aggregatingMessageHandler::handleMessage;
+		}
+
+		@Bean
+		@Primary
+		FactoryBean<MessageHandler> aggregatorFactoryBean(@Qualifier("toSink") MessageChannel toSink,
+				MessageGroupStore messageGroupStore, PgcopySinkProperties properties) {
+			AggregatorFactoryBean aggregatorFactoryBean = new AggregatorFactoryBean();
+			aggregatorFactoryBean.setCorrelationStrategy(
+					new ExpressionEvaluatingCorrelationStrategy("payload.getClass().name"));
+			aggregatorFactoryBean.setReleaseStrategy(new MessageCountReleaseStrategy(properties.getBatchSize()));
+			aggregatorFactoryBean.setMessageStore(messageGroupStore);
+			aggregatorFactoryBean.setProcessorBean(new DefaultAggregatingMessageGroupProcessor());
+			aggregatorFactoryBean.setExpireGroupsUponCompletion(true);
+			aggregatorFactoryBean.setSendPartialResultOnExpiry(true);
+			aggregatorFactoryBean.setOutputChannel(toSink);
+			return aggregatorFactoryBean;
+		}
+
+		@Bean
+		MessageGroupStore messageGroupStore() {
+			SimpleMessageStore messageGroupStore = new SimpleMessageStore();
+			messageGroupStore.setTimeoutOnIdle(true);
+			messageGroupStore.setCopyOnGet(false);
+			return messageGroupStore;
+		}
+
+		@Bean
+		MessageGroupStoreReaper messageGroupStoreReaper(MessageGroupStore messageStore,
+				InputBindingLifecycle inputBindingLifecycle, PgcopySinkProperties properties) {
+			MessageGroupStoreReaper messageGroupStoreReaper = new MessageGroupStoreReaper(messageStore);
+			messageGroupStoreReaper.setPhase(inputBindingLifecycle.getPhase() - 1);
+			messageGroupStoreReaper.setTimeout(properties.getIdleTimeout());
+			messageGroupStoreReaper.setAutoStartup(true);
+			messageGroupStoreReaper.setExpireOnDestroy(true);
+			return messageGroupStoreReaper;
+		}
+
+		@Bean
+		ReaperTask reaperTask() {
+			return new ReaperTask();
+		}
+
+	}
+
+	@Configuration
+	@ConditionalOnProperty(prefix = "pgcopy", name = "mode", havingValue = "streaming")
+	static class StreamingConfiguration {
+
+		@Bean
+		public Consumer<Message<?>> pgcopyConsumer(StreamingCopyWriter streamingCopyWriter) {
+			return message -> streamingCopyWriter.write(message.getPayload());
+		}
+
+		@Bean
+		StreamingCopyWriter streamingCopyWriter(DataSource dataSource,
+				@Qualifier("datasetSinkMessageHandler") MessageHandler datasetSinkMessageHandler,
+				CopyRowEncoder copyRowEncoder, ObjectProvider<MeterRegistry> meterRegistry,
+				PgcopySinkProperties properties) {
+			Assert.state(properties.getMerge().getConflictColumns().isEmpty(),
+					"'pgcopy.merge' is not supported when the mode is 'streaming'");
+			PgcopySinkProperties.Streaming streaming = properties.getStreaming();
+			return new StreamingCopyWriter(dataSource, copySql(properties), copyRowEncoder,
+					datasetSinkMessageHandler, properties.getBatchSize(), streaming.getMaxBytes(),
+					streaming.getMaxLatency(),
+					new CopyMetrics(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry),
+							properties.getTableName()));
+		}
+
+		@Bean
+		StreamingFlushTask streamingFlushTask() {
+			return new StreamingFlushTask();
+		}
+
+	}
+
+	@Configuration
+	@ConditionalOnProperty(prefix = "pgcopy", name = "mode", havingValue = "pipelined")
+	static class PipelinedConfiguration {
+
+		@Bean
+		public Consumer<Message<?>> pgcopyConsumer(PipelinedCopyWriter pipelinedCopyWriter) {
+			return message -> pipelinedCopyWriter.write(message.getPayload());
+		}
+
+		@Bean
+		PipelinedCopyWriter pipelinedCopyWriter(CopyBatchWriter copyBatchWriter,
+				ObjectProvider<MeterRegistry> meterRegistry, PgcopySinkProperties properties) {
+			PgcopySinkProperties.Pipeline pipeline = properties.getPipeline();
+			return new PipelinedCopyWriter(copyBatchWriter, pipeline.getBuffers(), properties.getBatchSize(),
+					pipeline.getMaxLatency(), meterRegistry.getIfAvailable(() -> Metrics.globalRegistry),
+					properties.getTableName());
+		}
+
+		@Bean
+		PipelineFlushTask pipelineFlushTask() {
+			return new PipelineFlushTask();
+		}
+
+	}
+
+	@Configuration
+	@ConditionalOnProperty(prefix = "pgcopy", name = "mode", havingValue = "batch")
+	static class BatchConfiguration {
+
+		@Bean
+		public Consumer<Message<List<byte[]>>> pgcopyConsumer(CopyBatchWriter copyBatchWriter) {
+			return message -> copyBatchWriter.write(message.getPayload());
+		}
+
+	}
+
+	@Configuration
+	@ConditionalOnProperty(prefix = "pgcopy", name = "mode", havingValue = "routing")
+	static class RoutingConfiguration {
+
+		private static final String OTHER_TABLES = "other";
+
+		@Bean
+		public Consumer<Message<?>> pgcopyConsumer(MultiTableCopyWriter multiTableCopyWriter) {
+			return multiTableCopyWriter::write;
+		}
+
+		@Bean
+		MultiTableCopyWriter multiTableCopyWriter(JdbcTemplate jdbcTemplate,
+				PlatformTransactionManager platformTransactionManager, ObjectProvider<ObjectMapper> objectMapper,
+				ObjectProvider<MeterRegistry> meterRegistry, BeanFactory beanFactory,
+				PgcopySinkProperties properties) {
+			Assert.state(properties.getTableExpression() != null,
+					"'pgcopy.table-expression' is required when the mode is 'routing'");
+			TransactionTemplate txTemplate = new TransactionTemplate(platformTransactionManager);
+			MeterRegistry registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+			return new MultiTableCopyWriter(properties.getTableExpression(),
+					ExpressionUtils.createStandardEvaluationContext(beanFactory), properties.getTableName(),
+					table -> {
+						PgcopySinkProperties.Table settings =
+								properties.getTables().getOrDefault(table, new PgcopySinkProperties.Table());
+						List<String> columns = (settings.getColumns() != null)
+								? settings.getColumns() : properties.getColumns();
+						CopyBatchWriter batchWriter = new CopyBatchWriter(jdbcTemplate, txTemplate,
+								copySql(properties, table, columns), copyRowEncoder(properties, columns, objectMapper),
+								table, properties.getErrorTable(), stagingMerge(properties, table, columns),
+								new CopyMetrics(registry, metricsTag(properties, table)));
+						return new MultiTableCopyWriter.TablePolicy(batchWriter,
+								(settings.getBatchSize() != null) ? settings.getBatchSize() : properties.getBatchSize(),
+								(settings.getIdleTimeout() != null)
+										? settings.getIdleTimeout() : properties.getIdleTimeout());
+					}, properties.getMaxOpenTables(), properties.getMaxTables());
+		}
+
+		/**
+		 * The table tag of the meters for a table, which is only the table name when the table is configured, so that
+		 * the values selected from messages do not create new meters.
+		 */
+		private static String metricsTag(PgcopySinkProperties properties, String table) {
+			return (table.equals(properties.getTableName()) || properties.getTables().containsKey(table))
+					? table : OTHER_TABLES;
+		}
+
+		@Bean
+		RoutingFlushTask routingFlushTask() {
+			return new RoutingFlushTask();
+		}
+
+	}
+
 	public static class ReaperTask {
 
 		@Autowired
@@ -332,4 +464,55 @@ public class PgcopySinkConfiguration {
 		}
 
 	}
+
+	public static class StreamingFlushTask {
+
+		@Autowired
+		StreamingCopyWriter streamingCopyWriter;
+
+		@Scheduled(fixedRate = 100)
+		public void flush() {
+			streamingCopyWriter.flushIfExpired();
+		}
+
+		@PreDestroy
+		public void beforeDestroy() {
+			streamingCopyWriter.close();
+		}
+
+	}
+
+	public static class PipelineFlushTask {
+
+		@Autowired
+		PipelinedCopyWriter pipelinedCopyWriter;
+
+		@Scheduled(fixedRate = 100)
+		public void flush() {
+			pipelinedCopyWriter.flushIfExpired();
+		}
+
+		@PreDestroy
+		public void beforeDestroy() {
+			pipelinedCopyWriter.close();
+		}
+
+	}
+
+	public static class RoutingFlushTask {
+
+		@Autowired
+		MultiTableCopyWriter multiTableCopyWriter;
+
+		@Scheduled(fixedRate = 1000)
+		public void flush() {
+			multiTableCopyWriter.flushIdle();
+		}
+
+		@PreDestroy
+		public void beforeDestroy() {
+			multiTableCopyWriter.flush();
+		}
+
+	}
 }
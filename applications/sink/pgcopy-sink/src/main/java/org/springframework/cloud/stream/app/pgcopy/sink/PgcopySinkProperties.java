@@ -1,5 +1,5 @@
 /*
- * Copyright 2016-2017 the original author or authors.
+ * Copyright 2016-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,12 +16,18 @@
 
 package org.springframework.cloud.stream.app.pgcopy.sink;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.expression.Expression;
 import org.springframework.validation.annotation.Validated;
 
 /**
@@ -66,6 +72,12 @@ public class PgcopySinkProperties {
 	 */
 	private Format format = Format.TEXT;
 
+	/**
+	 * Column types used to encode payload values when the format is 'binary', keyed by column name. Columns
+	 * without an entry are written as text.
+	 */
+	private Map<String, ColumnType> columnTypes = new HashMap<>();
+
 	/**
 	 * Specifies the string that represents a null value. The default is \N (backslash-N) in text format, and an
 	 * unquoted empty string in CSV format.
@@ -100,6 +112,68 @@ public class PgcopySinkProperties {
 	 */
 	private String errorTable;
 
+	/**
+	 * Number of batches copied concurrently, each by its own worker thread using its own connection.
+	 */
+	@Min(1)
+	private int parallelism = 1;
+
+	/**
+	 * Expression evaluated against each payload when the parallelism is greater than 1; rows with the same key are
+	 * always copied by the same worker. When not set, whole batches are handed to the workers in turn.
+	 */
+	private Expression partitionKeyExpression;
+
+	/**
+	 * Maximum number of batches handed to the workers and not yet committed when the parallelism is greater than 1.
+	 * Defaults to twice the parallelism.
+	 */
+	private int maxInFlightBatches;
+
+	/**
+	 * Expression evaluated against each message when the mode is 'routing' to select the table the row is written to.
+	 * When it evaluates to null, the row is written to 'tableName'.
+	 */
+	private Expression tableExpression;
+
+	/**
+	 * Settings overriding 'columns', 'batchSize' and 'idleTimeout' for a table when the mode is 'routing', keyed by
+	 * table name.
+	 */
+	private Map<String, Table> tables = new HashMap<>();
+
+	/**
+	 * Maximum number of tables with buffered rows when the mode is 'routing'; when a row for another table arrives,
+	 * the buffer that was least recently written to is copied first.
+	 */
+	private int maxOpenTables = 100;
+
+	/**
+	 * Maximum number of distinct tables rows are written to when the mode is 'routing'; a message selecting any
+	 * other table is rejected with an exception.
+	 */
+	private int maxTables = 100;
+
+	/**
+	 * Settings used to merge rows into the table instead of appending them.
+	 */
+	private final Merge merge = new Merge();
+
+	/**
+	 * How incoming messages are grouped into COPY transactions.
+	 */
+	private Mode mode = Mode.AGGREGATING;
+
+	/**
+	 * Settings used when the mode is 'streaming'.
+	 */
+	private final Streaming streaming = new Streaming();
+
+	/**
+	 * Settings used when the mode is 'pipelined'.
+	 */
+	@Valid
+	private final Pipeline pipeline = new Pipeline();
 
 	public String getTableName() {
 		return tableName;
@@ -149,6 +223,14 @@ public class PgcopySinkProperties {
 		this.format = format;
 	}
 
+	public Map<String, ColumnType> getColumnTypes() {
+		return columnTypes;
+	}
+
+	public void setColumnTypes(Map<String, ColumnType> columnTypes) {
+		this.columnTypes = columnTypes;
+	}
+
 	public String getNullString() {
 		return nullString;
 	}
@@ -189,6 +271,82 @@ public class PgcopySinkProperties {
 		this.errorTable = errorTable;
 	}
 
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+
+	public Expression getPartitionKeyExpression() {
+		return partitionKeyExpression;
+	}
+
+	public void setPartitionKeyExpression(Expression partitionKeyExpression) {
+		this.partitionKeyExpression = partitionKeyExpression;
+	}
+
+	public int getMaxInFlightBatches() {
+		return maxInFlightBatches;
+	}
+
+	public void setMaxInFlightBatches(int maxInFlightBatches) {
+		this.maxInFlightBatches = maxInFlightBatches;
+	}
+
+	public Expression getTableExpression() {
+		return tableExpression;
+	}
+
+	public void setTableExpression(Expression tableExpression) {
+		this.tableExpression = tableExpression;
+	}
+
+	public Map<String, Table> getTables() {
+		return tables;
+	}
+
+	public void setTables(Map<String, Table> tables) {
+		this.tables = tables;
+	}
+
+	public int getMaxOpenTables() {
+		return maxOpenTables;
+	}
+
+	public void setMaxOpenTables(int maxOpenTables) {
+		this.maxOpenTables = maxOpenTables;
+	}
+
+	public int getMaxTables() {
+		return maxTables;
+	}
+
+	public void setMaxTables(int maxTables) {
+		this.maxTables = maxTables;
+	}
+
+	public Merge getMerge() {
+		return merge;
+	}
+
+	public Mode getMode() {
+		return mode;
+	}
+
+	public void setMode(Mode mode) {
+		this.mode = mode;
+	}
+
+	public Streaming getStreaming() {
+		return streaming;
+	}
+
+	public Pipeline getPipeline() {
+		return pipeline;
+	}
+
 	public enum Format {
 
 		/**
@@ -198,7 +356,250 @@ public class PgcopySinkProperties {
 		/**
 		 * csv.
 		 */
-		CSV
+		CSV,
+		/**
+		 * binary. Payloads must be JSON objects or maps whose fields are mapped to the configured columns.
+		 */
+		BINARY
+
+	}
+
+	public enum ColumnType {
+
+		/**
+		 * text, varchar.
+		 */
+		TEXT,
+		/**
+		 * boolean.
+		 */
+		BOOL,
+		/**
+		 * integer.
+		 */
+		INT4,
+		/**
+		 * bigint.
+		 */
+		INT8,
+		/**
+		 * double precision.
+		 */
+		FLOAT8,
+		/**
+		 * numeric.
+		 */
+		NUMERIC,
+		/**
+		 * timestamp without time zone.
+		 */
+		TIMESTAMP,
+		/**
+		 * timestamp with time zone.
+		 */
+		TIMESTAMPTZ,
+		/**
+		 * uuid.
+		 */
+		UUID,
+		/**
+		 * jsonb.
+		 */
+		JSONB
+
+	}
+
+	public enum Mode {
+
+		/**
+		 * Collect messages in a message group store and copy them once 'batchSize' or 'idleTimeout' is reached.
+		 */
+		AGGREGATING,
+		/**
+		 * Keep a COPY operation open and write each message as it arrives, committing when 'batchSize',
+		 * 'streaming.maxBytes' or 'streaming.maxLatency' is reached.
+		 */
+		STREAMING,
+		/**
+		 * Fill one buffer of 'batchSize' messages while the buffers filled before are copied on a separate thread,
+		 * waiting only when every one of 'pipeline.buffers' buffers is busy.
+		 */
+		PIPELINED,
+		/**
+		 * Copy each batch of messages delivered by the binder in a single transaction; requires 'batch-mode' to be
+		 * enabled on the consumer binding.
+		 */
+		BATCH,
+		/**
+		 * Collect messages in a buffer for the table selected by 'tableExpression' and copy each buffer once the
+		 * table's 'batchSize' or 'idleTimeout' is reached.
+		 */
+		ROUTING
+
+	}
+
+	public enum StagingTable {
+
+		/**
+		 * A temporary table created once per connection and emptied on commit.
+		 */
+		TEMPORARY,
+		/**
+		 * An unlogged table shared by all connections and truncated at the start of every batch.
+		 */
+		UNLOGGED
+
+	}
+
+	public static class Merge {
+
+		/**
+		 * Columns of the unique index or constraint used to detect rows that already exist. When set, every batch is
+		 * copied into a staging table and merged into the table with 'INSERT ... ON CONFLICT'.
+		 */
+		private List<String> conflictColumns = new ArrayList<>();
+
+		/**
+		 * Columns updated when a row already exists. Defaults to all columns that are not conflict columns; when
+		 * empty, existing rows are left unchanged.
+		 */
+		private List<String> updateColumns;
+
+		/**
+		 * Kind of staging table the rows are copied into before being merged.
+		 */
+		private StagingTable stagingTable = StagingTable.TEMPORARY;
+
+		public List<String> getConflictColumns() {
+			return conflictColumns;
+		}
+
+		public void setConflictColumns(List<String> conflictColumns) {
+			this.conflictColumns = conflictColumns;
+		}
+
+		public List<String> getUpdateColumns() {
+			return updateColumns;
+		}
+
+		public void setUpdateColumns(List<String> updateColumns) {
+			this.updateColumns = updateColumns;
+		}
+
+		public StagingTable getStagingTable() {
+			return stagingTable;
+		}
+
+		public void setStagingTable(StagingTable stagingTable) {
+			this.stagingTable = stagingTable;
+		}
+
+	}
+
+	public static class Streaming {
+
+		/**
+		 * Threshold in number of bytes written to the open COPY operation when data will be committed to the
+		 * database table; also bounds the payloads kept in memory until then, as far as they are about as large
+		 * as their encoding.
+		 */
+		private long maxBytes = 16 * 1024 * 1024;
+
+		/**
+		 * Maximum time in milliseconds a COPY operation is kept open after its first row before data will be
+		 * committed to the database table.
+		 */
+		private long maxLatency = 1000L;
+
+		public long getMaxBytes() {
+			return maxBytes;
+		}
+
+		public void setMaxBytes(long maxBytes) {
+			this.maxBytes = maxBytes;
+		}
+
+		public long getMaxLatency() {
+			return maxLatency;
+		}
+
+		public void setMaxLatency(long maxLatency) {
+			this.maxLatency = maxLatency;
+		}
+
+	}
+
+	public static class Pipeline {
+
+		/**
+		 * Number of buffers; one is filled with incoming messages while the others are queued or being copied.
+		 */
+		@Min(2)
+		private int buffers = 2;
+
+		/**
+		 * Maximum time in milliseconds a buffer is filled after its first message before it is copied.
+		 */
+		private long maxLatency = 1000L;
+
+		public int getBuffers() {
+			return buffers;
+		}
+
+		public void setBuffers(int buffers) {
+			this.buffers = buffers;
+		}
+
+		public long getMaxLatency() {
+			return maxLatency;
+		}
+
+		public void setMaxLatency(long maxLatency) {
+			this.maxLatency = maxLatency;
+		}
+
+	}
+
+	public static class Table {
+
+		/**
+		 * The names of the columns that shall receive data. Defaults to 'columns'.
+		 */
+		private List<String> columns;
+
+		/**
+		 * Threshold in number of messages when data will be flushed to the table. Defaults to 'batchSize'.
+		 */
+		private Integer batchSize;
+
+		/**
+		 * Idle timeout in milliseconds when data is automatically flushed to the table. Defaults to 'idleTimeout'.
+		 */
+		private Long idleTimeout;
+
+		public List<String> getColumns() {
+			return columns;
+		}
+
+		public void setColumns(List<String> columns) {
+			this.columns = columns;
+		}
+
+		public Integer getBatchSize() {
+			return batchSize;
+		}
+
+		public void setBatchSize(Integer batchSize) {
+			this.batchSize = batchSize;
+		}
+
+		public Long getIdleTimeout() {
+			return idleTimeout;
+		}
+
+		public void setIdleTimeout(Long idleTimeout) {
+			this.idleTimeout = idleTimeout;
+		}
 
 	}
 }
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.pgcopy.sink;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Fills one of a fixed number of buffers with incoming payloads while the buffers filled before are copied and
+ * committed on a separate thread. A full buffer is handed to the copy thread and replaced by a free one, so the
+ * thread writing payloads only waits when every buffer is either queued or being copied. It waits without holding
+ * the lock of the writer, so a flush, which never waits, is not held up meanwhile; when no buffer is free once a
+ * buffer is handed off, the next payload written waits for one.
+ * <p>
+ * The time spent waiting for a free buffer is recorded with Micrometer. A buffer that fails to be copied is handed
+ * back to the {@link CopyBatchWriter}, which counts its rows and writes them to the error table, if one is configured.
+ * <p>
+ * Once closed, the writer rejects further payloads and ignores flushes, so a scheduled flush that runs late never
+ * hands a buffer to the stopped copy thread.
+ */
+class PipelinedCopyWriter {
+
+	private static final Log logger = LogFactory.getLog(PipelinedCopyWriter.class);
+
+	private final CopyBatchWriter batchWriter;
+
+	private final int batchSize;
+
+	private final long maxLatencyNanos;
+
+	private final BlockingQueue<List<Object>> freeBuffers;
+
+	private final ExecutorService copier =
+			Executors.newSingleThreadExecutor(new CustomizableThreadFactory("pgcopy-pipeline-"));
+
+	private final Timer bufferWait;
+
+	private List<Object> filling;
+
+	private long fillStarted;
+
+	private boolean closed;
+
+	PipelinedCopyWriter(CopyBatchWriter batchWriter, int buffers, int batchSize, long maxLatency,
+			MeterRegistry meterRegistry, String tableName) {
+
+		this.batchWriter = batchWriter;
+		this.batchSize = batchSize;
+		this.maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(maxLatency);
+		this.freeBuffers = new LinkedBlockingQueue<>();
+		for (int i = 1; i < buffers; i++) {
+			this.freeBuffers.add(new ArrayList<>(batchSize));
+		}
+		this.filling = new ArrayList<>(batchSize);
+		this.bufferWait = Timer.builder("pgcopy.buffer.wait")
+				.description("Time spent waiting for a free buffer while every buffer is being copied")
+				.tag("table", tableName)
+				.register(meterRegistry);
+	}
+
+	void write(Object payload) {
+		while (true) {
+			synchronized (this) {
+				if (this.closed) {
+					throw new IllegalStateException("The pipelined copy writer is closed");
+				}
+				if (this.filling != null) {
+					if (this.filling.isEmpty()) {
+						this.fillStarted = System.nanoTime();
+					}
+					this.filling.add(payload);
+					if (this.filling.size() >= this.batchSize) {
+						handOff();
+					}
+					return;
+				}
+			}
+			awaitFreeBuffer();
+		}
+	}
+
+	synchronized void flushIfExpired() {
+		if (!this.closed && this.filling != null && !this.filling.isEmpty() && this.maxLatencyNanos > 0
+				&& System.nanoTime() - this.fillStarted >= this.maxLatencyNanos) {
+			handOff();
+		}
+	}
+
+	synchronized void flush() {
+		if (!this.closed && this.filling != null && !this.filling.isEmpty()) {
+			handOff();
+		}
+	}
+
+	void close() {
+		synchronized (this) {
+			if (this.closed) {
+				return;
+			}
+			flush();
+			this.closed = true;
+		}
+		this.copier.shutdown();
+		try {
+			if (!this.copier.awaitTermination(30, TimeUnit.SECONDS)) {
+				logger.warn("Timed out waiting for pending COPY operations to complete");
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Hand the buffer being filled to the copy thread and replace it by a free buffer, if any, without waiting.
+	 */
+	private void handOff() {
+		List<Object> full = this.filling;
+		this.copier.execute(() -> copy(full));
+		this.filling = this.freeBuffers.poll();
+	}
+
+	/**
+	 * Wait for a free buffer, without holding the lock of the writer, and fill it next unless another thread
+	 * already took one meanwhile.
+	 */
+	private void awaitFreeBuffer() {
+		List<Object> next;
+		long start = System.nanoTime();
+		try {
+			next = this.freeBuffers.take();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for a free buffer", e);
+		}
+		finally {
+			this.bufferWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+		synchronized (this) {
+			if (this.filling == null) {
+				this.filling = next;
+				return;
+			}
+		}
+		this.freeBuffers.add(next);
+	}
+
+	private void copy(List<Object> buffer) {
+		try {
+			this.batchWriter.write(buffer);
+		}
+		catch (RuntimeException e) {
+			this.batchWriter.failed(buffer, e);
+		}
+		finally {
+			buffer.clear();
+			this.freeBuffers.add(buffer);
+		}
+	}
+
+}
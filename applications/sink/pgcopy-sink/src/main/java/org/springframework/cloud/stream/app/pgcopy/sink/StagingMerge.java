@@ -0,0 +1,117 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.pgcopy.sink;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.cloud.stream.app.pgcopy.sink.PgcopySinkProperties.StagingTable;
+import org.springframework.util.StringUtils;
+
+/**
+ * The statements used to copy a batch into a staging table and merge it into the target table with
+ * {@code INSERT ... ON CONFLICT}, all within the transaction of the batch.
+ * <p>
+ * A temporary staging table is created once per connection and emptied on commit. An unlogged staging table is
+ * shared by all connections and truncated at the start of every batch, which also serializes concurrent batches for
+ * the same table. When a batch holds several rows with the same conflict key, the last one wins.
+ */
+class StagingMerge {
+
+	private final String prepareSql;
+
+	private final String copySql;
+
+	private final String mergeSql;
+
+	private final String clearSql;
+
+	StagingMerge(PgcopySinkProperties properties, String tableName, List<String> columns) {
+		PgcopySinkProperties.Merge merge = properties.getMerge();
+		String stagingTable;
+		if (merge.getStagingTable() == StagingTable.UNLOGGED) {
+			stagingTable = tableName + "_pgcopy_stage";
+			this.prepareSql = "CREATE UNLOGGED TABLE IF NOT EXISTS " + stagingTable + " (LIKE " + tableName
+					+ " INCLUDING DEFAULTS); TRUNCATE " + stagingTable;
+		}
+		else {
+			stagingTable = "pgcopy_stage_" + tableName.replace('.', '_');
+			this.prepareSql = "CREATE TEMPORARY TABLE IF NOT EXISTS " + stagingTable + " (LIKE " + tableName
+					+ " INCLUDING DEFAULTS) ON COMMIT DELETE ROWS";
+		}
+		this.clearSql = "TRUNCATE " + stagingTable;
+		this.copySql = PgcopySinkConfiguration.copySql(properties, stagingTable, columns);
+
+		String columnList = StringUtils.collectionToCommaDelimitedString(columns);
+		String conflictList = StringUtils.collectionToCommaDelimitedString(merge.getConflictColumns());
+		List<String> updateColumns = merge.getUpdateColumns();
+		if (updateColumns == null) {
+			updateColumns = new ArrayList<>(columns);
+			updateColumns.removeAll(merge.getConflictColumns());
+		}
+		StringBuilder sql = new StringBuilder("INSERT INTO " + tableName + " (" + columnList + ") SELECT DISTINCT ON ("
+				+ conflictList + ") " + columnList + " FROM " + stagingTable + " ORDER BY " + conflictList
+				+ ", ctid DESC ON CONFLICT (" + conflictList + ") DO ");
+		if (updateColumns.isEmpty()) {
+			sql.append("NOTHING");
+		}
+		else {
+			sql.append("UPDATE SET ");
+			for (int i = 0; i < updateColumns.size(); i++) {
+				if (i > 0) {
+					sql.append(", ");
+				}
+				sql.append(updateColumns.get(i)).append(" = EXCLUDED.").append(updateColumns.get(i));
+			}
+		}
+		this.mergeSql = sql.toString();
+	}
+
+	String getCopySql() {
+		return this.copySql;
+	}
+
+	String getMergeSql() {
+		return this.mergeSql;
+	}
+
+	void prepare(Connection connection) throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			statement.execute(this.prepareSql);
+		}
+	}
+
+	long merge(Connection connection) throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			return statement.executeUpdate(this.mergeSql);
+		}
+	}
+
+	/**
+	 * Empty the staging table before the transaction ends, so that the next batch copied within the same
+	 * transaction, in a savepoint, does not merge the rows of this one again.
+	 */
+	void clear(Connection connection) throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			statement.execute(this.clearSql);
+		}
+	}
+
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.pgcopy.sink;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.core.BaseConnection;
+
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.support.GenericMessage;
+
+/**
+ * Keeps a COPY operation open on a dedicated connection and writes every row to it as soon as it arrives, sending
+ * the encoded rows to the server in chunks of {@link CopyBuffer#CHUNK_SIZE} bytes.
+ * The transaction is committed once a row count, a byte size or an elapsed time threshold is reached.
+ * <p>
+ * The payloads written to the open transaction are retained only so they can be handed to the fallback
+ * handler when the COPY fails. They are what bounds the heap used by the writer: at most {@code maxRows} payloads,
+ * and as many as encode to {@code maxBytes} bytes when set. That bounds the heap used only as far as the payloads are
+ * about as large as their encoding, as {@code String} and {@code byte[]} payloads of text formats are; payloads that
+ * take more room than their encoding, such as maps encoded as binary rows, are better bounded with fewer rows. The
+ * encoded size of the open transaction is published as the {@code pgcopy.streaming.pending.bytes} gauge.
+ * <p>
+ * A COPY operation is timed from its start until the server acknowledges its end, so its duration includes the time
+ * spent waiting for rows.
+ */
+class StreamingCopyWriter {
+
+	private static final Log logger = LogFactory.getLog(StreamingCopyWriter.class);
+
+	private final DataSource dataSource;
+
+	private final String sql;
+
+	private final CopyRowEncoder rowEncoder;
+
+	private final MessageHandler fallbackHandler;
+
+	private final int maxRows;
+
+	private final long maxBytes;
+
+	private final long maxLatencyNanos;
+
+	private final CopyMetrics metrics;
+
+	private final List<Object> pending = new ArrayList<>();
+
+	private final CopyBuffer buffer = new CopyBuffer();
+
+	private Connection connection;
+
+	private CopyIn copyIn;
+
+	private volatile long pendingBytes;
+
+	private long copyStarted;
+
+	StreamingCopyWriter(DataSource dataSource, String sql, CopyRowEncoder rowEncoder,
+			MessageHandler fallbackHandler, int maxRows, long maxBytes, long maxLatency, CopyMetrics metrics) {
+
+		this.dataSource = dataSource;
+		this.sql = sql;
+		this.rowEncoder = rowEncoder;
+		this.fallbackHandler = fallbackHandler;
+		this.maxRows = maxRows;
+		this.maxBytes = maxBytes;
+		this.maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(maxLatency);
+		this.metrics = metrics;
+		metrics.streamingPendingBytes(this, writer -> writer.pendingBytes);
+	}
+
+	synchronized void write(Object payload) {
+		try {
+			if (this.copyIn == null) {
+				startCopy();
+			}
+		}
+		catch (SQLException e) {
+			this.pending.add(payload);
+			abort(e);
+			return;
+		}
+		int mark = this.buffer.size();
+		try {
+			this.rowEncoder.encode(payload, this.buffer);
+		}
+		catch (IllegalArgumentException e) {
+			this.buffer.truncate(mark);
+			logger.error("Unable to encode payload: " + e.getMessage());
+			this.metrics.encodingFailed();
+			this.fallbackHandler.handleMessage(new GenericMessage<>(Collections.singletonList(payload)));
+			return;
+		}
+		this.pending.add(payload);
+		this.pendingBytes += this.buffer.size() - mark;
+		if (this.buffer.isFull()) {
+			try {
+				this.buffer.flushTo(this.copyIn);
+			}
+			catch (SQLException e) {
+				abort(e);
+				return;
+			}
+		}
+		if (this.pending.size() >= this.maxRows || (this.maxBytes > 0 && this.pendingBytes >= this.maxBytes)
+				|| isExpired()) {
+			flush();
+		}
+	}
+
+	synchronized void flushIfExpired() {
+		if (isExpired()) {
+			flush();
+		}
+	}
+
+	synchronized void flush() {
+		if (this.copyIn == null) {
+			return;
+		}
+		try {
+			this.buffer.write(this.rowEncoder.trailer());
+			this.buffer.flushTo(this.copyIn);
+			long rows = this.copyIn.endCopy();
+			long copied = System.nanoTime();
+			this.metrics.copied(copied - this.copyStarted);
+			this.connection.commit();
+			this.metrics.committed(System.nanoTime() - copied);
+			this.metrics.batch(this.pending.size());
+			this.metrics.rowsWritten(rows);
+			if (logger.isDebugEnabled()) {
+				logger.debug("Wrote " + rows + " rows (" + this.pendingBytes + " bytes)");
+			}
+			this.copyIn = null;
+			reset();
+		}
+		catch (SQLException e) {
+			abort(e);
+		}
+	}
+
+	synchronized void close() {
+		flush();
+		closeConnection();
+	}
+
+	private boolean isExpired() {
+		return this.copyIn != null && this.maxLatencyNanos > 0
+				&& System.nanoTime() - this.copyStarted >= this.maxLatencyNanos;
+	}
+
+	private void startCopy() throws SQLException {
+		if (this.connection == null) {
+			this.connection = this.dataSource.getConnection();
+			this.connection.setAutoCommit(false);
+		}
+		this.copyIn = this.connection.unwrap(BaseConnection.class).getCopyAPI().copyIn(this.sql);
+		this.copyStarted = System.nanoTime();
+		this.buffer.reset();
+		this.buffer.write(this.rowEncoder.header());
+	}
+
+	private void abort(SQLException exception) {
+		logger.error("Error while streaming data: " + exception.getMessage());
+		try {
+			if (this.copyIn != null && this.copyIn.isActive()) {
+				this.copyIn.cancelCopy();
+			}
+			if (this.connection != null) {
+				this.connection.rollback();
+			}
+		}
+		catch (SQLException e) {
+			logger.debug("Failed to roll back COPY operation", e);
+		}
+		this.copyIn = null;
+		closeConnection();
+		List<Object> payloads = new ArrayList<>(this.pending);
+		reset();
+		logger.error("Switching to batch copy for " + payloads.size() + " rows of the failed transaction");
+		this.metrics.switchedToBatch();
+		this.fallbackHandler.handleMessage(new GenericMessage<>(payloads));
+	}
+
+	private void reset() {
+		this.buffer.reset();
+		this.pending.clear();
+		this.pendingBytes = 0;
+	}
+
+	private void closeConnection() {
+		if (this.connection != null) {
+			try {
+				this.connection.close();
+			}
+			catch (SQLException e) {
+				logger.debug("Failed to close connection", e);
+			}
+			this.connection = null;
+		}
+	}
+
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.pgcopy.sink;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.stream.app.pgcopy.sink.PgcopySinkProperties.ColumnType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+public class BinaryCopyRowEncoderTests {
+
+	@Test
+	public void headerAndTrailer() {
+		BinaryCopyRowEncoder encoder = new BinaryCopyRowEncoder(Collections.singletonList("payload"),
+				Collections.emptyMap(), new ObjectMapper());
+		assertThat(new String(encoder.header(), 0, 6)).isEqualTo("PGCOPY");
+		assertThat(encoder.header()).hasSize(19);
+		assertThat(encoder.trailer()).containsExactly(0xFF, 0xFF);
+	}
+
+	@Test
+	public void encodesTypedColumns() {
+		BinaryCopyRowEncoder encoder = new BinaryCopyRowEncoder(Arrays.asList("id", "count", "name", "missing"),
+				Map.of("id", ColumnType.INT8, "count", ColumnType.INT4), new ObjectMapper());
+		ByteBuffer row = ByteBuffer.wrap(encoder.encode("{\"id\":42,\"count\":7,\"name\":\"Anna\"}"));
+		assertThat(row.getShort()).isEqualTo((short) 4);
+		assertThat(row.getInt()).isEqualTo(8);
+		assertThat(row.getLong()).isEqualTo(42L);
+		assertThat(row.getInt()).isEqualTo(4);
+		assertThat(row.getInt()).isEqualTo(7);
+		assertThat(row.getInt()).isEqualTo(4);
+		byte[] name = new byte[4];
+		row.get(name);
+		assertThat(new String(name)).isEqualTo("Anna");
+		assertThat(row.getInt()).isEqualTo(-1);
+		assertThat(row.hasRemaining()).isFalse();
+	}
+
+	@Test
+	public void encodesMapPayloads() {
+		BinaryCopyRowEncoder encoder = new BinaryCopyRowEncoder(Collections.singletonList("ratio"),
+				Map.of("ratio", ColumnType.FLOAT8), new ObjectMapper());
+		ByteBuffer row = ByteBuffer.wrap(encoder.encode(Map.of("ratio", 0.5)));
+		assertThat(row.getShort()).isEqualTo((short) 1);
+		assertThat(row.getInt()).isEqualTo(8);
+		assertThat(row.getDouble()).isEqualTo(0.5);
+	}
+
+	@Test
+	public void encodesNumericInBase10000() throws Exception {
+		assertThat(numeric("12345.678")).containsExactly(3, 1, 0x0000, 3, 1, 2345, 6780);
+		assertThat(numeric("-0.0001")).containsExactly(1, -1, 0x4000, 4, 1);
+		assertThat(numeric("100000000")).containsExactly(1, 2, 0x0000, 0, 1);
+		assertThat(numeric("0.00")).containsExactly(0, 0, 0x0000, 2);
+		assertThat(numeric("123456789012345678901234.5")).containsExactly(7, 5, 0x0000, 1,
+				1234, 5678, 9012, 3456, 7890, 1234, 5000);
+		assertThat(numeric("0.000000000000000000000000000000001")).containsExactly(1, -9, 0x0000, 33, 1000);
+		assertThat(numeric("1E+5")).containsExactly(1, 1, 0x0000, 0, 10);
+	}
+
+	@Test
+	public void convertsTimestampsToPostgresEpoch() {
+		assertThat(BinaryCopyRowEncoder.toPostgresMicros(Instant.parse("2000-01-01T00:00:00Z"))).isEqualTo(0L);
+		assertThat(BinaryCopyRowEncoder.toPostgresMicros(BinaryCopyRowEncoder.toInstant("2000-01-01T00:00:01.5")))
+				.isEqualTo(1_500_000L);
+		assertThat(BinaryCopyRowEncoder.toInstant("2000-01-01T02:00:00+02:00"))
+				.isEqualTo(Instant.parse("2000-01-01T00:00:00Z"));
+		assertThat(BinaryCopyRowEncoder.toInstant(946684800000L)).isEqualTo(Instant.parse("2000-01-01T00:00:00Z"));
+		assertThat(BinaryCopyRowEncoder.toInstant("2024-02-29T23:59:59.123456-05:30"))
+				.isEqualTo(Instant.parse("2024-03-01T05:29:59.123456Z"));
+		assertThat(BinaryCopyRowEncoder.toInstant("2024-02-29T23:59:59.5+01:00[Europe/Paris]"))
+				.isEqualTo(Instant.parse("2024-02-29T22:59:59.5Z"));
+	}
+
+	@Test
+	public void rejectsNonObjectPayloads() {
+		BinaryCopyRowEncoder encoder = new BinaryCopyRowEncoder(Collections.singletonList("payload"),
+				Collections.emptyMap(), new ObjectMapper());
+		assertThatIllegalArgumentException().isThrownBy(() -> encoder.encode("GARBAGE"));
+		BinaryCopyRowEncoder timestamps = new BinaryCopyRowEncoder(Collections.singletonList("created"),
+				Map.of("created", ColumnType.TIMESTAMP), new ObjectMapper());
+		assertThatIllegalArgumentException().isThrownBy(() -> timestamps.encode("{\"created\":\"2023-02-30T00:00:00\"}"));
+	}
+
+	@Test
+	public void acceptsPostgresBooleanLiterals() {
+		BinaryCopyRowEncoder encoder = new BinaryCopyRowEncoder(Collections.singletonList("flag"),
+				Map.of("flag", ColumnType.BOOL), new ObjectMapper());
+		for (String literal : Arrays.asList("true", "TRUE", " t ", "tr", "yes", "Y", "on", "1")) {
+			assertThat(encoder.encode(Map.of("flag", literal))[6]).as(literal).isEqualTo((byte) 1);
+		}
+		for (String literal : Arrays.asList("false", "F", "fal", "no", "n", "off", "OF", "0")) {
+			assertThat(encoder.encode(Map.of("flag", literal))[6]).as(literal).isEqualTo((byte) 0);
+		}
+		for (String literal : Arrays.asList("", "o", "yess", "truth", "2", "00", "nope")) {
+			assertThatIllegalArgumentException().as(literal).isThrownBy(() -> encoder.encode(Map.of("flag", literal)))
+					.withMessage("Value " + literal + " is not a bool");
+		}
+	}
+
+	@Test
+	public void sendsValidJsonTextAsJsonb() {
+		BinaryCopyRowEncoder encoder = new BinaryCopyRowEncoder(Collections.singletonList("doc"),
+				Map.of("doc", ColumnType.JSONB), new ObjectMapper());
+		ByteBuffer row = ByteBuffer.wrap(encoder.encode(Map.of("doc", "{\"a\": [1, 2]}")));
+		assertThat(row.getShort()).isEqualTo((short) 1);
+		assertThat(row.getInt()).isEqualTo(14);
+		assertThat(row.get()).isEqualTo((byte) 1);
+		byte[] json = new byte[13];
+		row.get(json);
+		assertThat(new String(json)).isEqualTo("{\"a\": [1, 2]}");
+
+		for (String invalid : Arrays.asList("{\"a\": ", "not json", "{} {}", " ")) {
+			assertThatIllegalArgumentException().as(invalid).isThrownBy(() -> encoder.encode(Map.of("doc", invalid)))
+					.withMessageContaining("is not valid JSON");
+		}
+	}
+
+	@Test
+	public void rejectsIntegersOutOfRangeOrWithFractions() {
+		BinaryCopyRowEncoder encoder = new BinaryCopyRowEncoder(Arrays.asList("count", "id"),
+				Map.of("count", ColumnType.INT4, "id", ColumnType.INT8), new ObjectMapper());
+		assertThatIllegalArgumentException().isThrownBy(() -> encoder.encode("{\"count\":3000000000,\"id\":1}"))
+				.withMessageContaining("int4");
+		assertThatIllegalArgumentException().isThrownBy(() -> encoder.encode("{\"count\":1,\"id\":1.9}"))
+				.withMessageContaining("int8");
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> encoder.encode("{\"count\":1,\"id\":12345678901234567890}"));
+		assertThatIllegalArgumentException().isThrownBy(() -> encoder.encode(Map.of("count", 2.5, "id", 1L)));
+		assertThatIllegalArgumentException().isThrownBy(() -> encoder.encode(Map.of("count", 1, "id", "1.9")));
+
+		// whole values are converted exactly whatever their representation
+		ByteBuffer row = ByteBuffer.wrap(encoder.encode(Map.of("count", 2.0, "id", "9007199254740993")));
+		assertThat(row.getShort()).isEqualTo((short) 2);
+		assertThat(row.getInt()).isEqualTo(4);
+		assertThat(row.getInt()).isEqualTo(2);
+		assertThat(row.getInt()).isEqualTo(8);
+		assertThat(row.getLong()).isEqualTo(9007199254740993L);
+	}
+
+	private static int[] numeric(String value) throws Exception {
+		CopyBuffer bytes = new CopyBuffer(16);
+		BinaryCopyRowEncoder.writeNumeric(bytes, new BigDecimal(value));
+		ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+		int length = buffer.getInt();
+		assertThat(buffer.remaining()).isEqualTo(length);
+		int[] shorts = new int[length / 2];
+		for (int i = 0; i < shorts.length; i++) {
+			shorts[i] = buffer.getShort();
+		}
+		return shorts;
+	}
+
+}
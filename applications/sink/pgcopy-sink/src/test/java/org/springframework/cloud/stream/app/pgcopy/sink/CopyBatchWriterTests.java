@@ -0,0 +1,150 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.pgcopy.sink;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
+
+import javax.sql.DataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.postgresql.core.BaseConnection;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Tests for {@link CopyBatchWriter} that do not need a database.
+ */
+public class CopyBatchWriterTests {
+
+	@Test
+	public void connectionFailureIsRethrownWithoutBisecting() throws SQLException {
+		Connection connection = Mockito.mock(Connection.class);
+		Mockito.when(connection.unwrap(BaseConnection.class))
+				.thenThrow(new SQLException("An I/O error occurred while sending to the backend", "08006"));
+		DataSource dataSource = Mockito.mock(DataSource.class);
+		Mockito.when(dataSource.getConnection()).thenReturn(connection);
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		CopyBatchWriter writer = new CopyBatchWriter(new JdbcTemplate(dataSource),
+				new TransactionTemplate(new DataSourceTransactionManager(dataSource)), "COPY test FROM STDIN",
+				null, "test", "test_errors", null, new CopyMetrics(meterRegistry, "test"));
+
+		assertThatExceptionOfType(DataAccessResourceFailureException.class)
+				.isThrownBy(() -> writer.write(Arrays.asList("1", "2", "3", "4")));
+		Mockito.verify(connection, Mockito.times(1)).unwrap(BaseConnection.class);
+		assertThat(meterRegistry.get("pgcopy.fallbacks").tag("type", CopyMetrics.BISECT).counter().count())
+				.isZero();
+	}
+
+	@Test
+	public void dataErrorsAreIsolated() throws SQLException {
+		Connection connection = Mockito.mock(Connection.class);
+		DataSource dataSource = Mockito.mock(DataSource.class);
+		Mockito.when(dataSource.getConnection()).thenReturn(connection);
+		CopyBatchWriter writer = new RejectingWriter(dataSource, null);
+
+		assertThat(writer.write(Arrays.asList("1", "bad", "3", "4"))).isEqualTo(3);
+		Mockito.verify(connection).commit();
+	}
+
+	@Test
+	public void errorTableFailureRollsBackTheBatch() throws SQLException {
+		Connection connection = Mockito.mock(Connection.class);
+		Mockito.when(connection.prepareStatement(Mockito.anyString()))
+				.thenThrow(new SQLException("An I/O error occurred while sending to the backend", "08006"));
+		DataSource dataSource = Mockito.mock(DataSource.class);
+		Mockito.when(dataSource.getConnection()).thenReturn(connection);
+		CopyBatchWriter writer = new RejectingWriter(dataSource, "test_errors");
+
+		assertThatExceptionOfType(DataAccessResourceFailureException.class)
+				.isThrownBy(() -> writer.write(Arrays.asList("1", "bad", "3", "4")));
+		Mockito.verify(connection).rollback();
+		Mockito.verify(connection, Mockito.never()).commit();
+	}
+
+	@Test
+	public void failedBatchIsWrittenToTheErrorTable() throws SQLException {
+		Connection connection = Mockito.mock(Connection.class);
+		PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+		Mockito.when(connection.prepareStatement(Mockito.anyString())).thenReturn(statement);
+		Mockito.when(statement.getConnection()).thenReturn(connection);
+		DataSource dataSource = Mockito.mock(DataSource.class);
+		Mockito.when(dataSource.getConnection()).thenReturn(connection);
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		CopyBatchWriter writer = new CopyBatchWriter(new JdbcTemplate(dataSource),
+				new TransactionTemplate(new DataSourceTransactionManager(dataSource)), "COPY test FROM STDIN",
+				null, "test", "test_errors", null, new CopyMetrics(meterRegistry, "test"));
+
+		writer.failed(Arrays.asList("1", "2"), new QueryTimeoutException("canceling statement due to timeout"));
+
+		Mockito.verify(connection)
+				.prepareStatement("insert into test_errors (table_name, error_message, payload) values (?, ?, ?)");
+		Mockito.verify(connection).commit();
+		assertThat(meterRegistry.get("pgcopy.failed.rows").counter().count()).isEqualTo(2.0);
+		assertThat(meterRegistry.get("pgcopy.error.rows").counter().count()).isEqualTo(2.0);
+	}
+
+	@Test
+	public void onlyDataErrorsAreClassifiedAsSuch() {
+		assertThat(CopyBatchWriter.isDataError(new DataIntegrityViolationException("Unable to encode payload")))
+				.isTrue();
+		assertThat(CopyBatchWriter.isDataError(new UncategorizedSQLException("COPY", "COPY test FROM STDIN",
+				new SQLException("invalid input syntax for type integer", "22P02")))).isTrue();
+		assertThat(CopyBatchWriter.isDataError(new UncategorizedSQLException("COPY", "COPY test FROM STDIN",
+				new SQLException("connection failure", "08006")))).isFalse();
+		assertThat(CopyBatchWriter.isDataError(new QueryTimeoutException("canceling statement due to timeout")))
+				.isFalse();
+		assertThat(CopyBatchWriter.isDataError(new CannotGetJdbcConnectionException("Connection refused")))
+				.isFalse();
+	}
+
+	/**
+	 * Rejects every batch containing the "bad" payload as a data error.
+	 */
+	private static class RejectingWriter extends CopyBatchWriter {
+
+		RejectingWriter(DataSource dataSource, String errorTable) {
+			super(new JdbcTemplate(dataSource), new TransactionTemplate(new DataSourceTransactionManager(dataSource)),
+					null, null, "test", errorTable);
+		}
+
+		@Override
+		long copy(Collection<?> payloads) {
+			if (payloads.contains("bad")) {
+				throw new DataIntegrityViolationException("Unable to encode payload: bad");
+			}
+			return payloads.size();
+		}
+
+	}
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.pgcopy.sink;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CopyBufferTests {
+
+	@Test
+	public void utf8MatchesStringEncoding() {
+		for (String text : new String[] { "", "plain ascii", "café", "€ 100", "emoji 😀 end",
+				"unpaired \ud83d high", "unpaired \ude00 low", "trailing \ud83d" }) {
+			CopyBuffer buffer = new CopyBuffer(1);
+			buffer.writeUtf8(text);
+			assertThat(buffer.toByteArray()).as(text).isEqualTo(text.getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	@Test
+	public void growsAndTracksFullness() {
+		CopyBuffer buffer = new CopyBuffer(4);
+		byte[] chunk = new byte[1000];
+		while (!buffer.isFull()) {
+			buffer.write(chunk);
+		}
+		assertThat(buffer.size()).isGreaterThanOrEqualTo(CopyBuffer.CHUNK_SIZE);
+		buffer.reset();
+		assertThat(buffer.size()).isZero();
+		assertThat(buffer.isFull()).isFalse();
+	}
+
+	@Test
+	public void backfillsLengthAndTruncates() {
+		CopyBuffer buffer = new CopyBuffer(2);
+		buffer.writeShort(1);
+		int position = buffer.size();
+		buffer.writeInt(-1);
+		buffer.writeUtf8("abc");
+		buffer.setInt(position, buffer.size() - position - 4);
+		int mark = buffer.size();
+		buffer.writeLong(42L);
+		buffer.truncate(mark);
+
+		ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+		assertThat(bytes.getShort()).isEqualTo((short) 1);
+		assertThat(bytes.getInt()).isEqualTo(3);
+		assertThat(bytes.remaining()).isEqualTo(3);
+	}
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.pgcopy.sink;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the client side cost of turning TEXT format payloads into the bytes sent with COPY: the former per row
+ * {@code String} concatenation and encoding with one array per row, and encoding into a reused {@link CopyBuffer}.
+ * No database is involved; the chunks that would be sent are consumed by a {@link Blackhole}. Run with
+ * {@code -prof gc} to compare the allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CopyRowEncodingBenchmark {
+
+	private static final int ROWS = 10000;
+
+	@Param({ "bytes", "string" })
+	public String payloadType;
+
+	private List<Object> payloads;
+
+	private final CopyBuffer buffer = new CopyBuffer();
+
+	@Setup
+	public void setUp() {
+		this.payloads = new ArrayList<>(ROWS);
+		for (int i = 0; i < ROWS; i++) {
+			String row = i + "\tcustomer-" + (i % 977) + "\t" + (i % 97) + ".25\t2024-01-01T00:00:00Z\tZürich";
+			this.payloads.add("bytes".equals(this.payloadType) ? row.getBytes(StandardCharsets.UTF_8) : row);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public void perRowArrays(Blackhole blackhole) {
+		for (Object payload : this.payloads) {
+			String row = (payload instanceof byte[]) ? new String((byte[]) payload) : (String) payload;
+			blackhole.consume((row + "\n").getBytes());
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public void copyBuffer(Blackhole blackhole) {
+		this.buffer.reset();
+		for (Object payload : this.payloads) {
+			PgcopySinkConfiguration.textRow(payload, this.buffer);
+			if (this.buffer.isFull()) {
+				blackhole.consume(this.buffer.size());
+				this.buffer.reset();
+			}
+		}
+		blackhole.consume(this.buffer.size());
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(CopyRowEncodingBenchmark.class.getSimpleName()).build()).run();
+	}
+
+}
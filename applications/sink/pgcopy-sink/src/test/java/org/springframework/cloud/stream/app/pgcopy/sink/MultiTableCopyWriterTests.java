@@ -0,0 +1,189 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.pgcopy.sink;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.messaging.support.MessageBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests for {@link MultiTableCopyWriter}.
+ */
+public class MultiTableCopyWriterTests {
+
+	private final List<String> tables = new ArrayList<>();
+
+	private final List<String> copies = new ArrayList<>();
+
+	private final List<String> failedCopies = new ArrayList<>();
+
+	private int failures;
+
+	@Test
+	public void tablesBeyondTheMaximumAreRejected() {
+		MultiTableCopyWriter writer = writer(1, 60000, 10);
+		write(writer, "pets", "1");
+		write(writer, "places", "1");
+		write(writer, null, "1");
+		assertThatIllegalArgumentException().isThrownBy(() -> write(writer, "parks", "1"))
+				.withMessageContaining("maximum of 3 tables");
+		write(writer, "pets", "1");
+		write(writer, "people", "1");
+
+		assertThat(this.tables).containsExactly("pets", "places", "people");
+	}
+
+	@Test
+	public void fullBuffersAreCopied() {
+		MultiTableCopyWriter writer = writer(2, 60000, 10);
+		write(writer, "pets", "1");
+		write(writer, "people", "2");
+		assertThat(this.copies).isEmpty();
+
+		write(writer, "pets", "3");
+		assertThat(this.copies).containsExactly("pets:[1, 3]");
+		writer.flush();
+		assertThat(this.copies).containsExactly("pets:[1, 3]", "people:[2]");
+	}
+
+	@Test
+	public void leastRecentlyWrittenBufferIsCopiedForANewTable() {
+		MultiTableCopyWriter writer = writer(10, 60000, 2);
+		write(writer, "pets", "1");
+		write(writer, "people", "2");
+		write(writer, "pets", "3");
+		write(writer, "places", "4");
+
+		assertThat(this.copies).containsExactly("people:[2]");
+		writer.flush();
+		assertThat(this.copies).containsExactly("people:[2]", "pets:[1, 3]", "places:[4]");
+	}
+
+	@Test
+	public void idleBuffersAreCopied() {
+		MultiTableCopyWriter writer = writer(10, 0, 10);
+		write(writer, "pets", "1");
+		write(writer, "pets", "2");
+		writer.flushIdle();
+		writer.flushIdle();
+
+		assertThat(this.copies).containsExactly("pets:[1, 2]");
+	}
+
+	@Test
+	public void failedCopyOfAFullBufferKeepsItsRows() {
+		MultiTableCopyWriter writer = writer(2, 60000, 10);
+		write(writer, "pets", "1");
+		this.failures = 1;
+		assertThatExceptionOfType(QueryTimeoutException.class).isThrownBy(() -> write(writer, "pets", "2"));
+
+		write(writer, "pets", "2");
+		assertThat(this.copies).containsExactly("pets:[1, 2]");
+		writer.flush();
+		assertThat(this.copies).containsExactly("pets:[1, 2]");
+	}
+
+	@Test
+	public void failedCopyOfTheLeastRecentlyWrittenBufferRejectsTheNewTable() {
+		MultiTableCopyWriter writer = writer(10, 60000, 1);
+		write(writer, "pets", "1");
+		this.failures = 1;
+		assertThatExceptionOfType(QueryTimeoutException.class).isThrownBy(() -> write(writer, "people", "2"));
+
+		write(writer, "people", "2");
+		writer.flush();
+		assertThat(this.copies).containsExactly("pets:[1]", "people:[2]");
+	}
+
+	@Test
+	public void failedCopyOfAnIdleBufferIsRetried() {
+		MultiTableCopyWriter writer = writer(10, 0, 10);
+		write(writer, "pets", "1");
+		write(writer, "people", "2");
+		this.failures = 1;
+		writer.flushIdle();
+		assertThat(this.copies).containsExactly("people:[2]");
+
+		writer.flushIdle();
+		assertThat(this.copies).containsExactly("people:[2]", "pets:[1]");
+	}
+
+	@Test
+	public void buffersThatCannotBeCopiedOnFlushAreHandedToTheErrorPath() {
+		MultiTableCopyWriter writer = writer(10, 60000, 10);
+		write(writer, "pets", "1");
+		write(writer, "people", "2");
+		this.failures = 1;
+		writer.flush();
+
+		assertThat(this.failedCopies).containsExactly("pets:[1]");
+		assertThat(this.copies).containsExactly("people:[2]");
+	}
+
+	private MultiTableCopyWriter writer(int batchSize, long idleTimeout, int maxOpenBuffers) {
+		return new MultiTableCopyWriter(new SpelExpressionParser().parseExpression("headers['table']"),
+				new StandardEvaluationContext(), "people", table -> {
+					this.tables.add(table);
+					return new MultiTableCopyWriter.TablePolicy(new RecordingWriter(table), batchSize, idleTimeout);
+				}, maxOpenBuffers, 3);
+	}
+
+	private static void write(MultiTableCopyWriter writer, String table, String payload) {
+		writer.write(MessageBuilder.withPayload(payload).setHeader("table", table).build());
+	}
+
+	/**
+	 * Records the batches copied to its table, failing as many times as {@link #failures} says.
+	 */
+	private class RecordingWriter extends CopyBatchWriter {
+
+		private final String table;
+
+		RecordingWriter(String table) {
+			super(null, null, null, null, null, null);
+			this.table = table;
+		}
+
+		@Override
+		long write(Collection<?> payloads) {
+			if (MultiTableCopyWriterTests.this.failures > 0) {
+				MultiTableCopyWriterTests.this.failures--;
+				throw new QueryTimeoutException("canceling statement due to statement timeout");
+			}
+			MultiTableCopyWriterTests.this.copies.add(this.table + ":" + payloads);
+			return payloads.size();
+		}
+
+		@Override
+		void failed(Collection<?> payloads, RuntimeException failure) {
+			MultiTableCopyWriterTests.this.failedCopies.add(this.table + ":" + payloads);
+		}
+
+	}
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.pgcopy.sink;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ParallelCopyDispatcher}.
+ */
+public class ParallelCopyDispatcherTests {
+
+	@Test
+	public void rowsWithSameKeyAreCopiedBySameWorker() {
+		Map<Object, String> threads = new ConcurrentHashMap<>();
+		List<String> conflicts = Collections.synchronizedList(new ArrayList<>());
+		CopyBatchWriter writer = new RecordingWriter(payloads -> {
+			for (Object payload : payloads) {
+				String key = ((String) payload).split(",")[0];
+				String previous = threads.putIfAbsent(key, Thread.currentThread().getName());
+				if (previous != null && !previous.equals(Thread.currentThread().getName())) {
+					conflicts.add(key);
+				}
+			}
+		});
+		ParallelCopyDispatcher dispatcher = new ParallelCopyDispatcher(writer, 3, 0,
+				new SpelExpressionParser().parseExpression("split(',')[0]"), new StandardEvaluationContext());
+		for (int i = 0; i < 20; i++) {
+			dispatcher.dispatch(Arrays.asList("a," + i, "b," + i, "c," + i, "d," + i));
+		}
+		dispatcher.close();
+
+		assertThat(threads).containsOnlyKeys("a", "b", "c", "d");
+		assertThat(conflicts).isEmpty();
+	}
+
+	@Test
+	public void inFlightBatchesAreBounded() throws InterruptedException {
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger written = new AtomicInteger();
+		CopyBatchWriter writer = new RecordingWriter(payloads -> {
+			try {
+				release.await(10, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			written.addAndGet(payloads.size());
+		});
+		ParallelCopyDispatcher dispatcher = new ParallelCopyDispatcher(writer, 2, 2, null, null);
+		dispatcher.dispatch(Arrays.asList("1"));
+		dispatcher.dispatch(Arrays.asList("2"));
+
+		CountDownLatch dispatched = new CountDownLatch(1);
+		Thread producer = new Thread(() -> {
+			dispatcher.dispatch(Arrays.asList("3"));
+			dispatched.countDown();
+		});
+		producer.start();
+		assertThat(dispatched.await(200, TimeUnit.MILLISECONDS)).isFalse();
+
+		release.countDown();
+		assertThat(dispatched.await(10, TimeUnit.SECONDS)).isTrue();
+		dispatcher.close();
+		assertThat(written.get()).isEqualTo(3);
+	}
+
+	@Test
+	public void failedBatchesAreCounted() {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		CopyBatchWriter writer = new RecordingWriter(payloads -> {
+			if (payloads.contains("bad")) {
+				throw new QueryTimeoutException("canceling statement due to statement timeout");
+			}
+		}, new CopyMetrics(meterRegistry, "test"));
+		ParallelCopyDispatcher dispatcher = new ParallelCopyDispatcher(writer, 2, 0, null, null);
+		dispatcher.dispatch(Arrays.asList("1", "2"));
+		dispatcher.dispatch(Arrays.asList("3", "bad", "5"));
+		dispatcher.close();
+
+		assertThat(meterRegistry.get("pgcopy.failed.rows").counter().count()).isEqualTo(3.0);
+	}
+
+	private static class RecordingWriter extends CopyBatchWriter {
+
+		private final BatchCallback callback;
+
+		RecordingWriter(BatchCallback callback) {
+			this(callback, CopyMetrics.NONE);
+		}
+
+		RecordingWriter(BatchCallback callback, CopyMetrics metrics) {
+			super(null, null, null, null, null, null, null, metrics);
+			this.callback = callback;
+		}
+
+		@Override
+		long write(Collection<?> payloads) {
+			this.callback.batch(payloads);
+			return payloads.size();
+		}
+
+	}
+
+	private interface BatchCallback {
+
+		void batch(Collection<?> payloads);
+
+	}
+
+}
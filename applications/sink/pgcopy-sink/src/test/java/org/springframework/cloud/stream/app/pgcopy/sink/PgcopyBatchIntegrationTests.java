@@ -0,0 +1,73 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.pgcopy.sink;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.stream.app.pgcopy.test.PostgresAvailableExtension;
+import org.springframework.cloud.stream.binder.test.InputDestination;
+import org.springframework.integration.store.MessageGroupStore;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.annotation.DirtiesContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration Tests for PgcopySink consuming batches delivered by the binder. Only runs if PostgreSQL database is
+ * available.
+ */
+@SpringBootTest(
+		webEnvironment = SpringBootTest.WebEnvironment.NONE,
+		classes = PgcopyErrorTableIntegrationTests.PgcopySinkApplication.class,
+		properties = {
+				"spring.cloud.function.definition=pgcopyConsumer",
+				"spring.cloud.stream.bindings.pgcopyConsumer-in-0.consumer.batch-mode=true",
+				"spring.cloud.stream.bindings.pgcopyConsumer-in-0.content-type=text/plain",
+				"pgcopy.tableName=names", "pgcopy.initialize=true", "pgcopy.columns=id,name,age",
+				"pgcopy.format=CSV", "pgcopy.mode=batch"
+		})
+@ExtendWith(PostgresAvailableExtension.class)
+@DirtiesContext
+public class PgcopyBatchIntegrationTests {
+
+	@Autowired
+	private InputDestination inputDestination;
+
+	@Autowired
+	private JdbcOperations jdbcOperations;
+
+	@Autowired(required = false)
+	private MessageGroupStore messageGroupStore;
+
+	@Test
+	public void testCopyBinderBatch() {
+		this.inputDestination.send(MessageBuilder.withPayload(List.of("123,Nisse,25".getBytes(),
+				"124,Anna,21".getBytes(), "GARBAGE".getBytes(), "125,Bubba,22".getBytes())).build());
+
+		int result = this.jdbcOperations.queryForObject("select count(*) from names", Integer.class);
+
+		assertThat(result).isEqualTo(3);
+		assertThat(this.messageGroupStore).isNull();
+	}
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.pgcopy.sink;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.stream.app.pgcopy.test.PostgresAvailableExtension;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Integration Tests for copying a bisected batch again after a failure that is not caused by its data. Only runs if
+ * PostgreSQL database is available.
+ */
+@SpringBootTest(
+		webEnvironment = SpringBootTest.WebEnvironment.NONE,
+		classes = PgcopyBisectRetryIntegrationTests.PgcopySinkApplication.class,
+		properties = {
+				"spring.cloud.function.definition=pgcopyConsumer",
+				"pgcopy.tableName=retries", "pgcopy.initialize=true", "pgcopy.columns=id,name,age",
+				"pgcopy.format=CSV"
+		})
+@ExtendWith(PostgresAvailableExtension.class)
+@DirtiesContext
+public class PgcopyBisectRetryIntegrationTests {
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private PgcopySinkProperties properties;
+
+	@Test
+	public void testRetryAfterFailedSecondHalfWritesNoDuplicates() {
+		FailingOnceWriter writer = new FailingOnceWriter(this.jdbcTemplate, this.transactionManager,
+				PgcopySinkConfiguration.copySql(this.properties), null, "4,Pelle,42");
+		List<String> batch = Arrays.asList("1,Kalle,31", "GARBAGE", "3,Nisse,25", "4,Pelle,42");
+
+		assertThatExceptionOfType(QueryTimeoutException.class).isThrownBy(() -> writer.write(batch));
+		assertThat(this.jdbcTemplate.queryForObject("select count(*) from retries", Integer.class)).isZero();
+
+		assertThat(writer.write(batch)).isEqualTo(3);
+		assertThat(this.jdbcTemplate.queryForList("select id from retries", String.class))
+				.containsExactlyInAnyOrder("1", "3", "4");
+	}
+
+	@Test
+	public void testBisectedHalvesAreMergedOnce() {
+		this.jdbcTemplate.execute("DROP TABLE IF EXISTS bisect_accounts");
+		this.jdbcTemplate.execute("CREATE TABLE bisect_accounts (ID INTEGER PRIMARY KEY, NAME VARCHAR(255), "
+				+ "BALANCE INTEGER)");
+		PgcopySinkProperties mergeProperties = new PgcopySinkProperties();
+		mergeProperties.setFormat(PgcopySinkProperties.Format.CSV);
+		mergeProperties.getMerge().setConflictColumns(List.of("id"));
+		List<String> columns = List.of("id", "name", "balance");
+		FailingOnceWriter writer = new FailingOnceWriter(this.jdbcTemplate, this.transactionManager, null,
+				new StagingMerge(mergeProperties, "bisect_accounts", columns), null);
+
+		assertThat(writer.write(Arrays.asList("1,Kalle,10", "2,Olle,x", "3,Nisse,30", "1,Kalle,11"))).isEqualTo(3);
+		assertThat(this.jdbcTemplate.queryForList("select balance from bisect_accounts order by id", Integer.class))
+				.containsExactly(11, 30);
+	}
+
+	/**
+	 * Fails once, with a transient failure, to copy a part of a batch holding the given payload but no bad row.
+	 */
+	private static class FailingOnceWriter extends CopyBatchWriter {
+
+		private final String failOn;
+
+		private boolean failed;
+
+		FailingOnceWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, String sql,
+				StagingMerge stagingMerge, String failOn) {
+
+			super(jdbcTemplate, new TransactionTemplate(transactionManager), sql, PgcopySinkConfiguration::textRow,
+					"retries", null, stagingMerge, CopyMetrics.NONE);
+			this.failOn = failOn;
+		}
+
+		@Override
+		long copy(Collection<?> payloads) {
+			if (!this.failed && payloads.contains(this.failOn) && !payloads.contains("GARBAGE")) {
+				this.failed = true;
+				throw new QueryTimeoutException("canceling statement due to statement timeout");
+			}
+			return super.copy(payloads);
+		}
+
+	}
+
+	@SpringBootConfiguration
+	@EnableAutoConfiguration
+	@Import({ PgcopySinkConfiguration.class, TestChannelBinderConfiguration.class })
+	public static class PgcopySinkApplication {
+
+		public static void main(String[] args) {
+			SpringApplication.run(PgcopySinkApplication.class, args);
+		}
+	}
+}
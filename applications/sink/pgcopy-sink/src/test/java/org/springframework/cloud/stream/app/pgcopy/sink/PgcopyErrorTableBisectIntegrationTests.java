@@ -0,0 +1,109 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.pgcopy.sink;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.stream.app.pgcopy.test.PostgresAvailableExtension;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.annotation.DirtiesContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration Tests for PgcopySink isolating several bad rows of a batch into the error table. Only runs if
+ * PostgreSQL database is available.
+ */
+@SpringBootTest(
+		webEnvironment = SpringBootTest.WebEnvironment.NONE,
+		classes = PgcopyErrorTableBisectIntegrationTests.PgcopySinkApplication.class,
+		properties = {
+				"spring.cloud.function.definition=pgcopyConsumer",
+				"pgcopy.tableName=names", "pgcopy.batch-size=8", "pgcopy.initialize=true",
+				"pgcopy.columns=id,name,age", "pgcopy.format=CSV", "pgcopy.error-table=test_errors",
+				"spring.sql.init.mode=always", "spring.sql.init.schema-locations=classpath:error-table-ddl.sql",
+				"spring.sql.init.continue-on-error=true"
+		})
+@ExtendWith(PostgresAvailableExtension.class)
+@DirtiesContext
+public class PgcopyErrorTableBisectIntegrationTests {
+
+	@Autowired
+	private Consumer<Message<?>> pgcopyConsumer;
+
+	@Autowired
+	private JdbcOperations jdbcOperations;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	public void testCopyCSVWithSeveralBadRows() {
+		this.pgcopyConsumer.accept(MessageBuilder.withPayload("121,Kalle,31").build());
+		this.pgcopyConsumer.accept(MessageBuilder.withPayload("GARBAGE").build());
+		this.pgcopyConsumer.accept(MessageBuilder.withPayload("122,Olle,28").build());
+		this.pgcopyConsumer.accept(MessageBuilder.withPayload("123,Nisse,25").build());
+		this.pgcopyConsumer.accept(MessageBuilder.withPayload("124,Pelle,42").build());
+		this.pgcopyConsumer.accept(MessageBuilder.withPayload("125,Bubba,22,EXTRA").build());
+		this.pgcopyConsumer.accept(MessageBuilder.withPayload("MORE GARBAGE").build());
+		this.pgcopyConsumer.accept(MessageBuilder.withPayload("126,Kajsa,19").build());
+
+		int result = this.jdbcOperations.queryForObject("select count(*) from names", Integer.class);
+		List<String> errors = this.jdbcOperations.queryForList("select payload from test_errors", String.class);
+
+		assertThat(result).isEqualTo(5);
+		assertThat(errors).containsExactlyInAnyOrder("GARBAGE", "125,Bubba,22,EXTRA", "MORE GARBAGE");
+
+		assertThat(this.meterRegistry.get("pgcopy.rows").tag("table", "names").counter().count()).isEqualTo(5.0);
+		assertThat(this.meterRegistry.get("pgcopy.batch.size").summary().totalAmount()).isEqualTo(8.0);
+		assertThat(this.meterRegistry.get("pgcopy.error.rows").counter().count()).isEqualTo(3.0);
+		assertThat(this.meterRegistry.get("pgcopy.fallbacks").tag("type", "bisect").counter().count()).isEqualTo(1.0);
+		assertThat(this.meterRegistry.get("pgcopy.copy").timer().count()).isGreaterThan(1);
+		assertThat(this.meterRegistry.get("pgcopy.commit").timer().count()).isPositive();
+	}
+
+	@SpringBootConfiguration
+	@EnableAutoConfiguration
+	@Import({ PgcopySinkConfiguration.class, TestChannelBinderConfiguration.class })
+	public static class PgcopySinkApplication {
+
+		@Bean
+		public MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+
+		public static void main(String[] args) {
+			SpringApplication.run(PgcopySinkApplication.class, args);
+		}
+	}
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.pgcopy.sink;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.core.BaseConnection;
+
+import org.springframework.cloud.stream.app.pgcopy.sink.PgcopySinkProperties.ColumnType;
+import org.springframework.cloud.stream.app.pgcopy.sink.PgcopySinkProperties.Format;
+
+/**
+ * Compares the rows per second the sink achieves with the TEXT, CSV and BINARY formats on a wide numeric table,
+ * including the client side encoding of the payloads. Runs against the database configured with the
+ * {@code spring.datasource.url}, {@code spring.datasource.username} and {@code spring.datasource.password} system
+ * properties, which default to the ones used by the integration tests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PgcopyFormatBenchmark {
+
+	private static final int ROWS = 10000;
+
+	private static final List<String> COLUMNS = Arrays.asList("id", "quantity", "price", "ratio", "total", "created");
+
+	@Param({ "TEXT", "CSV", "BINARY" })
+	public Format format;
+
+	private Connection connection;
+
+	private String sql;
+
+	private CopyRowEncoder encoder;
+
+	private List<Object> payloads;
+
+	private final CopyBuffer buffer = new CopyBuffer();
+
+	@Setup
+	public void setUp() throws SQLException {
+		this.connection = DriverManager.getConnection(
+				System.getProperty("spring.datasource.url", "jdbc:postgresql://127.0.0.1:5432/test"),
+				System.getProperty("spring.datasource.username", "postgres"),
+				System.getProperty("spring.datasource.password", "spring"));
+		this.connection.setAutoCommit(false);
+		try (Statement statement = this.connection.createStatement()) {
+			statement.execute("DROP TABLE IF EXISTS pgcopy_benchmark");
+			statement.execute("CREATE UNLOGGED TABLE pgcopy_benchmark (id BIGINT, quantity INTEGER, "
+					+ "price NUMERIC(14,4), ratio DOUBLE PRECISION, total NUMERIC(18,4), created TIMESTAMPTZ)");
+		}
+		this.connection.commit();
+
+		PgcopySinkProperties properties = new PgcopySinkProperties();
+		properties.setTableName("pgcopy_benchmark");
+		properties.setColumns(COLUMNS);
+		properties.setFormat(this.format);
+		properties.setColumnTypes(Map.of("id", ColumnType.INT8, "quantity", ColumnType.INT4,
+				"price", ColumnType.NUMERIC, "ratio", ColumnType.FLOAT8, "total", ColumnType.NUMERIC,
+				"created", ColumnType.TIMESTAMPTZ));
+		this.sql = PgcopySinkConfiguration.copySql(properties);
+		this.encoder = (this.format == Format.BINARY)
+				? new BinaryCopyRowEncoder(COLUMNS, properties.getColumnTypes(), new ObjectMapper())
+				: PgcopySinkConfiguration::textRow;
+
+		this.payloads = new ArrayList<>(ROWS);
+		for (int i = 0; i < ROWS; i++) {
+			long id = i;
+			int quantity = i % 1000;
+			String price = (i % 97) + "." + (1000 + i % 9000);
+			double ratio = i / 7.0;
+			String total = (i * 13L) + ".5";
+			String created = "2024-01-01T00:00:" + String.format("%02d", i % 60) + "Z";
+			switch (this.format) {
+				case TEXT:
+					this.payloads.add(id + "\t" + quantity + "\t" + price + "\t" + ratio + "\t" + total + "\t" + created);
+					break;
+				case CSV:
+					this.payloads.add(id + "," + quantity + "," + price + "," + ratio + "," + total + "," + created);
+					break;
+				default:
+					this.payloads.add("{\"id\":" + id + ",\"quantity\":" + quantity + ",\"price\":" + price
+							+ ",\"ratio\":" + ratio + ",\"total\":" + total + ",\"created\":\"" + created + "\"}");
+			}
+		}
+	}
+
+	@TearDown(Level.Iteration)
+	public void truncate() throws SQLException {
+		try (Statement statement = this.connection.createStatement()) {
+			statement.execute("TRUNCATE pgcopy_benchmark");
+		}
+		this.connection.commit();
+	}
+
+	@TearDown
+	public void tearDown() throws SQLException {
+		try (Statement statement = this.connection.createStatement()) {
+			statement.execute("DROP TABLE pgcopy_benchmark");
+		}
+		this.connection.commit();
+		this.connection.close();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public long copy() throws SQLException {
+		CopyIn copyIn = this.connection.unwrap(BaseConnection.class).getCopyAPI().copyIn(this.sql);
+		this.buffer.reset();
+		this.buffer.write(this.encoder.header());
+		for (Object payload : this.payloads) {
+			this.encoder.encode(payload, this.buffer);
+			if (this.buffer.isFull()) {
+				this.buffer.flushTo(copyIn);
+			}
+		}
+		this.buffer.write(this.encoder.trailer());
+		this.buffer.flushTo(copyIn);
+		long rows = copyIn.endCopy();
+		this.connection.commit();
+		return rows;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(PgcopyFormatBenchmark.class.getSimpleName()).build()).run();
+	}
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.pgcopy.sink;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.stream.app.pgcopy.test.PostgresAvailableExtension;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.annotation.DirtiesContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Integration Tests for PgcopySink routing rows to several tables. Only runs if PostgreSQL database is available.
+ */
+@SpringBootTest(
+		webEnvironment = SpringBootTest.WebEnvironment.NONE,
+		classes = PgcopyErrorTableIntegrationTests.PgcopySinkApplication.class,
+		properties = {
+				"spring.cloud.function.definition=pgcopyConsumer",
+				"pgcopy.mode=routing", "pgcopy.table-expression=headers['table']", "pgcopy.tableName=people",
+				"pgcopy.initialize=classpath:routing-table-ddl.sql", "pgcopy.columns=id,name,age",
+				"pgcopy.format=CSV", "pgcopy.batch-size=2", "pgcopy.idle-timeout=60000", "pgcopy.max-open-tables=2",
+				"pgcopy.tables.pets.columns=id,kind", "pgcopy.tables.pets.batch-size=3",
+				"pgcopy.tables.places.idle-timeout=100"
+		})
+@ExtendWith(PostgresAvailableExtension.class)
+@DirtiesContext
+public class PgcopyRoutingIntegrationTests {
+
+	@Autowired
+	private Consumer<Message<?>> pgcopyConsumer;
+
+	@Autowired
+	private JdbcOperations jdbcOperations;
+
+	@Test
+	public void testRoutingToTables() {
+		send(null, "1,Nisse,25");
+		send("pets", "1,cat");
+		send("people", "2,Anna,21");
+		send("pets", "2,dog");
+		assertThat(count("people")).isEqualTo(2);
+		assertThat(count("pets")).isEqualTo(0);
+
+		send("pets", "3,fish");
+		assertThat(count("pets")).isEqualTo(3);
+
+		send("pets", "4,bird");
+		send("people", "3,Bubba,22");
+		send("places", "1,Paris,2000");
+		// a third open table causes the least recently written buffer to be copied
+		assertThat(count("pets")).isEqualTo(4);
+		assertThat(count("people")).isEqualTo(2);
+
+		await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> assertThat(count("places")).isEqualTo(1));
+		assertThat(count("people")).isEqualTo(2);
+	}
+
+	@Test
+	public void testInvalidTableNameIsRejected() {
+		assertThatIllegalArgumentException().isThrownBy(() -> send("people; drop table pets", "1,x,1"));
+	}
+
+	private void send(String table, String payload) {
+		this.pgcopyConsumer.accept(MessageBuilder.withPayload(payload).setHeader("table", table).build());
+	}
+
+	private int count(String table) {
+		return this.jdbcOperations.queryForObject("select count(*) from " + table, Integer.class);
+	}
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.pgcopy.sink;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.GenericMessage;
+
+/**
+ * Measures the rows per second the whole sink, as assembled by {@link PgcopySinkConfiguration}, writes in each of
+ * its modes. Every invocation hands the rows to the {@code pgcopyConsumer} function and waits until the
+ * {@code pgcopy.rows} meter reports them as committed. Runs against the database configured in the test
+ * {@code application.properties}, which can be overridden with the {@code spring.datasource.*} system properties.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PgcopySinkBenchmark {
+
+	private static final int ROWS = 10000;
+
+	private static final int BATCH_SIZE = 1000;
+
+	@Param({ "aggregating", "streaming", "pipelined", "batch" })
+	public String mode;
+
+	private ConfigurableApplicationContext context;
+
+	private Consumer<Message<?>> consumer;
+
+	private Counter rows;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private final List<Message<?>> messages = new ArrayList<>();
+
+	@Setup
+	@SuppressWarnings("unchecked")
+	public void setUp() {
+		this.context = new SpringApplicationBuilder(BenchmarkApplication.class)
+				.web(WebApplicationType.NONE)
+				.properties("spring.cloud.function.definition=pgcopyConsumer", "pgcopy.mode=" + this.mode,
+						"pgcopy.table-name=pgcopy_sink_benchmark", "pgcopy.initialize=true",
+						"pgcopy.columns=id,name,amount", "pgcopy.format=CSV", "pgcopy.batch-size=" + BATCH_SIZE,
+						"logging.level.root=WARN")
+				.run();
+		this.consumer = this.context.getBean("pgcopyConsumer", Consumer.class);
+		this.rows = this.context.getBean(MeterRegistry.class).get("pgcopy.rows").counter();
+		this.jdbcTemplate = this.context.getBean(JdbcTemplate.class);
+
+		List<byte[]> batch = new ArrayList<>(BATCH_SIZE);
+		for (int i = 0; i < ROWS; i++) {
+			String row = i + ",customer-" + (i % 977) + "," + (i % 97) + ".25";
+			if ("batch".equals(this.mode)) {
+				batch.add(row.getBytes(StandardCharsets.UTF_8));
+				if (batch.size() == BATCH_SIZE) {
+					this.messages.add(new GenericMessage<>(batch));
+					batch = new ArrayList<>(BATCH_SIZE);
+				}
+			}
+			else {
+				this.messages.add(new GenericMessage<>(row));
+			}
+		}
+	}
+
+	@TearDown(Level.Iteration)
+	public void truncate() {
+		this.jdbcTemplate.execute("TRUNCATE pgcopy_sink_benchmark");
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.jdbcTemplate.execute("DROP TABLE pgcopy_sink_benchmark");
+		this.context.close();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public void write() throws InterruptedException {
+		double expected = this.rows.count() + ROWS;
+		for (Message<?> message : this.messages) {
+			this.consumer.accept(message);
+		}
+		while (this.rows.count() < expected) {
+			Thread.sleep(1);
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(PgcopySinkBenchmark.class.getSimpleName()).build()).run();
+	}
+
+	@SpringBootConfiguration
+	@EnableAutoConfiguration
+	@Import({ PgcopySinkConfiguration.class, TestChannelBinderConfiguration.class })
+	public static class BenchmarkApplication {
+
+		@Bean
+		public MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+
+	}
+
+}
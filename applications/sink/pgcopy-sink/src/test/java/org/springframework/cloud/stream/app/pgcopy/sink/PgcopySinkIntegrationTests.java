@@ -1,5 +1,5 @@
 /*
- * Copyright 2016-2019 the original author or authors.
+ * Copyright 2016-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,8 @@
 
 package org.springframework.cloud.stream.app.pgcopy.sink;
 
+import java.time.Duration;
+import java.util.Map;
 import java.util.function.Consumer;
 
 import org.junit.jupiter.api.Test;
@@ -36,6 +38,7 @@ import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.TestPropertySource;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 
 /**
  * Integration Tests for PgcopySink. Only runs if PostgreSQL database is available.
@@ -192,6 +195,135 @@ public abstract class PgcopySinkIntegrationTests {
 		}
 	}
 
+	@TestPropertySource(properties = {"pgcopy.tableName=names", "pgcopy.batch-size=3", "pgcopy.initialize=true",
+			"pgcopy.columns=id,name,age", "pgcopy.format=CSV", "pgcopy.mode=streaming"})
+	public static class PgcopyStreamingTests extends PgcopySinkIntegrationTests {
+
+		@Test
+		public void testStreamingCopy() {
+			this.pgcopyConsumer.accept(MessageBuilder.withPayload("123,\"Nisse\",25").build());
+			this.pgcopyConsumer.accept(MessageBuilder.withPayload("124,\"Anna\",21").build());
+			int result = jdbcOperations.queryForObject("select count(*) from names", Integer.class);
+			assertThat(result).isEqualTo(0);
+			this.pgcopyConsumer.accept(MessageBuilder.withPayload("125,\"Bubba\",22").build());
+			result = jdbcOperations.queryForObject("select count(*) from names", Integer.class);
+			assertThat(result).isEqualTo(3);
+		}
+	}
+
+	@TestPropertySource(properties = {"pgcopy.tableName=names", "pgcopy.batch-size=100", "pgcopy.initialize=true",
+			"pgcopy.columns=id,name,age", "pgcopy.format=CSV", "pgcopy.mode=streaming",
+			"pgcopy.streaming.max-latency=200"})
+	public static class PgcopyStreamingLatencyTests extends PgcopySinkIntegrationTests {
+
+		@Test
+		public void testStreamingCopyCommitsAfterMaxLatency() {
+			this.pgcopyConsumer.accept(MessageBuilder.withPayload("123,\"Nisse\",25").build());
+			await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+					assertThat(jdbcOperations.queryForObject("select count(*) from names", Integer.class)).isEqualTo(1));
+		}
+	}
+
+	@TestPropertySource(properties = {"pgcopy.tableName=names", "pgcopy.batch-size=3", "pgcopy.initialize=true",
+			"pgcopy.columns=id,name,age", "pgcopy.format=CSV", "pgcopy.parallelism=4",
+			"pgcopy.partition-key-expression=split(',')[1]", "pgcopy.max-in-flight-batches=2"})
+	public static class PgcopyParallelTests extends PgcopySinkIntegrationTests {
+
+		@Test
+		public void testParallelCopy() {
+			for (int i = 0; i < 30; i++) {
+				this.pgcopyConsumer.accept(MessageBuilder.withPayload(i + ",name" + (i % 5) + "," + i).build());
+			}
+			await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+					assertThat(jdbcOperations.queryForObject("select count(*) from names", Integer.class)).isEqualTo(30));
+			assertThat(jdbcOperations.queryForObject("select count(distinct name) from names", Integer.class))
+					.isEqualTo(5);
+		}
+	}
+
+	@TestPropertySource(properties = {"pgcopy.tableName=names", "pgcopy.batch-size=3", "pgcopy.initialize=true",
+			"pgcopy.columns=id,name,age", "pgcopy.format=CSV", "pgcopy.mode=pipelined",
+			"pgcopy.pipeline.max-latency=200"})
+	public static class PgcopyPipelinedTests extends PgcopySinkIntegrationTests {
+
+		@Test
+		public void testPipelinedCopy() {
+			for (int i = 0; i < 10; i++) {
+				this.pgcopyConsumer.accept(MessageBuilder.withPayload(i + ",name" + i + "," + i).build());
+			}
+			await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+					assertThat(jdbcOperations.queryForObject("select count(*) from names", Integer.class)).isEqualTo(10));
+		}
+	}
+
+	@TestPropertySource(properties = {"pgcopy.tableName=accounts", "pgcopy.batch-size=3",
+			"pgcopy.initialize=classpath:merge-table-ddl.sql", "pgcopy.columns=id,name,balance", "pgcopy.format=CSV",
+			"pgcopy.merge.conflict-columns=id"})
+	public static class PgcopyMergeTests extends PgcopySinkIntegrationTests {
+
+		@Test
+		public void testMergeCopy() {
+			this.pgcopyConsumer.accept(MessageBuilder.withPayload("1,Nisse,10").build());
+			this.pgcopyConsumer.accept(MessageBuilder.withPayload("2,Anna,20").build());
+			this.pgcopyConsumer.accept(MessageBuilder.withPayload("1,Nisse,15").build());
+			this.pgcopyConsumer.accept(MessageBuilder.withPayload("2,Anna,30").build());
+			this.pgcopyConsumer.accept(MessageBuilder.withPayload("GARBAGE").build());
+			this.pgcopyConsumer.accept(MessageBuilder.withPayload("3,Bubba,5").build());
+			assertThat(jdbcOperations.queryForList("select balance from accounts order by id", Integer.class))
+					.containsExactly(15, 30, 5);
+		}
+	}
+
+	@TestPropertySource(properties = {"pgcopy.tableName=accounts", "pgcopy.batch-size=2",
+			"pgcopy.initialize=classpath:merge-table-ddl.sql", "pgcopy.columns=id,name,balance", "pgcopy.format=CSV",
+			"pgcopy.merge.conflict-columns=id", "pgcopy.merge.update-columns=balance",
+			"pgcopy.merge.staging-table=unlogged"})
+	public static class PgcopyMergeUnloggedTests extends PgcopySinkIntegrationTests {
+
+		@Test
+		public void testMergeCopyWithUnloggedStagingTable() {
+			this.pgcopyConsumer.accept(MessageBuilder.withPayload("1,Nisse,10").build());
+			this.pgcopyConsumer.accept(MessageBuilder.withPayload("2,Anna,20").build());
+			this.pgcopyConsumer.accept(MessageBuilder.withPayload("1,Pelle,15").build());
+			this.pgcopyConsumer.accept(MessageBuilder.withPayload("3,Bubba,5").build());
+			assertThat(jdbcOperations.queryForList("select name || ':' || balance from accounts order by id",
+					String.class)).containsExactly("Nisse:15", "Anna:20", "Bubba:5");
+			assertThat(jdbcOperations.queryForObject("select count(*) from accounts_pgcopy_stage", Integer.class))
+					.isEqualTo(2);
+		}
+	}
+
+	@TestPropertySource(properties = {"pgcopy.tableName=measurements", "pgcopy.batch-size=2",
+			"pgcopy.initialize=classpath:binary-table-ddl.sql",
+			"pgcopy.columns=id,name,count,amount,ratio,created,ref,attrs", "pgcopy.format=BINARY",
+			"pgcopy.column-types.id=INT8", "pgcopy.column-types.count=INT4", "pgcopy.column-types.amount=NUMERIC",
+			"pgcopy.column-types.ratio=FLOAT8", "pgcopy.column-types.created=TIMESTAMPTZ",
+			"pgcopy.column-types.ref=UUID", "pgcopy.column-types.attrs=JSONB"})
+	public static class PgcopyBinaryTests extends PgcopySinkIntegrationTests {
+
+		@Test
+		public void testCopyBinary() {
+			this.pgcopyConsumer.accept(MessageBuilder.withPayload("{\"id\":123,\"name\":\"Nisse\",\"count\":25,"
+					+ "\"amount\":-12345.6789,\"ratio\":0.25,\"created\":\"2024-02-29T12:34:56.789Z\","
+					+ "\"ref\":\"0b5a9e1c-3f0e-4a59-9d3c-2a1f7e0c6b11\",\"attrs\":{\"tags\":[\"a\",\"b\"]}}").build());
+			this.pgcopyConsumer.accept(MessageBuilder.withPayload("{\"id\":124,\"amount\":0.0001}").build());
+			Map<String, Object> row = jdbcOperations.queryForMap("select id, name, count, amount::text as amount, "
+					+ "ratio, extract(epoch from created) * 1000 as created, ref::text as ref, attrs->'tags'->>1 as tag "
+					+ "from measurements where id = 123");
+			assertThat(row.get("name")).isEqualTo("Nisse");
+			assertThat(row.get("count")).isEqualTo(25);
+			assertThat(row.get("amount")).isEqualTo("-12345.6789");
+			assertThat(row.get("ratio")).isEqualTo(0.25);
+			assertThat(((Number) row.get("created")).longValue()).isEqualTo(1709210096789L);
+			assertThat(row.get("ref")).isEqualTo("0b5a9e1c-3f0e-4a59-9d3c-2a1f7e0c6b11");
+			assertThat(row.get("tag")).isEqualTo("b");
+			Map<String, Object> sparse = jdbcOperations.queryForMap("select name, amount::text as amount "
+					+ "from measurements where id = 124");
+			assertThat(sparse.get("name")).isNull();
+			assertThat(sparse.get("amount")).isEqualTo("0.0001");
+		}
+	}
+
 	@SpringBootConfiguration
 	@EnableAutoConfiguration
 	@Import({ PgcopySinkConfiguration.class, TestChannelBinderConfiguration.class })
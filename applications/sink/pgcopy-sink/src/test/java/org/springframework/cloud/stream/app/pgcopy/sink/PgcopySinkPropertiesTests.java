@@ -1,5 +1,5 @@
 /*
- * Copyright 2017-2018 the original author or authors.
+ * Copyright 2017-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -141,6 +141,68 @@ public class PgcopySinkPropertiesTests {
 		assertThat(String.valueOf(properties.getEscape()), equalTo(escape));
 	}
 
+	@Test
+	public void modeDefaultsToAggregating() {
+		TestPropertyValues.of("pgcopy.table-name: test")
+				.applyTo(this.context);
+		this.context.register(Conf.class);
+		this.context.refresh();
+		PgcopySinkProperties properties = this.context.getBean(PgcopySinkProperties.class);
+		assertThat(properties.getMode(), equalTo(PgcopySinkProperties.Mode.AGGREGATING));
+	}
+
+	@Test
+	public void streamingCanBeCustomized() {
+		TestPropertyValues.of("pgcopy.table-name: test",
+				"pgcopy.mode: streaming",
+				"pgcopy.streaming.max-bytes: 1024",
+				"pgcopy.streaming.max-latency: 250")
+				.applyTo(this.context);
+		this.context.register(Conf.class);
+		this.context.refresh();
+		PgcopySinkProperties properties = this.context.getBean(PgcopySinkProperties.class);
+		assertThat(properties.getMode(), equalTo(PgcopySinkProperties.Mode.STREAMING));
+		assertThat(properties.getStreaming().getMaxBytes(), equalTo(1024L));
+		assertThat(properties.getStreaming().getMaxLatency(), equalTo(250L));
+	}
+
+	@Test
+	public void parallelismCanBeCustomized() {
+		TestPropertyValues.of("pgcopy.table-name: test",
+				"pgcopy.parallelism: 4",
+				"pgcopy.max-in-flight-batches: 6")
+				.applyTo(this.context);
+		this.context.register(Conf.class);
+		this.context.refresh();
+		PgcopySinkProperties properties = this.context.getBean(PgcopySinkProperties.class);
+		assertThat(properties.getParallelism(), equalTo(4));
+		assertThat(properties.getMaxInFlightBatches(), equalTo(6));
+	}
+
+	@Test
+	public void parallelismMustBePositive() {
+		TestPropertyValues.of("pgcopy.table-name: test", "pgcopy.parallelism: 0")
+				.applyTo(this.context);
+		this.context.register(Conf.class);
+		assertThatThrownBy(() -> this.context.refresh())
+				.isInstanceOf(BeanCreationException.class);
+	}
+
+	@Test
+	public void pipelineCanBeCustomized() {
+		TestPropertyValues.of("pgcopy.table-name: test",
+				"pgcopy.mode: pipelined",
+				"pgcopy.pipeline.buffers: 3",
+				"pgcopy.pipeline.max-latency: 250")
+				.applyTo(this.context);
+		this.context.register(Conf.class);
+		this.context.refresh();
+		PgcopySinkProperties properties = this.context.getBean(PgcopySinkProperties.class);
+		assertThat(properties.getMode(), equalTo(PgcopySinkProperties.Mode.PIPELINED));
+		assertThat(properties.getPipeline().getBuffers(), equalTo(3));
+		assertThat(properties.getPipeline().getMaxLatency(), equalTo(250L));
+	}
+
 	@Configuration
 	@EnableConfigurationProperties(PgcopySinkProperties.class)
 	static class Conf {
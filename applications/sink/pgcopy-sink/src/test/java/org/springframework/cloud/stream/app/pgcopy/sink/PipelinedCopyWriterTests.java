@@ -0,0 +1,181 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.pgcopy.sink;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.dao.QueryTimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for {@link PipelinedCopyWriter}.
+ */
+public class PipelinedCopyWriterTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	public void fillsNextBufferWhileCopying() throws InterruptedException {
+		CountDownLatch copying = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		List<List<Object>> batches = Collections.synchronizedList(new ArrayList<>());
+		PipelinedCopyWriter writer = new PipelinedCopyWriter(new BlockingWriter(batches, copying, release), 2, 2, 0,
+				this.meterRegistry, "test");
+
+		writer.write("1");
+		writer.write("2");
+		assertThat(copying.await(10, TimeUnit.SECONDS)).isTrue();
+		writer.write("3");
+
+		CountDownLatch written = new CountDownLatch(1);
+		Thread producer = new Thread(() -> {
+			writer.write("4");
+			// both buffers are in use, so this one waits for the first batch to be copied
+			writer.write("5");
+			written.countDown();
+		});
+		producer.start();
+		assertThat(written.await(200, TimeUnit.MILLISECONDS)).isFalse();
+
+		release.countDown();
+		assertThat(written.await(10, TimeUnit.SECONDS)).isTrue();
+		writer.close();
+
+		assertThat(batches).containsExactly(List.of("1", "2"), List.of("3", "4"), List.of("5"));
+		assertThat(this.meterRegistry.get("pgcopy.buffer.wait").timer().count()).isPositive();
+	}
+
+	@Test
+	public void flushesAfterMaxLatency() throws InterruptedException {
+		List<List<Object>> batches = Collections.synchronizedList(new ArrayList<>());
+		PipelinedCopyWriter writer = new PipelinedCopyWriter(
+				new BlockingWriter(batches, new CountDownLatch(1), new CountDownLatch(0)), 2, 100, 50,
+				this.meterRegistry, "test");
+
+		writer.write("1");
+		writer.flushIfExpired();
+		Thread.sleep(100);
+		writer.flushIfExpired();
+		writer.close();
+
+		assertThat(batches).containsExactly(List.of("1"));
+	}
+
+	@Test
+	public void flushesWithoutWaitingForAFreeBuffer() throws InterruptedException {
+		CountDownLatch release = new CountDownLatch(1);
+		List<List<Object>> batches = Collections.synchronizedList(new ArrayList<>());
+		PipelinedCopyWriter writer = new PipelinedCopyWriter(
+				new BlockingWriter(batches, new CountDownLatch(1), release), 2, 100, 1, this.meterRegistry, "test");
+
+		writer.write("1");
+		Thread.sleep(5);
+		writer.flushIfExpired();
+		writer.write("2");
+		Thread.sleep(5);
+		// both buffers are now in use, the copy of the first one being blocked
+		long start = System.nanoTime();
+		writer.flushIfExpired();
+		writer.flushIfExpired();
+		assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(1));
+
+		release.countDown();
+		writer.write("3");
+		writer.close();
+
+		assertThat(batches).containsExactly(List.of("1"), List.of("2"), List.of("3"));
+	}
+
+	@Test
+	public void failedBatchesAreCounted() {
+		CopyBatchWriter failing = new CopyBatchWriter(null, null, null, null, "test", null, null,
+				new CopyMetrics(this.meterRegistry, "test")) {
+
+			@Override
+			long write(Collection<?> payloads) {
+				throw new QueryTimeoutException("canceling statement due to statement timeout");
+			}
+
+		};
+		PipelinedCopyWriter writer = new PipelinedCopyWriter(failing, 2, 2, 0, this.meterRegistry, "test");
+		writer.write("1");
+		writer.write("2");
+		writer.write("3");
+		writer.close();
+
+		assertThat(this.meterRegistry.get("pgcopy.failed.rows").counter().count()).isEqualTo(3.0);
+	}
+
+	@Test
+	public void ignoresFlushesAfterClose() throws InterruptedException {
+		List<List<Object>> batches = Collections.synchronizedList(new ArrayList<>());
+		PipelinedCopyWriter writer = new PipelinedCopyWriter(
+				new BlockingWriter(batches, new CountDownLatch(1), new CountDownLatch(0)), 2, 100, 1,
+				this.meterRegistry, "test");
+
+		writer.write("1");
+		writer.close();
+		Thread.sleep(10);
+		writer.flushIfExpired();
+		writer.flush();
+		writer.close();
+
+		assertThat(batches).containsExactly(List.of("1"));
+		assertThatIllegalStateException().isThrownBy(() -> writer.write("2"));
+	}
+
+	private static class BlockingWriter extends CopyBatchWriter {
+
+		private final List<List<Object>> batches;
+
+		private final CountDownLatch copying;
+
+		private final CountDownLatch release;
+
+		BlockingWriter(List<List<Object>> batches, CountDownLatch copying, CountDownLatch release) {
+			super(null, null, null, null, null, null);
+			this.batches = batches;
+			this.copying = copying;
+			this.release = release;
+		}
+
+		@Override
+		long write(Collection<?> payloads) {
+			this.copying.countDown();
+			try {
+				this.release.await(10, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			this.batches.add(new ArrayList<>(payloads));
+			return payloads.size();
+		}
+
+	}
+
+}
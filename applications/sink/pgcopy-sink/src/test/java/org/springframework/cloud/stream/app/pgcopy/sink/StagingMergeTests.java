@@ -0,0 +1,59 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.pgcopy.sink;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link StagingMerge}.
+ */
+public class StagingMergeTests {
+
+	@Test
+	public void updatesNonConflictColumnsByDefault() {
+		PgcopySinkProperties properties = new PgcopySinkProperties();
+		properties.setFormat(PgcopySinkProperties.Format.CSV);
+		properties.getMerge().setConflictColumns(List.of("id"));
+		StagingMerge merge = new StagingMerge(properties, "app.accounts", List.of("id", "name", "balance"));
+
+		assertThat(merge.getCopySql())
+				.isEqualTo("COPY pgcopy_stage_app_accounts (id,name,balance) FROM STDIN WITH CSV");
+		assertThat(merge.getMergeSql()).isEqualTo("INSERT INTO app.accounts (id,name,balance) "
+				+ "SELECT DISTINCT ON (id) id,name,balance FROM pgcopy_stage_app_accounts ORDER BY id, ctid DESC "
+				+ "ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name, balance = EXCLUDED.balance");
+	}
+
+	@Test
+	public void keepsExistingRowsWithoutUpdateColumns() {
+		PgcopySinkProperties properties = new PgcopySinkProperties();
+		properties.getMerge().setConflictColumns(List.of("id", "day"));
+		properties.getMerge().setUpdateColumns(Collections.emptyList());
+		properties.getMerge().setStagingTable(PgcopySinkProperties.StagingTable.UNLOGGED);
+		StagingMerge merge = new StagingMerge(properties, "visits", List.of("id", "day", "count"));
+
+		assertThat(merge.getCopySql()).isEqualTo("COPY visits_pgcopy_stage (id,day,count) FROM STDIN");
+		assertThat(merge.getMergeSql()).isEqualTo("INSERT INTO visits (id,day,count) "
+				+ "SELECT DISTINCT ON (id,day) id,day,count FROM visits_pgcopy_stage ORDER BY id,day, ctid DESC "
+				+ "ON CONFLICT (id,day) DO NOTHING");
+	}
+
+}
@@ -0,0 +1,3 @@
+DROP TABLE IF EXISTS measurements;
+
+CREATE TABLE measurements (ID BIGINT, NAME VARCHAR(255), COUNT INTEGER, AMOUNT NUMERIC(14,4), RATIO DOUBLE PRECISION, CREATED TIMESTAMPTZ, REF UUID, ATTRS JSONB);
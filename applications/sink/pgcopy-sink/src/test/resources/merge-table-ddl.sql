@@ -0,0 +1,5 @@
+DROP TABLE IF EXISTS accounts;
+
+CREATE TABLE accounts (ID INTEGER PRIMARY KEY, NAME VARCHAR(255), BALANCE INTEGER);
+
+DROP TABLE IF EXISTS accounts_pgcopy_stage;
@@ -0,0 +1,11 @@
+DROP TABLE IF EXISTS people;
+
+CREATE TABLE people (ID VARCHAR(255), NAME VARCHAR(255), AGE VARCHAR(255));
+
+DROP TABLE IF EXISTS pets;
+
+CREATE TABLE pets (ID VARCHAR(255), KIND VARCHAR(255));
+
+DROP TABLE IF EXISTS places;
+
+CREATE TABLE places (ID VARCHAR(255), NAME VARCHAR(255), AGE VARCHAR(255));
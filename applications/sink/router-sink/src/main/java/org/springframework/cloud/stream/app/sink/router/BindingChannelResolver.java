@@ -1,5 +1,5 @@
 /*
- * Copyright 2016-2023 the original author or authors.
+ * Copyright 2016-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,45 +16,316 @@
 
 package org.springframework.cloud.stream.app.sink.router;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 
 import org.springframework.cloud.stream.binding.BindingService;
+import org.springframework.cloud.stream.config.BindingServiceProperties;
 import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.cloud.stream.utils.CacheKeyCreatorUtils;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.core.DestinationResolutionException;
 import org.springframework.messaging.core.DestinationResolver;
+import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
 
 /**
+ * Resolves the destinations the router sends to, as channels that send through the {@link StreamBridge}.
+ * <p>
+ * The resolved destinations are cached in a concurrent map, so that routing to a cached destination takes no lock
+ * and only records when it was used. Beyond a maximum number of destinations, the least recently used ones are
+ * evicted, and optionally those not used within an idle timeout, right after a destination is added or once the idle
+ * timeout allows. The destinations are also kept in a queue ordered by the time they were last used when queued,
+ * under a lock taken on a cache miss; a destination used since it was queued is queued again with that time when it
+ * reaches the head, so the head ends up being the least recently used destination without ever scanning the cache.
+ * <p>
+ * When enabled, a destination that the {@link StreamBridge} bound dynamically is unbound once evicted, so that
+ * routing on a header with many distinct values, such as tenant ids, does not keep a producer open for every value
+ * ever seen; it is bound again when next routed to. The {@link StreamBridge} has no API to forget the channel of a
+ * destination, so its private channel cache is accessed by reflection, and the resolver fails to start when the
+ * {@link StreamBridge} in use does not have it. A destination is resolved again and unbound under the same guard,
+ * and is only unbound if it was not resolved again since it was evicted.
+ *
  * @author Artem Bilan
  */
 class BindingChannelResolver implements DestinationResolver<MessageChannel> {
 
-	private final Map<String, MessageChannel> bindingChannelCache = new ConcurrentHashMap<>();
+	private static final Log logger = LogFactory.getLog(BindingChannelResolver.class);
+
+	private static final int GUARDS = 64;
+
+	private final Map<String, Destination> destinations = new ConcurrentHashMap<>();
+
+	private final Object[] guards = new Object[GUARDS];
+
+	private final PriorityQueue<Destination> recency = new PriorityQueue<>(
+			(destination, other) -> Long.compare(destination.queuedAt - other.queuedAt, 0));
+
+	private final Lock recencyLock = new ReentrantLock();
 
 	private final BindingService bindingService;
 
+	private final BindingServiceProperties bindingServiceProperties;
+
 	private final StreamBridge streamBridge;
 
 	private final boolean resolutionRequired;
 
-	BindingChannelResolver(BindingService bindingService, StreamBridge streamBridge, boolean resolutionRequired) {
+	private final int maxSize;
+
+	private final long idleTimeoutNanos;
+
+	private final Field streamBridgeChannelCache;
+
+	private final Field streamBridgeLock;
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	private final LongAdder evictions = new LongAdder();
+
+	private final LongAdder unbound = new LongAdder();
+
+	private volatile long lastSweep = System.nanoTime();
+
+	BindingChannelResolver(BindingService bindingService, BindingServiceProperties bindingServiceProperties,
+			StreamBridge streamBridge, boolean resolutionRequired, int maxSize, Duration idleTimeout,
+			boolean unbindEvicted) {
+
 		this.bindingService = bindingService;
+		this.bindingServiceProperties = bindingServiceProperties;
 		this.streamBridge = streamBridge;
 		this.resolutionRequired = resolutionRequired;
+		this.maxSize = maxSize;
+		this.idleTimeoutNanos = (idleTimeout != null) ? idleTimeout.toNanos() : 0;
+		for (int i = 0; i < GUARDS; i++) {
+			this.guards[i] = new Object();
+		}
+		if (unbindEvicted) {
+			this.streamBridgeChannelCache = streamBridgeField(StreamBridge.class, "channelCache", Map.class, false);
+			this.streamBridgeLock = streamBridgeField(StreamBridge.class, "lock", Lock.class, true);
+		}
+		else {
+			this.streamBridgeChannelCache = null;
+			this.streamBridgeLock = null;
+		}
+	}
+
+	/**
+	 * Find a private field of the {@link StreamBridge}, failing when a version of Spring Cloud Stream does not have it
+	 * any more, or not as expected, rather than when an evicted destination is first unbound.
+	 */
+	static Field streamBridgeField(Class<?> type, String name, Class<?> fieldType, boolean isStatic) {
+		Field field = ReflectionUtils.findField(type, name);
+		Assert.state(field != null && fieldType.isAssignableFrom(field.getType())
+				&& Modifier.isStatic(field.getModifiers()) == isStatic,
+				() -> "Evicted destinations cannot be unbound with this version of the " + type.getSimpleName()
+						+ ", which has no " + (isStatic ? "static " : "") + fieldType.getSimpleName() + " '" + name
+						+ "' field; set 'router.unbind-evicted-destinations' to false");
+		ReflectionUtils.makeAccessible(field);
+		return field;
 	}
 
 	@Override
 	public MessageChannel resolveDestination(String name) throws DestinationResolutionException {
-		return this.bindingChannelCache.computeIfAbsent(name, this::createMessageChannelProxyForBinding);
+		long now = System.nanoTime();
+		Destination destination = this.destinations.get(name);
+		if (destination != null) {
+			this.hits.increment();
+			destination.lastUsed = now;
+			if (this.idleTimeoutNanos > 0 && now - this.lastSweep >= this.idleTimeoutNanos / 2
+					&& this.recencyLock.tryLock()) {
+				// another thread already sweeping, or adding a destination, evicts the idle ones anyway
+				unbind(sweep(now, null));
+			}
+			return destination.channel;
+		}
+		this.misses.increment();
+		Destination created = null;
+		synchronized (guard(name)) {
+			destination = this.destinations.get(name);
+			if (destination == null) {
+				created = createDestination(name, now);
+				this.destinations.put(name, created);
+				destination = created;
+			}
+		}
+		if (created != null) {
+			this.recencyLock.lock();
+			unbind(sweep(now, created));
+		}
+		return destination.channel;
+	}
+
+	int size() {
+		return this.destinations.size();
+	}
+
+	long getHits() {
+		return this.hits.sum();
+	}
+
+	long getMisses() {
+		return this.misses.sum();
+	}
+
+	long getEvictions() {
+		return this.evictions.sum();
 	}
 
-	private MessageChannel createMessageChannelProxyForBinding(String bindingName) {
-		if (this.resolutionRequired && this.bindingService.getProducerBinding(bindingName) == null) {
+	long getUnbound() {
+		return this.unbound.sum();
+	}
+
+	private Object guard(String name) {
+		return this.guards[(name.hashCode() & Integer.MAX_VALUE) % GUARDS];
+	}
+
+	private Destination createDestination(String bindingName, long now) {
+		boolean bound = this.bindingService.getProducerBinding(bindingName) != null;
+		if (this.resolutionRequired && !bound) {
 			throw new DestinationResolutionException("Binding for name [" + bindingName + "] is not provided.");
 		}
 
-		return (message, timeout) -> this.streamBridge.send(bindingName, message);
+		return new Destination(bindingName, (message, timeout) -> this.streamBridge.send(bindingName, message), !bound,
+				now);
+	}
+
+	/**
+	 * Queue the given destination, if any, then evict the idle destinations and the least recently used ones beyond
+	 * the maximum size, and release the lock on the queue, which the caller holds. A destination added by another
+	 * thread and not queued yet is not evicted, but that thread evicts as many destinations once it queued it.
+	 */
+	private List<Destination> sweep(long now, Destination created) {
+		List<Destination> evicted = new ArrayList<>();
+		try {
+			if (created != null) {
+				created.queuedAt = created.lastUsed;
+				this.recency.offer(created);
+			}
+			if (this.idleTimeoutNanos > 0) {
+				this.lastSweep = now;
+				Destination eldest = leastRecentlyUsed();
+				while (eldest != null && now - eldest.queuedAt >= this.idleTimeoutNanos) {
+					evictEldest(evicted);
+					eldest = leastRecentlyUsed();
+				}
+			}
+			while (this.destinations.size() > this.maxSize && leastRecentlyUsed() != null) {
+				evictEldest(evicted);
+			}
+		}
+		finally {
+			this.recencyLock.unlock();
+		}
+		return evicted;
+	}
+
+	/**
+	 * Return the head of the queue once it is the least recently used destination, queuing again those used since
+	 * they were queued.
+	 */
+	private Destination leastRecentlyUsed() {
+		Destination eldest = this.recency.peek();
+		while (eldest != null && eldest.lastUsed != eldest.queuedAt) {
+			this.recency.poll();
+			eldest.queuedAt = eldest.lastUsed;
+			this.recency.offer(eldest);
+			eldest = this.recency.peek();
+		}
+		return eldest;
+	}
+
+	private void evictEldest(List<Destination> evicted) {
+		Destination destination = this.recency.poll();
+		this.destinations.remove(destination.name, destination);
+		this.evictions.increment();
+		evicted.add(destination);
+	}
+
+	/**
+	 * Unbind the evicted destinations, which closes their producers and is therefore not done while holding up the
+	 * eviction of other destinations.
+	 */
+	private void unbind(List<Destination> evicted) {
+		evicted.forEach(this::unbind);
+	}
+
+	private void unbind(Destination destination) {
+		// the bindings declared upfront stay
+		if (!destination.dynamic || this.streamBridgeChannelCache == null) {
+			return;
+		}
+		String name = destination.name;
+		synchronized (guard(name)) {
+			// the destination may have been resolved again since it was evicted, or unbound by the StreamBridge
+			if (this.destinations.containsKey(name) || this.bindingService.getProducerBinding(name) == null) {
+				return;
+			}
+			// a message sent meanwhile through the cached channel of the StreamBridge may fail, but forgetting the
+			// channel first would let such a message bind the destination again, only for it to be unbound here
+			this.bindingService.unbindProducers(name);
+			removeStreamBridgeChannel(name);
+		}
+		this.unbound.increment();
+		if (logger.isDebugEnabled()) {
+			logger.debug("Unbound the evicted destination [" + name + "]");
+		}
+	}
+
+	/**
+	 * Remove the channel of the given destination from the cache of the {@link StreamBridge}, guarded by its lock, so
+	 * that it binds the destination again when next sent to.
+	 */
+	@SuppressWarnings("unchecked")
+	private void removeStreamBridgeChannel(String name) {
+		Map<String, MessageChannel> channelCache = (Map<String, MessageChannel>) ReflectionUtils
+				.getField(this.streamBridgeChannelCache, this.streamBridge);
+		Lock lock = (Lock) ReflectionUtils.getField(this.streamBridgeLock, null);
+		lock.lock();
+		try {
+			channelCache.remove(CacheKeyCreatorUtils.createChannelCacheKey(null, name, this.bindingServiceProperties));
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	private static final class Destination {
+
+		private final String name;
+
+		private final MessageChannel channel;
+
+		private final boolean dynamic;
+
+		private volatile long lastUsed;
+
+		/**
+		 * The time the destination was last used when queued, guarded by the lock on the queue.
+		 */
+		private long queuedAt;
+
+		private Destination(String name, MessageChannel channel, boolean dynamic, long lastUsed) {
+			this.name = name;
+			this.channel = channel;
+			this.dynamic = dynamic;
+			this.lastUsed = lastUsed;
+		}
+
 	}
 
 }
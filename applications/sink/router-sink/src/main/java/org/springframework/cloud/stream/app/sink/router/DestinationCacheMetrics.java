@@ -0,0 +1,75 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.sink.router;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+/**
+ * Publishes the size, hits, misses and evictions of the destination cache of a {@link BindingChannelResolver} as the
+ * standard Micrometer cache meters, tagged with {@code cache=router.destinations}, along with the number of evicted
+ * destinations that were unbound.
+ */
+class DestinationCacheMetrics extends CacheMeterBinder<BindingChannelResolver> {
+
+	static final String CACHE_NAME = "router.destinations";
+
+	DestinationCacheMetrics(BindingChannelResolver channelResolver) {
+		super(channelResolver, CACHE_NAME, Tags.empty());
+	}
+
+	@Override
+	protected Long size() {
+		BindingChannelResolver channelResolver = getCache();
+		return (channelResolver != null) ? (long) channelResolver.size() : null;
+	}
+
+	@Override
+	protected long hitCount() {
+		BindingChannelResolver channelResolver = getCache();
+		return (channelResolver != null) ? channelResolver.getHits() : 0;
+	}
+
+	@Override
+	protected Long missCount() {
+		BindingChannelResolver channelResolver = getCache();
+		return (channelResolver != null) ? channelResolver.getMisses() : null;
+	}
+
+	@Override
+	protected Long evictionCount() {
+		BindingChannelResolver channelResolver = getCache();
+		return (channelResolver != null) ? channelResolver.getEvictions() : null;
+	}
+
+	@Override
+	protected long putCount() {
+		// every miss puts the resolved destination
+		BindingChannelResolver channelResolver = getCache();
+		return (channelResolver != null) ? channelResolver.getMisses() : 0;
+	}
+
+	@Override
+	protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+		FunctionCounter.builder("router.destinations.unbound", getCache(), BindingChannelResolver::getUnbound)
+				.description("Dynamically bound destinations unbound when evicted from the cache")
+				.register(registry);
+	}
+
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.sink.router;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.cloud.stream.binder.BinderHeaders;
+import org.springframework.integration.core.MessagingTemplate;
+import org.springframework.integration.handler.MessageProcessor;
+import org.springframework.integration.router.MethodInvokingRouter;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+
+/**
+ * A router that determines the routing keys of messages with a {@link MessageProcessor}, and also routes the batches
+ * of messages delivered by a binder in batch mode.
+ * <p>
+ * The destinations of all the messages of a batch are resolved first, each one once, and the messages are grouped by
+ * destination. Every group is then sent in turn, in the order of the batch, so that the producer of the destination
+ * receives its messages back-to-back and can send them in as few batches of its own as it is configured for, instead
+ * of switching between destinations for every message.
+ * <p>
+ * A batch is not sent atomically: should sending a message fail, the messages of the groups sent before it have
+ * already been sent, and are sent again when the binder redelivers the batch. The failure reports how many messages
+ * of the batch were sent.
+ */
+class DestinationGroupingRouter extends MethodInvokingRouter {
+
+	DestinationGroupingRouter(MessageProcessor<?> messageProcessor) {
+		super(messageProcessor);
+	}
+
+	/**
+	 * Route the messages of a batch, whose payload is the list of the payloads of its messages, their headers being
+	 * in the standard batch headers if the binder provides them, or else the headers of the batch itself. A list of
+	 * messages is routed as is.
+	 */
+	void handleBatch(Message<?> batch) {
+		Map<MessageChannel, List<Message<?>>> groups = new LinkedHashMap<>();
+		for (Message<?> message : messages(batch)) {
+			Collection<MessageChannel> channels = determineTargetChannels(message);
+			boolean routed = false;
+			if (channels != null) {
+				for (MessageChannel channel : channels) {
+					if (channel != null) {
+						groups.computeIfAbsent(channel, key -> new ArrayList<>()).add(message);
+						routed = true;
+					}
+				}
+			}
+			if (!routed) {
+				MessageChannel defaultOutputChannel = getDefaultOutputChannel();
+				if (defaultOutputChannel == null) {
+					throw new MessageDeliveryException(message,
+							"No channel resolved by router '" + this + "' and no 'defaultOutputChannel' defined.");
+				}
+				groups.computeIfAbsent(defaultOutputChannel, key -> new ArrayList<>()).add(message);
+			}
+		}
+		MessagingTemplate messagingTemplate = getMessagingTemplate();
+		int total = 0;
+		for (List<Message<?>> messages : groups.values()) {
+			total += messages.size();
+		}
+		int sent = 0;
+		for (Map.Entry<MessageChannel, List<Message<?>>> group : groups.entrySet()) {
+			for (Message<?> message : group.getValue()) {
+				try {
+					messagingTemplate.send(group.getKey(), message);
+				}
+				catch (RuntimeException ex) {
+					throw new MessageDeliveryException(message, "Failed to route a batch after sending " + sent
+							+ " of its " + total + " messages, which are sent again if the batch is redelivered", ex);
+				}
+				sent++;
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<Message<?>> messages(Message<?> batch) {
+		if (!(batch.getPayload() instanceof List<?>)) {
+			return List.of(batch);
+		}
+		List<?> payloads = (List<?>) batch.getPayload();
+		Object batchHeaders = batch.getHeaders().get(BinderHeaders.BATCH_HEADERS);
+		List<Map<String, Object>> headers = (batchHeaders instanceof List<?>
+				&& ((List<?>) batchHeaders).size() == payloads.size())
+						? (List<Map<String, Object>>) batchHeaders : null;
+		Object contentType = batch.getHeaders().get(MessageHeaders.CONTENT_TYPE);
+		Map<String, Object> sharedHeaders = (headers != null) ? null
+				: sharedHeaders(batch.getHeaders(), payloads.size());
+		List<Message<?>> messages = new ArrayList<>(payloads.size());
+		for (int i = 0; i < payloads.size(); i++) {
+			Object payload = payloads.get(i);
+			if (payload instanceof Message<?>) {
+				messages.add((Message<?>) payload);
+				continue;
+			}
+			MessageBuilder<Object> message = MessageBuilder.withPayload(payload);
+			if (headers != null) {
+				message.copyHeaders(headers.get(i));
+				if (contentType != null) {
+					message.setHeaderIfAbsent(MessageHeaders.CONTENT_TYPE, contentType);
+				}
+			}
+			else {
+				message.copyHeaders(sharedHeaders);
+			}
+			messages.add(message.build());
+		}
+		return messages;
+	}
+
+	/**
+	 * The headers of a batch that apply to each of its messages, leaving out the standard batch headers and the
+	 * headers holding a value for every message of the batch, such as the offsets of a Kafka batch.
+	 */
+	private static Map<String, Object> sharedHeaders(MessageHeaders batchHeaders, int batchSize) {
+		Map<String, Object> headers = new HashMap<>(batchHeaders.size());
+		batchHeaders.forEach((name, value) -> {
+			if (!BinderHeaders.BATCH_HEADERS.equals(name)
+					&& !(value instanceof List<?> && ((List<?>) value).size() == batchSize)) {
+				headers.put(name, value);
+			}
+		});
+		return headers;
+	}
+
+}
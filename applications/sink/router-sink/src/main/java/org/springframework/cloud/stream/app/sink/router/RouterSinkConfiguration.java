@@ -1,5 +1,5 @@
 /*
- * Copyright 2016-2024 the original author or authors.
+ * Copyright 2016-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,9 +23,14 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.function.Consumer;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.stream.binding.BindingService;
+import org.springframework.cloud.stream.config.BindingServiceProperties;
 import org.springframework.cloud.stream.function.StreamBridge;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -34,12 +39,11 @@ import org.springframework.core.io.support.PropertiesLoaderUtils;
 import org.springframework.integration.handler.MessageProcessor;
 import org.springframework.integration.router.AbstractMappingMessageRouter;
 import org.springframework.integration.router.AbstractMessageRouter;
-import org.springframework.integration.router.ExpressionEvaluatingRouter;
-import org.springframework.integration.router.MethodInvokingRouter;
 import org.springframework.integration.scripting.dsl.ScriptSpec;
 import org.springframework.integration.scripting.dsl.Scripts;
 import org.springframework.lang.Nullable;
 import org.springframework.messaging.Message;
+import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
@@ -63,19 +67,25 @@ public class RouterSinkConfiguration {
 
 	@Bean
 	public Consumer<Message<?>> routerSinkConsumer(AbstractMessageRouter router) {
+		if (this.properties.isBatchMode()) {
+			Assert.isInstanceOf(DestinationGroupingRouter.class, router,
+					"Batches can only be routed by the router of the sink");
+			return ((DestinationGroupingRouter) router)::handleBatch;
+		}
 		return router::handleMessage;
 	}
 
 	@Bean
-	public AbstractMessageRouter router(BindingService bindingService, StreamBridge streamBridge,
-			@Nullable MessageProcessor<?> scriptProcessor) {
+	public AbstractMessageRouter router(BindingService bindingService,
+			BindingServiceProperties bindingServiceProperties, StreamBridge streamBridge,
+			@Nullable MessageProcessor<?> scriptProcessor, ObjectProvider<MeterRegistry> meterRegistry) {
 
 		AbstractMappingMessageRouter router;
 		if (scriptProcessor != null) {
-			router = new MethodInvokingRouter(scriptProcessor);
+			router = new DestinationGroupingRouter(scriptProcessor);
 		}
 		else {
-			router = new ExpressionEvaluatingRouter(this.properties.getExpression());
+			router = new DestinationGroupingRouter(new RoutingExpressionProcessor(this.properties.getExpression()));
 		}
 		String defaultOutputBinding = this.properties.getDefaultOutputBinding();
 		if (StringUtils.hasText(defaultOutputBinding)) {
@@ -87,8 +97,11 @@ public class RouterSinkConfiguration {
 			router.replaceChannelMappings(destinationMappings);
 		}
 
-		router.setChannelResolver(
-				new BindingChannelResolver(bindingService, streamBridge, this.properties.isResolutionRequired()));
+		BindingChannelResolver channelResolver = new BindingChannelResolver(bindingService, bindingServiceProperties,
+				streamBridge, this.properties.isResolutionRequired(), this.properties.getDestinationCacheSize(),
+				this.properties.getDestinationIdleTimeout(), this.properties.isUnbindEvictedDestinations());
+		new DestinationCacheMetrics(channelResolver).bindTo(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+		router.setChannelResolver(channelResolver);
 		return router;
 	}
 
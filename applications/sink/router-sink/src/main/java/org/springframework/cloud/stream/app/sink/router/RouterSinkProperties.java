@@ -1,5 +1,5 @@
 /*
- * Copyright 2016-2023 the original author or authors.
+ * Copyright 2016-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,16 +16,19 @@
 
 package org.springframework.cloud.stream.app.sink.router;
 
+import java.time.Duration;
 import java.util.Properties;
 import java.util.function.Function;
 
 import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Min;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.core.io.Resource;
 import org.springframework.expression.Expression;
 import org.springframework.integration.expression.FunctionExpression;
 import org.springframework.messaging.Message;
+import org.springframework.validation.annotation.Validated;
 
 /**
  * Properties for the Router Sink; the router can use an expression
@@ -36,6 +39,7 @@ import org.springframework.messaging.Message;
  * @author Artem Bilan
  */
 @ConfigurationProperties("router")
+@Validated
 public class RouterSinkProperties {
 
 	/**
@@ -87,6 +91,30 @@ public class RouterSinkProperties {
 	 */
 	private Properties destinationMappings;
 
+	/**
+	 * Maximum number of resolved destinations cached, the least recently used one being evicted beyond it.
+	 */
+	@Min(1)
+	private int destinationCacheSize = 1000;
+
+	/**
+	 * How long a resolved destination stays cached without being routed to before it is evicted; never evicted for
+	 * being idle if not set.
+	 */
+	private Duration destinationIdleTimeout;
+
+	/**
+	 * Whether to unbind the destinations bound dynamically once evicted from the destination cache, which relies on
+	 * internals of the StreamBridge and fails at startup when they are not available.
+	 */
+	private boolean unbindEvictedDestinations = false;
+
+	/**
+	 * Whether to route the batches of messages delivered by the binder, which requires 'batch-mode' on the consumer
+	 * binding, grouping the messages of every batch by destination.
+	 */
+	private boolean batchMode = false;
+
 	public Properties getVariables() {
 		return variables;
 	}
@@ -151,6 +179,38 @@ public class RouterSinkProperties {
 		this.destinationMappings = destinationMappings;
 	}
 
+	public int getDestinationCacheSize() {
+		return this.destinationCacheSize;
+	}
+
+	public void setDestinationCacheSize(int destinationCacheSize) {
+		this.destinationCacheSize = destinationCacheSize;
+	}
+
+	public boolean isUnbindEvictedDestinations() {
+		return this.unbindEvictedDestinations;
+	}
+
+	public void setUnbindEvictedDestinations(boolean unbindEvictedDestinations) {
+		this.unbindEvictedDestinations = unbindEvictedDestinations;
+	}
+
+	public Duration getDestinationIdleTimeout() {
+		return this.destinationIdleTimeout;
+	}
+
+	public void setDestinationIdleTimeout(Duration destinationIdleTimeout) {
+		this.destinationIdleTimeout = destinationIdleTimeout;
+	}
+
+	public boolean isBatchMode() {
+		return this.batchMode;
+	}
+
+	public void setBatchMode(boolean batchMode) {
+		this.batchMode = batchMode;
+	}
+
 	@AssertTrue(message = "'expression' and 'script' are mutually exclusive")
 	public boolean isExpressionOrScriptValid() {
 		return this.script == null || this.expression == DEFAULT_EXPRESSION;
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.sink.router;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelEvaluationException;
+import org.springframework.expression.spel.SpelMessage;
+import org.springframework.expression.spel.SpelNode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.ast.CompoundExpression;
+import org.springframework.expression.spel.ast.Indexer;
+import org.springframework.expression.spel.ast.MethodReference;
+import org.springframework.expression.spel.ast.PropertyOrFieldReference;
+import org.springframework.expression.spel.ast.StringLiteral;
+import org.springframework.expression.spel.standard.SpelExpression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.integration.expression.ExpressionUtils;
+import org.springframework.integration.handler.MessageProcessor;
+import org.springframework.messaging.Message;
+
+/**
+ * Determines the routing keys of messages with the router expression, classified once when the router is created.
+ * <p>
+ * An expression that only looks up a header, such as the default one or {@code headers['route']},
+ * {@code headers.route} and {@code headers.get('route')}, is not evaluated at all: the header is read directly. Any
+ * other SpEL expression is parsed again with the compiler in {@link SpelCompilerMode#IMMEDIATE} mode, so it is
+ * compiled to bytecode as soon as it has been interpreted once. A compiled expression only handles the types it was
+ * compiled for; should a message carry another type, for instance a different payload, the router falls back to
+ * interpreting the expression.
+ */
+class RoutingExpressionProcessor implements MessageProcessor<Object>, BeanFactoryAware {
+
+	private static final Log logger = LogFactory.getLog(RoutingExpressionProcessor.class);
+
+	private static final String HEADERS = "headers";
+
+	private static final SpelExpressionParser COMPILING_PARSER = new SpelExpressionParser(
+			new SpelParserConfiguration(SpelCompilerMode.IMMEDIATE, RoutingExpressionProcessor.class.getClassLoader()));
+
+	private final Expression interpretedExpression;
+
+	private final String headerName;
+
+	private volatile Expression expression;
+
+	private EvaluationContext evaluationContext = ExpressionUtils.createStandardEvaluationContext();
+
+	RoutingExpressionProcessor(Expression expression) {
+		this.interpretedExpression = expression;
+		this.headerName = headerName(expression);
+		if (this.headerName != null) {
+			logger.info("Routing on the '" + this.headerName + "' header without evaluating an expression");
+		}
+		else if (expression instanceof SpelExpression) {
+			this.expression = COMPILING_PARSER.parseExpression(expression.getExpressionString());
+		}
+		else {
+			this.expression = expression;
+		}
+	}
+
+	@Override
+	public void setBeanFactory(BeanFactory beanFactory) {
+		this.evaluationContext = ExpressionUtils.createStandardEvaluationContext(beanFactory);
+	}
+
+	/**
+	 * The name of the header the routing key is read from, null when the expression is evaluated.
+	 */
+	String getHeaderName() {
+		return this.headerName;
+	}
+
+	@Override
+	public Object processMessage(Message<?> message) {
+		if (this.headerName != null) {
+			return message.getHeaders().get(this.headerName);
+		}
+		Expression expression = this.expression;
+		try {
+			return expression.getValue(this.evaluationContext, message);
+		}
+		catch (SpelEvaluationException ex) {
+			if (ex.getMessageCode() != SpelMessage.EXCEPTION_RUNNING_COMPILED_EXPRESSION
+					|| expression == this.interpretedExpression) {
+				throw ex;
+			}
+			logger.warn("The compiled router expression '" + expression.getExpressionString()
+					+ "' failed, interpreting it from now on", ex);
+			this.expression = this.interpretedExpression;
+			return this.interpretedExpression.getValue(this.evaluationContext, message);
+		}
+	}
+
+	/**
+	 * The name of the header looked up by the given expression, if that is all it does.
+	 */
+	static String headerName(Expression expression) {
+		if (expression == RouterSinkProperties.DEFAULT_EXPRESSION) {
+			return "routeTo";
+		}
+		if (!(expression instanceof SpelExpression)) {
+			return null;
+		}
+		SpelNode ast = ((SpelExpression) expression).getAST();
+		if (!(ast instanceof CompoundExpression) || ast.getChildCount() != 2 || !isHeaders(ast.getChild(0))) {
+			return null;
+		}
+		SpelNode key = ast.getChild(1);
+		if (key instanceof Indexer && key.getChildCount() == 1) {
+			// SpEL indexes a map with the name of a property reference, as in headers[route]
+			SpelNode index = key.getChild(0);
+			if (index instanceof PropertyOrFieldReference) {
+				return ((PropertyOrFieldReference) index).getName();
+			}
+			return stringLiteral(index);
+		}
+		if (key instanceof PropertyOrFieldReference) {
+			return ((PropertyOrFieldReference) key).getName();
+		}
+		if (key instanceof MethodReference && "get".equals(((MethodReference) key).getName())
+				&& key.getChildCount() == 1) {
+			return stringLiteral(key.getChild(0));
+		}
+		return null;
+	}
+
+	private static boolean isHeaders(SpelNode node) {
+		return node instanceof PropertyOrFieldReference && HEADERS.equals(((PropertyOrFieldReference) node).getName());
+	}
+
+	private static String stringLiteral(SpelNode node) {
+		return (node instanceof StringLiteral) ? (String) ((StringLiteral) node).getLiteralValue().getValue() : null;
+	}
+
+}
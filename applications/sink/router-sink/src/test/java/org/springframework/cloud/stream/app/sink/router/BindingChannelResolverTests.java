@@ -0,0 +1,125 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.sink.router;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.Lock;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import org.springframework.cloud.stream.binding.BindingService;
+import org.springframework.cloud.stream.config.BindingServiceProperties;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.messaging.MessageChannel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+public class BindingChannelResolverTests {
+
+	private final BindingService bindingService = Mockito.mock(BindingService.class);
+
+	@Test
+	public void testConcurrentResolutionStaysBounded() throws Exception {
+		BindingChannelResolver resolver = resolver(10, null);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int thread = 0; thread < 8; thread++) {
+				int offset = thread;
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < 1000; i++) {
+						assertThat(resolver.resolveDestination("tenant-" + ((i + offset) % 50))).isNotNull();
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		assertThat(resolver.size()).isLessThanOrEqualTo(10);
+		assertThat(resolver.getHits() + resolver.getMisses()).isEqualTo(8000);
+		assertThat(resolver.getEvictions()).isPositive();
+		// unbinding evicted destinations is not enabled
+		assertThat(resolver.getUnbound()).isZero();
+		Mockito.verify(this.bindingService, Mockito.never()).unbindProducers(Mockito.anyString());
+	}
+
+	@Test
+	public void testIdleDestinationsAreEvicted() throws InterruptedException {
+		BindingChannelResolver resolver = resolver(10, Duration.ofMillis(1));
+		resolver.resolveDestination("tenant-1");
+		Thread.sleep(5);
+		resolver.resolveDestination("tenant-2");
+		assertThat(resolver.size()).isEqualTo(1);
+		assertThat(resolver.getEvictions()).isEqualTo(1);
+	}
+
+	@Test
+	public void testLeastRecentlyUsedDestinationsAreEvicted() {
+		BindingChannelResolver resolver = resolver(3, null);
+		MessageChannel first = resolver.resolveDestination("tenant-1");
+		resolver.resolveDestination("tenant-2");
+		resolver.resolveDestination("tenant-3");
+		resolver.resolveDestination("tenant-1");
+		resolver.resolveDestination("tenant-4");
+		resolver.resolveDestination("tenant-3");
+		resolver.resolveDestination("tenant-5");
+
+		assertThat(resolver.size()).isEqualTo(3);
+		assertThat(resolver.getEvictions()).isEqualTo(2);
+		// tenant-2 and then tenant-1 were evicted, the others are still cached
+		assertThat(resolver.resolveDestination("tenant-1")).isNotSameAs(first);
+		assertThat(resolver.getMisses()).isEqualTo(6);
+		resolver.resolveDestination("tenant-5");
+		assertThat(resolver.getHits()).isEqualTo(3);
+	}
+
+	@Test
+	public void testUnbindingRequiresTheStreamBridgeInternals() {
+		// fails once an upgrade of Spring Cloud Stream removes the internals the unbinding relies on
+		assertThat(new BindingChannelResolver(this.bindingService, new BindingServiceProperties(),
+				Mockito.mock(StreamBridge.class), false, 10, null, true).size()).isZero();
+		assertThat(BindingChannelResolver.streamBridgeField(StreamBridge.class, "channelCache", Map.class, false))
+				.isNotNull();
+		assertThatIllegalStateException()
+				.isThrownBy(() -> BindingChannelResolver.streamBridgeField(StreamBridge.class, "lock", Lock.class,
+						false))
+				.withMessage("Evicted destinations cannot be unbound with this version of the StreamBridge, which "
+						+ "has no Lock 'lock' field; set 'router.unbind-evicted-destinations' to false");
+		assertThatIllegalStateException()
+				.isThrownBy(() -> BindingChannelResolver.streamBridgeField(StreamBridge.class, "channels", Map.class,
+						false))
+				.withMessageContaining("has no Map 'channels' field");
+	}
+
+	private BindingChannelResolver resolver(int maxSize, Duration idleTimeout) {
+		return new BindingChannelResolver(this.bindingService, new BindingServiceProperties(),
+				Mockito.mock(StreamBridge.class), false, maxSize, idleTimeout, false);
+	}
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.sink.router;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.integration.router.AbstractMappingMessageRouter;
+import org.springframework.integration.router.ExpressionEvaluatingRouter;
+import org.springframework.integration.router.MethodInvokingRouter;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.support.MessageBuilder;
+
+/**
+ * Compares the cost per message of routing with the interpreted router expression, as the sink used to, with routing
+ * through the {@link RoutingExpressionProcessor}, for an expression that only looks up a header and for one that
+ * combines headers, and is compiled.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RouterBenchmark {
+
+	@Param({ "headers['routeTo']", "headers['region'] + '-' + headers['tier']" })
+	public String expression;
+
+	private AbstractMappingMessageRouter interpretedRouter;
+
+	private AbstractMappingMessageRouter compiledRouter;
+
+	private Message<byte[]> message;
+
+	private Blackhole blackhole;
+
+	@Setup
+	public void setUp(Blackhole blackhole) {
+		this.blackhole = blackhole;
+		Expression expression = new SpelExpressionParser().parseExpression(this.expression);
+		this.interpretedRouter = router(new ExpressionEvaluatingRouter(expression));
+		this.compiledRouter = router(new MethodInvokingRouter(new RoutingExpressionProcessor(expression)));
+		this.message = MessageBuilder.withPayload(new byte[100])
+				.setHeader("routeTo", "eu-gold")
+				.setHeader("region", "eu")
+				.setHeader("tier", "gold")
+				.build();
+	}
+
+	@Benchmark
+	public void interpreted() {
+		this.interpretedRouter.handleMessage(this.message);
+	}
+
+	@Benchmark
+	public void compiled() {
+		this.compiledRouter.handleMessage(this.message);
+	}
+
+	private AbstractMappingMessageRouter router(AbstractMappingMessageRouter router) {
+		MessageChannel channel = (message, timeout) -> {
+			this.blackhole.consume(message);
+			return true;
+		};
+		router.setChannelResolver(name -> channel);
+		router.setBeanFactory(new DefaultListableBeanFactory());
+		router.afterPropertiesSet();
+		return router;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(RouterBenchmark.class.getSimpleName()).build()).run();
+	}
+
+}
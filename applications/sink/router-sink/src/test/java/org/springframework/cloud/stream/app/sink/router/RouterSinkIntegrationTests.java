@@ -1,5 +1,5 @@
 /*
- * Copyright 2016-2023 the original author or authors.
+ * Copyright 2016-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,16 +16,24 @@
 
 package org.springframework.cloud.stream.app.sink.router;
 
+import java.util.List;
+import java.util.Map;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 
 import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cloud.stream.binder.BinderHeaders;
 import org.springframework.cloud.stream.binder.test.InputDestination;
 import org.springframework.cloud.stream.binder.test.OutputDestination;
 import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
 import org.springframework.cloud.stream.binding.BindingService;
 import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.support.MessageBuilder;
 
@@ -190,9 +198,98 @@ public class RouterSinkIntegrationTests {
 		}
 	}
 
+	@Test
+	public void testDestinationCacheEvictsAndUnbindsDynamicDestinations() {
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+				TestChannelBinderConfiguration.getCompleteConfiguration(RouterSinkTestApplication.class))
+				.web(WebApplicationType.NONE)
+				.run("--spring.cloud.function.definition=routerSinkConsumer",
+						"--spring.cloud.stream.output-bindings=declared",
+						"--router.destinationCacheSize=2", "--router.unbindEvictedDestinations=true")) {
+
+			InputDestination processorInput = context.getBean(InputDestination.class);
+			OutputDestination processorOutput = context.getBean(OutputDestination.class);
+			BindingService bindingService = context.getBean(BindingService.class);
+
+			for (String tenant : new String[] { "declared", "tenant-1", "tenant-2", "tenant-1", "tenant-3" }) {
+				processorInput.send(MessageBuilder.withPayload(tenant).setHeader("routeTo", tenant).build());
+				Message<byte[]> sourceMessage = processorOutput.receive(10000, tenant);
+				assertThat(new String(sourceMessage.getPayload())).isEqualTo(tenant);
+			}
+			// the declared binding was evicted but stays bound, tenant-2 is the least recently used dynamic one
+			assertThat(bindingService.getProducerBindingNames())
+					.containsExactlyInAnyOrder("declared", "tenant-1", "tenant-3");
+
+			// an unbound destination is bound again when routed to
+			processorInput.send(MessageBuilder.withPayload("again").setHeader("routeTo", "tenant-2").build());
+			Message<byte[]> sourceMessage = processorOutput.receive(10000, "tenant-2");
+			assertThat(new String(sourceMessage.getPayload())).isEqualTo("again");
+			assertThat(bindingService.getProducerBindingNames()).contains("tenant-2").doesNotContain("tenant-1");
+
+			MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+			Tags cache = Tags.of("cache", DestinationCacheMetrics.CACHE_NAME);
+			assertThat(meterRegistry.get("cache.size").tags(cache).gauge().value()).isEqualTo(2);
+			assertThat(meterRegistry.get("cache.gets").tags(cache).tag("result", "hit").functionCounter().count())
+					.isEqualTo(1);
+			assertThat(meterRegistry.get("cache.gets").tags(cache).tag("result", "miss").functionCounter().count())
+					.isEqualTo(5);
+			assertThat(meterRegistry.get("cache.evictions").tags(cache).functionCounter().count()).isEqualTo(3);
+			assertThat(meterRegistry.get("router.destinations.unbound").functionCounter().count()).isEqualTo(2);
+		}
+	}
+
+	@Test
+	public void testBatchModeGroupsMessagesByDestination() {
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+				TestChannelBinderConfiguration.getCompleteConfiguration(RouterSinkTestApplication.class))
+				.web(WebApplicationType.NONE)
+				.run("--spring.cloud.function.definition=routerSinkConsumer",
+						"--router.batchMode=true",
+						"--router.defaultOutputBinding=discards",
+						"--router.destinationMappings=foo=baz \n bar=qux",
+						"--spring.cloud.stream.output-bindings=baz;qux;discards",
+						"--router.resolutionRequired=true",
+						"--spring.cloud.stream.bindings.routerSinkConsumer-in-0.consumer.batch-mode=true")) {
+
+			InputDestination processorInput = context.getBean(InputDestination.class);
+			OutputDestination processorOutput = context.getBean(OutputDestination.class);
+
+			List<Map<String, Object>> batchHeaders = List.of(Map.of("routeTo", "foo"), Map.of("routeTo", "bar"),
+					Map.of("routeTo", "foo"), Map.of("routeTo", "none"));
+			processorInput.send(MessageBuilder.withPayload(List.of("a".getBytes(), "b".getBytes(), "c".getBytes(),
+					"d".getBytes())).setHeader(BinderHeaders.BATCH_HEADERS, batchHeaders).build());
+
+			assertThat(new String(processorOutput.receive(10000, "baz").getPayload())).isEqualTo("a");
+			assertThat(new String(processorOutput.receive(10000, "baz").getPayload())).isEqualTo("c");
+			Message<byte[]> sourceMessage = processorOutput.receive(10000, "qux");
+			assertThat(new String(sourceMessage.getPayload())).isEqualTo("b");
+			assertThat(sourceMessage.getHeaders().get("routeTo")).isEqualTo("bar");
+			assertThat(new String(processorOutput.receive(10000, "discards").getPayload())).isEqualTo("d");
+
+			// without batch headers every message of the batch is routed with the headers of the batch, except those
+			// holding a value per message
+			processorInput.send(MessageBuilder.withPayload(List.of("e".getBytes(), "f".getBytes()))
+					.setHeader("routeTo", "bar")
+					.setHeader("offsets", List.of(1L, 2L))
+					.setHeader(BinderHeaders.BATCH_HEADERS, List.of(Map.of("routeTo", "foo")))
+					.build());
+			for (String payload : new String[] { "e", "f" }) {
+				sourceMessage = processorOutput.receive(10000, "qux");
+				assertThat(new String(sourceMessage.getPayload())).isEqualTo(payload);
+				assertThat(sourceMessage.getHeaders()).containsEntry("routeTo", "bar")
+						.doesNotContainKeys("offsets", BinderHeaders.BATCH_HEADERS);
+			}
+		}
+	}
+
 	@SpringBootApplication
 	public static class RouterSinkTestApplication {
 
+		@Bean
+		public MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+
 	}
 
 }
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.sink.router;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RouterSinkPropertiesTests {
+
+	private AnnotationConfigApplicationContext context;
+
+	@BeforeEach
+	public void setUp() {
+		this.context = new AnnotationConfigApplicationContext();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		this.context.close();
+	}
+
+	@Test
+	public void destinationCacheCanBeCustomized() {
+		TestPropertyValues.of("router.destination-cache-size: 10",
+				"router.destination-idle-timeout: 5m",
+				"router.unbind-evicted-destinations: true")
+				.applyTo(this.context);
+		this.context.register(Conf.class);
+		this.context.refresh();
+		RouterSinkProperties properties = this.context.getBean(RouterSinkProperties.class);
+		assertThat(properties.getDestinationCacheSize()).isEqualTo(10);
+		assertThat(properties.getDestinationIdleTimeout()).isEqualTo(Duration.ofMinutes(5));
+		assertThat(properties.isUnbindEvictedDestinations()).isTrue();
+	}
+
+	@Test
+	public void destinationCacheSizeMustBePositive() {
+		TestPropertyValues.of("router.destination-cache-size: 0")
+				.applyTo(this.context);
+		this.context.register(Conf.class);
+		assertThatThrownBy(() -> this.context.refresh())
+				.isInstanceOf(BeanCreationException.class)
+				.rootCause()
+				.hasMessageContaining("destinationCacheSize");
+	}
+
+	@Configuration
+	@EnableConfigurationProperties(RouterSinkProperties.class)
+	static class Conf {
+
+	}
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.sink.router;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RoutingExpressionProcessorTests {
+
+	private final SpelExpressionParser parser = new SpelExpressionParser();
+
+	@Test
+	public void testHeaderLookupsAreReadDirectly() {
+		assertThat(RoutingExpressionProcessor.headerName(RouterSinkProperties.DEFAULT_EXPRESSION)).isEqualTo("routeTo");
+		assertThat(headerName("headers['route']")).isEqualTo("route");
+		assertThat(headerName("headers[\"route\"]")).isEqualTo("route");
+		assertThat(headerName("headers[route]")).isEqualTo("route");
+		assertThat(headerName("headers.route")).isEqualTo("route");
+		assertThat(headerName("headers.get('route')")).isEqualTo("route");
+		assertThat(headerName("headers['route'] + 'x'")).isNull();
+		assertThat(headerName("headers['route'].toUpperCase()")).isNull();
+		assertThat(headerName("headers[#route]")).isNull();
+		assertThat(headerName("payload")).isNull();
+
+		RoutingExpressionProcessor processor = new RoutingExpressionProcessor(expression("headers['route']"));
+		assertThat(processor.processMessage(MessageBuilder.withPayload("foo").setHeader("route", "bar").build()))
+				.isEqualTo("bar");
+		assertThat(processor.processMessage(MessageBuilder.withPayload("foo").build())).isNull();
+	}
+
+	@Test
+	public void testCompiledExpression() {
+		RoutingExpressionProcessor processor = new RoutingExpressionProcessor(
+				expression("headers['region'] + '-' + headers['tier']"));
+		assertThat(processor.getHeaderName()).isNull();
+		for (int i = 0; i < 3; i++) {
+			Message<?> message = MessageBuilder.withPayload("foo").setHeader("region", "eu" + i)
+					.setHeader("tier", "gold").build();
+			assertThat(processor.processMessage(message)).isEqualTo("eu" + i + "-gold");
+		}
+	}
+
+	@Test
+	public void testFallsBackToInterpreterForOtherTypes() {
+		RoutingExpressionProcessor processor = new RoutingExpressionProcessor(expression("payload.toString()"));
+		// compiled after the second evaluation, for String payloads
+		assertThat(processor.processMessage(MessageBuilder.withPayload("foo").build())).isEqualTo("foo");
+		assertThat(processor.processMessage(MessageBuilder.withPayload("bar").build())).isEqualTo("bar");
+		assertThat(processor.processMessage(MessageBuilder.withPayload(42).build())).isEqualTo("42");
+		assertThat(processor.processMessage(MessageBuilder.withPayload("baz").build())).isEqualTo("baz");
+	}
+
+	private String headerName(String expression) {
+		return RoutingExpressionProcessor.headerName(expression(expression));
+	}
+
+	private Expression expression(String expression) {
+		return this.parser.parseExpression(expression);
+	}
+
+}
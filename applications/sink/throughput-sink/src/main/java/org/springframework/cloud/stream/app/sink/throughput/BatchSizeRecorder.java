@@ -0,0 +1,78 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.sink.throughput;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Records the number of messages of every batch delivered by the binder into an HdrHistogram, logged at every report
+ * for the last interval and since the first batch, and into the {@code throughput.batch.size} distribution summary.
+ */
+class BatchSizeRecorder {
+
+	private static final Log logger = LogFactory.getLog(BatchSizeRecorder.class);
+
+	private final Recorder recorder = new Recorder(2);
+
+	private final Histogram cumulative = new Histogram(2);
+
+	private final LongAdder batches = new LongAdder();
+
+	private final DistributionSummary batchSize;
+
+	private Histogram interval;
+
+	BatchSizeRecorder(MeterRegistry meterRegistry) {
+		this.interval = this.recorder.getIntervalHistogram();
+		FunctionCounter.builder("throughput.batches", this.batches, LongAdder::sum)
+				.description("Batches received")
+				.register(meterRegistry);
+		this.batchSize = DistributionSummary.builder("throughput.batch.size")
+				.description("Messages per batch received")
+				.baseUnit("messages")
+				.publishPercentileHistogram()
+				.register(meterRegistry);
+	}
+
+	void record(int size) {
+		this.batches.increment();
+		this.recorder.recordValue(size);
+		this.batchSize.record(size);
+	}
+
+	synchronized void report() {
+		this.interval = this.recorder.getIntervalHistogram(this.interval);
+		this.cumulative.add(this.interval);
+		logger.info("Batches: " + describe(this.interval) + " (interval)");
+		logger.info("Batches: " + describe(this.cumulative) + " (total)");
+	}
+
+	private static String describe(Histogram histogram) {
+		return String.format("%10d batches, size p50 = %6d, p99 = %6d, max = %6d, mean = %8.1f",
+				histogram.getTotalCount(), histogram.getValueAtPercentile(50.0),
+				histogram.getValueAtPercentile(99.0), histogram.getMaxValue(), histogram.getMean());
+	}
+
+}
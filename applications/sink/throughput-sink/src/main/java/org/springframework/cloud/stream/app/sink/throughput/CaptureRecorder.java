@@ -0,0 +1,178 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.sink.throughput;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+
+/**
+ * Records the messages received into a capture file that the load generator source replays.
+ * <p>
+ * The file starts with the {@code SCAP} magic number and the format version, as 4 byte integers, followed by one
+ * record per message. Every record is prefixed by its length in bytes, as a 4 byte integer, and holds:
+ * <ul>
+ * <li>the time the message was received, in nanoseconds since the first message, as an 8 byte integer</li>
+ * <li>the number of headers as a 2 byte integer, followed by, for every header, its name prefixed by its length as a
+ * 2 byte integer and its value prefixed by its length as a 4 byte integer, both UTF-8 encoded</li>
+ * <li>the payload, prefixed by its length as a 4 byte integer</li>
+ * </ul>
+ * All integers are big-endian. Only the headers with a string, number or boolean value are recorded, as text, and
+ * only byte array, text and buffer payloads; every element of a batch is recorded as a message of its own.
+ */
+class CaptureRecorder {
+
+	static final int MAGIC = 0x53434150;
+
+	static final int VERSION = 1;
+
+	private static final Log logger = LogFactory.getLog(CaptureRecorder.class);
+
+	private final Path file;
+
+	private final DataOutputStream output;
+
+	private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(1024);
+
+	private final DataOutputStream record = new DataOutputStream(this.recordBytes);
+
+	private final List<Map.Entry<String, Object>> headers = new ArrayList<>();
+
+	private long start = -1;
+
+	private long recorded;
+
+	private long skipped;
+
+	CaptureRecorder(Path file) {
+		this.file = file;
+		try {
+			OutputStream stream = Files.newOutputStream(file);
+			this.output = new DataOutputStream(new BufferedOutputStream(stream, 64 * 1024));
+			this.output.writeInt(MAGIC);
+			this.output.writeInt(VERSION);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException("Failed to create the capture file " + file, e);
+		}
+	}
+
+	synchronized void record(Message<?> message) {
+		long now = System.nanoTime();
+		if (this.start < 0) {
+			this.start = now;
+		}
+		Object payload = message.getPayload();
+		try {
+			if (payload instanceof Collection<?>) {
+				for (Object element : (Collection<?>) payload) {
+					write(now - this.start, message.getHeaders(), element);
+				}
+			}
+			else {
+				write(now - this.start, message.getHeaders(), payload);
+			}
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException("Failed to write to the capture file " + this.file, e);
+		}
+	}
+
+	/**
+	 * Write the records buffered so far to the file, at every report.
+	 */
+	synchronized void flush() {
+		try {
+			this.output.flush();
+		}
+		catch (IOException e) {
+			logger.warn("Failed to flush the capture file " + this.file, e);
+		}
+	}
+
+	synchronized void close() throws IOException {
+		this.output.close();
+		logger.info(String.format("Captured %d messages to %s, skipped %d with an unsupported payload",
+				this.recorded, this.file, this.skipped));
+	}
+
+	private void write(long timeNanos, MessageHeaders messageHeaders, Object payload) throws IOException {
+		byte[] bytes = toBytes(payload);
+		if (bytes == null) {
+			this.skipped++;
+			return;
+		}
+		this.headers.clear();
+		for (Map.Entry<String, Object> header : messageHeaders.entrySet()) {
+			Object value = header.getValue();
+			if (!MessageHeaders.ID.equals(header.getKey()) && !MessageHeaders.TIMESTAMP.equals(header.getKey())
+					&& (value instanceof CharSequence || value instanceof Number || value instanceof Boolean)) {
+				this.headers.add(header);
+			}
+		}
+		this.recordBytes.reset();
+		this.record.writeLong(timeNanos);
+		this.record.writeShort(this.headers.size());
+		for (Map.Entry<String, Object> header : this.headers) {
+			byte[] name = header.getKey().getBytes(StandardCharsets.UTF_8);
+			byte[] value = header.getValue().toString().getBytes(StandardCharsets.UTF_8);
+			this.record.writeShort(name.length);
+			this.record.write(name);
+			this.record.writeInt(value.length);
+			this.record.write(value);
+		}
+		this.record.writeInt(bytes.length);
+		this.record.write(bytes);
+		this.output.writeInt(this.recordBytes.size());
+		this.recordBytes.writeTo(this.output);
+		this.recorded++;
+	}
+
+	private static byte[] toBytes(Object payload) {
+		if (payload instanceof byte[]) {
+			return (byte[]) payload;
+		}
+		if (payload instanceof CharSequence) {
+			return payload.toString().getBytes(StandardCharsets.UTF_8);
+		}
+		if (payload instanceof ByteBuffer) {
+			ByteBuffer buffer = ((ByteBuffer) payload).duplicate();
+			byte[] bytes = new byte[buffer.remaining()];
+			buffer.get(bytes);
+			return bytes;
+		}
+		return null;
+	}
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.sink.throughput;
+
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+/**
+ * Actuator endpoint exposing the latency percentiles of the last reporting interval and since the first message.
+ */
+@Endpoint(id = "latency")
+class LatencyEndpoint {
+
+	private final LatencyRecorder latencyRecorder;
+
+	LatencyEndpoint(LatencyRecorder latencyRecorder) {
+		this.latencyRecorder = latencyRecorder;
+	}
+
+	@ReadOperation
+	Map<String, Object> latency() {
+		return this.latencyRecorder.summary();
+	}
+
+}
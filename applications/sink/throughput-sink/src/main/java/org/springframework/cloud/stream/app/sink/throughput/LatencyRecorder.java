@@ -0,0 +1,181 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.sink.throughput;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.cloud.stream.app.sink.throughput.ThroughputSinkProperties.TimestampSource;
+import org.springframework.messaging.Message;
+
+/**
+ * Records the latency between the send timestamp carried by every message and its arrival into HdrHistograms, in
+ * microseconds. Consumer threads record into a {@link Recorder} without waiting for each other; at every report the
+ * values recorded since the previous report are swapped out, logged as the interval figures and added to the
+ * cumulative histogram.
+ * <p>
+ * When an expected interval between messages is set, every value larger than that interval is complemented with the
+ * values the messages that could not be sent in the meantime would have seen, correcting for coordinated omission.
+ */
+class LatencyRecorder {
+
+	private static final Log logger = LogFactory.getLog(LatencyRecorder.class);
+
+	private static final double[] PERCENTILES = { 50.0, 99.0, 99.9, 100.0 };
+
+	private final TimestampSource timestampSource;
+
+	private final String timestampHeader;
+
+	private final TimeUnit timestampUnit;
+
+	private final long expectedIntervalUs;
+
+	private final Recorder recorder = new Recorder(3);
+
+	private final Histogram cumulative = new Histogram(3);
+
+	private final LongAdder missing = new LongAdder();
+
+	private Histogram interval;
+
+	LatencyRecorder(ThroughputSinkProperties.Latency properties, MeterRegistry meterRegistry) {
+		this.timestampSource = properties.getTimestampSource();
+		this.timestampHeader = properties.getTimestampHeader();
+		this.timestampUnit = properties.getTimestampUnit();
+		this.expectedIntervalUs = properties.getExpectedIntervalUs();
+		this.interval = this.recorder.getIntervalHistogram();
+		for (double percentile : PERCENTILES) {
+			Gauge.builder("throughput.latency", this, latency -> latency.intervalValueAt(percentile))
+					.description("Latency of the messages received during the last reporting interval")
+					.tag("percentile", (percentile == 100.0) ? "max" : String.valueOf(percentile))
+					.baseUnit("microseconds")
+					.register(meterRegistry);
+		}
+		FunctionCounter.builder("throughput.latency.missing", this.missing, LongAdder::sum)
+				.description("Messages received without a send timestamp")
+				.register(meterRegistry);
+	}
+
+	void record(Message<?> message) {
+		long timestamp = timestamp(message);
+		if (timestamp == Long.MIN_VALUE) {
+			this.missing.increment();
+			return;
+		}
+		// clocks of different hosts are never perfectly in sync; count what looks like a negative latency as zero
+		long latency = Math.max(0, this.timestampUnit.toMicros(now() - timestamp));
+		if (this.expectedIntervalUs > 0) {
+			this.recorder.recordValueWithExpectedInterval(latency, this.expectedIntervalUs);
+		}
+		else {
+			this.recorder.recordValue(latency);
+		}
+	}
+
+	synchronized void report() {
+		this.interval = this.recorder.getIntervalHistogram(this.interval);
+		this.cumulative.add(this.interval);
+		logger.info("Latency: " + describe(this.interval) + " (interval)");
+		logger.info("Latency: " + describe(this.cumulative) + " (total)");
+	}
+
+	/**
+	 * The interval and cumulative figures as of the last report.
+	 */
+	synchronized Map<String, Object> summary() {
+		Map<String, Object> summary = new LinkedHashMap<>();
+		summary.put("unit", "microseconds");
+		summary.put("interval", summary(this.interval));
+		summary.put("total", summary(this.cumulative));
+		summary.put("missingTimestamps", this.missing.sum());
+		return summary;
+	}
+
+	private synchronized double intervalValueAt(double percentile) {
+		return (percentile == 100.0) ? this.interval.getMaxValue() : this.interval.getValueAtPercentile(percentile);
+	}
+
+	private long timestamp(Message<?> message) {
+		if (this.timestampSource == TimestampSource.HEADER) {
+			return toTimestamp(message.getHeaders().get(this.timestampHeader));
+		}
+		return toTimestamp(message.getPayload());
+	}
+
+	private long now() {
+		if (this.timestampUnit == TimeUnit.MILLISECONDS) {
+			return System.currentTimeMillis();
+		}
+		Instant now = Instant.now();
+		return this.timestampUnit.convert(now.getEpochSecond(), TimeUnit.SECONDS)
+				+ this.timestampUnit.convert(now.getNano(), TimeUnit.NANOSECONDS);
+	}
+
+	private static long toTimestamp(Object value) {
+		if (value instanceof Number) {
+			return ((Number) value).longValue();
+		}
+		if (value instanceof byte[] && ((byte[]) value).length >= 8) {
+			return ByteBuffer.wrap((byte[]) value).getLong();
+		}
+		if (value instanceof ByteBuffer && ((ByteBuffer) value).remaining() >= 8) {
+			ByteBuffer buffer = (ByteBuffer) value;
+			return buffer.getLong(buffer.position());
+		}
+		if (value instanceof String) {
+			try {
+				return Long.parseLong((String) value);
+			}
+			catch (NumberFormatException e) {
+				return Long.MIN_VALUE;
+			}
+		}
+		return Long.MIN_VALUE;
+	}
+
+	private static String describe(Histogram histogram) {
+		return String.format("%10d messages, p50 = %8dus, p99 = %8dus, p99.9 = %8dus, max = %8dus",
+				histogram.getTotalCount(), histogram.getValueAtPercentile(50.0),
+				histogram.getValueAtPercentile(99.0), histogram.getValueAtPercentile(99.9),
+				histogram.getMaxValue());
+	}
+
+	private static Map<String, Object> summary(Histogram histogram) {
+		Map<String, Object> summary = new LinkedHashMap<>();
+		summary.put("count", histogram.getTotalCount());
+		summary.put("p50", histogram.getValueAtPercentile(50.0));
+		summary.put("p99", histogram.getValueAtPercentile(99.0));
+		summary.put("p99.9", histogram.getValueAtPercentile(99.9));
+		summary.put("max", histogram.getMaxValue());
+		summary.put("mean", histogram.getMean());
+		return summary;
+	}
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.sink.throughput;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+
+/**
+ * Computes the size in bytes of payloads without copying them: text is measured as its UTF-8 encoding, buffers by
+ * their remaining bytes and collections as the sum of their elements.
+ */
+final class PayloadSizes {
+
+	private PayloadSizes() {
+	}
+
+	/**
+	 * Whether the size of the given payload can be measured.
+	 */
+	static boolean isMeasurable(Object payload) {
+		if (payload instanceof Collection<?>) {
+			Collection<?> elements = (Collection<?>) payload;
+			return !elements.isEmpty() && isMeasurable(elements.iterator().next());
+		}
+		return payload instanceof byte[] || payload instanceof CharSequence || payload instanceof ByteBuffer;
+	}
+
+	/**
+	 * The size of the given payload in bytes, or 0 if it cannot be measured.
+	 */
+	static long sizeOf(Object payload) {
+		if (payload instanceof byte[]) {
+			return ((byte[]) payload).length;
+		}
+		if (payload instanceof CharSequence) {
+			return utf8Length((CharSequence) payload);
+		}
+		if (payload instanceof ByteBuffer) {
+			return ((ByteBuffer) payload).remaining();
+		}
+		if (payload instanceof Collection<?>) {
+			long size = 0;
+			for (Object element : (Collection<?>) payload) {
+				size += sizeOf(element);
+			}
+			return size;
+		}
+		return 0;
+	}
+
+	/**
+	 * The number of bytes of the UTF-8 encoding of the given text, matching
+	 * {@code text.toString().getBytes(StandardCharsets.UTF_8).length}, where an unpaired surrogate is encoded as '?'.
+	 */
+	static int utf8Length(CharSequence text) {
+		int length = text.length();
+		int i = 0;
+		// ASCII only text, as most payloads are, has as many bytes as characters
+		while (i < length && text.charAt(i) < 0x80) {
+			i++;
+		}
+		if (i == length) {
+			return length;
+		}
+		int bytes = i;
+		for (; i < length; i++) {
+			char c = text.charAt(i);
+			if (c < 0x80) {
+				bytes++;
+			}
+			else if (c < 0x800) {
+				bytes += 2;
+			}
+			else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+				bytes += 4;
+				i++;
+			}
+			else if (Character.isSurrogate(c)) {
+				bytes++;
+			}
+			else {
+				bytes += 3;
+			}
+		}
+		return bytes;
+	}
+
+}
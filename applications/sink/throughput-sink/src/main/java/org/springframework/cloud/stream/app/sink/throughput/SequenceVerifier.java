@@ -0,0 +1,238 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.sink.throughput;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.messaging.Message;
+
+/**
+ * Verifies the sequence numbers carried by the messages of every producer, or partition, and counts the sequence
+ * numbers that never arrived, arrived more than once or arrived after a higher one.
+ * <p>
+ * Each producer has a window holding one bit for each of the last sequence numbers up to the highest one received.
+ * A sequence number that leaves the window without having been received is counted as a gap; one that arrives while
+ * still in the window fills its bit and is counted as out of order, or as a duplicate if its bit was already set. A
+ * sequence number below the window cannot be told apart from a duplicate and is counted as late. The windows and the
+ * number of producers tracked are bounded, so memory stays bounded however many messages arrive.
+ */
+class SequenceVerifier {
+
+	private static final Log logger = LogFactory.getLog(SequenceVerifier.class);
+
+	private static final Object NO_PRODUCER = new Object();
+
+	private final String sequenceHeader;
+
+	private final String producerHeader;
+
+	private final int windowSize;
+
+	private final int maxProducers;
+
+	private final Map<Object, Window> windows = new ConcurrentHashMap<>();
+
+	private final LongAdder gaps = new LongAdder();
+
+	private final LongAdder duplicates = new LongAdder();
+
+	private final LongAdder outOfOrder = new LongAdder();
+
+	private final LongAdder late = new LongAdder();
+
+	private final LongAdder unverified = new LongAdder();
+
+	SequenceVerifier(ThroughputSinkProperties.Sequence properties, MeterRegistry meterRegistry) {
+		this.sequenceHeader = properties.getSequenceHeader();
+		this.producerHeader = properties.getProducerHeader();
+		// a power of two of whole words, so that a sequence number maps to its bit with a mask
+		this.windowSize = Math.max(64, Integer.highestOneBit(Math.max(1, properties.getWindowSize() - 1)) << 1);
+		this.maxProducers = properties.getMaxProducers();
+		register(meterRegistry, "throughput.sequence.gaps", this.gaps, "Sequence numbers that never arrived");
+		register(meterRegistry, "throughput.sequence.duplicates", this.duplicates,
+				"Sequence numbers that arrived more than once");
+		register(meterRegistry, "throughput.sequence.out.of.order", this.outOfOrder,
+				"Sequence numbers that arrived after a higher one");
+		register(meterRegistry, "throughput.sequence.late", this.late,
+				"Sequence numbers that arrived too late to be verified");
+		register(meterRegistry, "throughput.sequence.unverified", this.unverified,
+				"Messages without a sequence number, or from a producer beyond the maximum tracked");
+	}
+
+	void verify(Message<?> message) {
+		long sequence = toSequence(message.getHeaders().get(this.sequenceHeader));
+		if (sequence == Long.MIN_VALUE) {
+			this.unverified.increment();
+			return;
+		}
+		Object producer = (this.producerHeader != null) ? message.getHeaders().get(this.producerHeader) : null;
+		if (producer == null) {
+			producer = NO_PRODUCER;
+		}
+		Window window = this.windows.get(producer);
+		if (window == null) {
+			if (this.windows.size() >= this.maxProducers) {
+				this.unverified.increment();
+				return;
+			}
+			window = this.windows.putIfAbsent(producer, new Window(this.windowSize, sequence));
+			if (window == null) {
+				return;
+			}
+		}
+		window.receive(sequence);
+	}
+
+	void report() {
+		logger.info(String.format("Sequence: gaps = %d, duplicates = %d, out of order = %d, late = %d, "
+						+ "unverified = %d, producers = %d", this.gaps.sum(), this.duplicates.sum(),
+				this.outOfOrder.sum(), this.late.sum(), this.unverified.sum(), this.windows.size()));
+	}
+
+	long getGaps() {
+		return this.gaps.sum();
+	}
+
+	long getDuplicates() {
+		return this.duplicates.sum();
+	}
+
+	long getOutOfOrder() {
+		return this.outOfOrder.sum();
+	}
+
+	long getLate() {
+		return this.late.sum();
+	}
+
+	long getUnverified() {
+		return this.unverified.sum();
+	}
+
+	private static long toSequence(Object value) {
+		if (value instanceof Number) {
+			return ((Number) value).longValue();
+		}
+		if (value instanceof byte[] && ((byte[]) value).length == 8) {
+			return ByteBuffer.wrap((byte[]) value).getLong();
+		}
+		if (value instanceof String) {
+			try {
+				return Long.parseLong((String) value);
+			}
+			catch (NumberFormatException e) {
+				return Long.MIN_VALUE;
+			}
+		}
+		return Long.MIN_VALUE;
+	}
+
+	private static void register(MeterRegistry meterRegistry, String name, LongAdder adder, String description) {
+		FunctionCounter.builder(name, adder, LongAdder::sum)
+				.description(description)
+				.register(meterRegistry);
+	}
+
+	private final class Window {
+
+		private final long[] received;
+
+		private final int mask;
+
+		private final long first;
+
+		private long highest;
+
+		private Window(int size, long first) {
+			this.received = new long[size / 64];
+			// the sequence numbers before the first one received are not expected
+			Arrays.fill(this.received, -1L);
+			this.mask = size - 1;
+			this.first = first;
+			this.highest = first;
+		}
+
+		private synchronized void receive(long sequence) {
+			int size = this.mask + 1;
+			if (sequence > this.highest) {
+				long advance = sequence - this.highest;
+				if (advance >= size) {
+					long seen = 0;
+					for (long word : this.received) {
+						seen += Long.bitCount(word);
+					}
+					// none of the window is kept, and the numbers between it and the new one never entered it
+					SequenceVerifier.this.gaps.add((size - seen) + (advance - size));
+					Arrays.fill(this.received, 0L);
+				}
+				else {
+					// every slot taken by a new sequence number held the one that leaves the window
+					for (long next = this.highest + 1; next <= sequence; next++) {
+						if (!isSet(next)) {
+							SequenceVerifier.this.gaps.increment();
+						}
+						clear(next);
+					}
+				}
+				this.highest = sequence;
+				set(sequence);
+			}
+			else if (sequence < this.first) {
+				// sent before the first one received, whose bits do not track anything
+				SequenceVerifier.this.outOfOrder.increment();
+			}
+			else if (sequence > this.highest - size) {
+				if (isSet(sequence)) {
+					SequenceVerifier.this.duplicates.increment();
+				}
+				else {
+					SequenceVerifier.this.outOfOrder.increment();
+					set(sequence);
+				}
+			}
+			else {
+				SequenceVerifier.this.late.increment();
+			}
+		}
+
+		private boolean isSet(long sequence) {
+			int bit = (int) (sequence & this.mask);
+			return (this.received[bit >>> 6] & (1L << bit)) != 0;
+		}
+
+		private void set(long sequence) {
+			int bit = (int) (sequence & this.mask);
+			this.received[bit >>> 6] |= 1L << bit;
+		}
+
+		private void clear(long sequence) {
+			int bit = (int) (sequence & this.mask);
+			this.received[bit >>> 6] &= ~(1L << bit);
+		}
+
+	}
+
+}
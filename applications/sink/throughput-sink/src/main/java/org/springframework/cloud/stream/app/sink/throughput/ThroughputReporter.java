@@ -0,0 +1,180 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.sink.throughput;
+
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Counts the messages and bytes received and logs the observed throughput at a fixed rate, for the last interval and
+ * since the first message, until the application is closed.
+ * <p>
+ * The counters are striped, so consumer threads do not contend on a single value; the reporting thread never resets
+ * them but computes the interval figures from the difference with the totals of the previous report. The rates of
+ * the last interval are also published as Micrometer gauges.
+ * <p>
+ * Additional reports, such as latency percentiles or batch sizes, are run right after the throughput lines of every
+ * interval. A report that fails is logged and does not stop the other reports of the interval, nor the following
+ * intervals.
+ */
+class ThroughputReporter {
+
+	private static final Log logger = LogFactory.getLog(ThroughputReporter.class);
+
+	private static final double MEGABYTE = 1024.0 * 1024;
+
+	private final TimeUnit timeUnit = TimeUnit.SECONDS;
+
+	private final LongAdder messages = new LongAdder();
+
+	private final LongAdder bytes = new LongAdder();
+
+	private final long reportEveryMs;
+
+	private final ScheduledExecutorService scheduler;
+
+	private final List<Runnable> intervalReports;
+
+	private final AtomicBoolean started = new AtomicBoolean();
+
+	private volatile boolean reportBytes;
+
+	private volatile double messageRate;
+
+	private volatile double megabyteRate;
+
+	private long start;
+
+	private long lastReport;
+
+	private long lastMessages;
+
+	private long lastBytes;
+
+	ThroughputReporter(long reportEveryMs, MeterRegistry meterRegistry, List<Runnable> intervalReports) {
+		this.reportEveryMs = reportEveryMs;
+		this.intervalReports = intervalReports;
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("throughput-report-");
+		threadFactory.setDaemon(true);
+		this.scheduler = new ScheduledThreadPoolExecutor(1, threadFactory);
+		FunctionCounter.builder("throughput.messages", this.messages, LongAdder::sum)
+				.description("Messages received")
+				.register(meterRegistry);
+		FunctionCounter.builder("throughput.bytes", this.bytes, LongAdder::sum)
+				.description("Payload bytes received")
+				.baseUnit("bytes")
+				.register(meterRegistry);
+		Gauge.builder("throughput.messages.rate", this, reporter -> reporter.messageRate)
+				.description("Messages per second received during the last reporting interval")
+				.register(meterRegistry);
+		Gauge.builder("throughput.megabytes.rate", this, reporter -> reporter.megabyteRate)
+				.description("Megabytes per second received during the last reporting interval")
+				.register(meterRegistry);
+	}
+
+	boolean isStarted() {
+		return this.started.get();
+	}
+
+	/**
+	 * Start reporting, unless already started.
+	 * @param reportBytes whether the payloads have a size in bytes worth reporting
+	 */
+	void start(boolean reportBytes) {
+		if (this.started.compareAndSet(false, true)) {
+			this.reportBytes = reportBytes;
+			this.start = System.nanoTime();
+			this.lastReport = this.start;
+			this.scheduler.scheduleAtFixedRate(this::reportSafely, this.reportEveryMs, this.reportEveryMs,
+					TimeUnit.MILLISECONDS);
+		}
+	}
+
+	void received(long byteCount) {
+		this.messages.increment();
+		if (byteCount > 0) {
+			this.bytes.add(byteCount);
+		}
+	}
+
+	void received(int messageCount, long byteCount) {
+		this.messages.add(messageCount);
+		if (byteCount > 0) {
+			this.bytes.add(byteCount);
+		}
+	}
+
+	void close() {
+		this.scheduler.shutdownNow();
+	}
+
+	private void reportSafely() {
+		try {
+			report();
+		}
+		catch (RuntimeException e) {
+			logger.error("Throughput report failed", e);
+		}
+	}
+
+	void report() {
+		long now = System.nanoTime();
+		long totalMessages = this.messages.sum();
+		long totalBytes = this.bytes.sum();
+		long currentMessages = totalMessages - this.lastMessages;
+		long currentBytes = totalBytes - this.lastBytes;
+		double interval = (now - this.lastReport) / 1e9;
+		double elapsed = (now - this.start) / 1e9;
+		this.lastReport = now;
+		this.lastMessages = totalMessages;
+		this.lastBytes = totalBytes;
+
+		this.messageRate = currentMessages / interval;
+		this.megabyteRate = currentBytes / MEGABYTE / interval;
+		logger.info(String.format("Messages: %10d in %5.2f%s = %11.2f/s",
+				currentMessages, interval, this.timeUnit, this.messageRate));
+		logger.info(String.format("Messages: %10d in %5.2f%s = %11.2f/s",
+				totalMessages, elapsed, this.timeUnit, totalMessages / elapsed));
+		if (this.reportBytes) {
+			logger.info(String.format("Throughput: %12d in %5.2f%s = %11.2fMB/s, ",
+					currentBytes, interval, this.timeUnit, this.megabyteRate));
+			logger.info(String.format("Throughput: %12d in %5.2f%s = %11.2fMB/s",
+					totalBytes, elapsed, this.timeUnit, totalBytes / MEGABYTE / elapsed));
+		}
+		for (Runnable intervalReport : this.intervalReports) {
+			try {
+				intervalReport.run();
+			}
+			catch (RuntimeException e) {
+				logger.error("Interval report failed", e);
+			}
+		}
+	}
+
+}
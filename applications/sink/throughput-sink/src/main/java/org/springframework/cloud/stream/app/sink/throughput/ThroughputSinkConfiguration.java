@@ -1,5 +1,5 @@
 /*
- * Copyright 2015-2020 the original author or authors.
+ * Copyright 2015-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,114 +16,201 @@
 
 package org.springframework.cloud.stream.app.sink.throughput;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
 
-import org.apache.commons.logging.Log;
-import org.apache.commons.logging.LogFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.stream.binder.BinderHeaders;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.integration.support.MessageBuilder;
 import org.springframework.messaging.Message;
 
 @Configuration
 @EnableConfigurationProperties({ThroughputSinkProperties.class})
 public class ThroughputSinkConfiguration {
 
-	private final Log logger = LogFactory.getLog(getClass());
-
-	private final AtomicLong counter = new AtomicLong();
-
-	private final AtomicLong start = new AtomicLong(-1);
-
-	private final AtomicLong bytes = new AtomicLong(-1);
-
-	private final AtomicLong intermediateCounter = new AtomicLong();
+	@Autowired
+	private volatile ThroughputSinkProperties properties;
 
-	private final AtomicLong intermediateBytes = new AtomicLong();
+	@Bean(destroyMethod = "close")
+	ThroughputReporter throughputReporter(ObjectProvider<MeterRegistry> meterRegistry,
+			ObjectProvider<BatchSizeRecorder> batchSizeRecorder, ObjectProvider<LatencyRecorder> latencyRecorder,
+			ObjectProvider<SequenceVerifier> sequenceVerifier, ObjectProvider<CaptureRecorder> captureRecorder) {
+
+		List<Runnable> intervalReports = new ArrayList<>();
+		batchSizeRecorder.ifAvailable(recorder -> intervalReports.add(recorder::report));
+		latencyRecorder.ifAvailable(recorder -> intervalReports.add(recorder::report));
+		sequenceVerifier.ifAvailable(verifier -> intervalReports.add(verifier::report));
+		captureRecorder.ifAvailable(recorder -> intervalReports.add(recorder::flush));
+		return new ThroughputReporter(this.properties.getReportEveryMs(),
+				meterRegistry.getIfAvailable(() -> Metrics.globalRegistry), intervalReports);
+	}
 
-	private final TimeUnit timeUnit = TimeUnit.SECONDS;
+	@Configuration
+	@ConditionalOnProperty(prefix = "throughput", name = "batch-mode", havingValue = "false", matchIfMissing = true)
+	static class MessageConfiguration {
 
-	private final ExecutorService executorService = Executors.newFixedThreadPool(1);
+		@Bean
+		public Consumer<Message<?>> throughputConsumer(ThroughputReporter throughputReporter,
+				ObjectProvider<LatencyRecorder> latencyRecorder, ObjectProvider<SequenceVerifier> sequenceVerifier,
+				ObjectProvider<CaptureRecorder> captureRecorder) {
 
-	private volatile boolean reportBytes = false;
+			LatencyRecorder latency = latencyRecorder.getIfAvailable();
+			SequenceVerifier sequence = sequenceVerifier.getIfAvailable();
+			CaptureRecorder capture = captureRecorder.getIfAvailable();
+			return message -> {
+				Object payload = message.getPayload();
+				if (!throughputReporter.isStarted()) {
+					// assume a homogeneous message structure - this is intended for
+					// performance tests so we can assume that the messages are similar;
+					// therefore we'll do our reporting based on the first message
+					throughputReporter.start(PayloadSizes.isMeasurable(payload));
+				}
+				throughputReporter.received(PayloadSizes.sizeOf(payload));
+				if (latency != null) {
+					latency.record(message);
+				}
+				if (sequence != null) {
+					sequence.verify(message);
+				}
+				if (capture != null) {
+					capture.record(message);
+				}
+			};
+		}
 
-	@Autowired
-	private volatile ThroughputSinkProperties properties;
+	}
 
-	@Bean
-	public Consumer<Message<?>> throughputConsumer() {
-		return message -> {
-			if (start.get() == -1L) {
-				synchronized (start) {
-					if (start.get() == -1L) {
-						// assume a homogeneous message structure - this is intended for
-						// performance tests so we can assume that the messages are similar;
-						// therefore we'll do our reporting based on the first message
-						Object payload = message.getPayload();
-						if (payload instanceof byte[] || payload instanceof String) {
-							reportBytes = true;
+	@Configuration
+	@ConditionalOnProperty(prefix = "throughput", name = "batch-mode", havingValue = "true")
+	static class BatchConfiguration {
+
+		@Bean
+		public Consumer<Message<?>> throughputConsumer(ThroughputReporter throughputReporter,
+				BatchSizeRecorder batchSizeRecorder, ObjectProvider<LatencyRecorder> latencyRecorder,
+				ObjectProvider<SequenceVerifier> sequenceVerifier, ObjectProvider<CaptureRecorder> captureRecorder) {
+
+			LatencyRecorder latency = latencyRecorder.getIfAvailable();
+			SequenceVerifier sequence = sequenceVerifier.getIfAvailable();
+			CaptureRecorder capture = captureRecorder.getIfAvailable();
+			return message -> {
+				// the payload is taken as delivered by the binder, a list of the payloads of the batch, so
+				// that the elements are neither converted nor copied
+				Object payload = message.getPayload();
+				int batchSize = (payload instanceof Collection<?>) ? ((Collection<?>) payload).size() : 1;
+				if (!throughputReporter.isStarted()) {
+					throughputReporter.start(PayloadSizes.isMeasurable(payload));
+				}
+				// a single update of the counters for the whole batch
+				throughputReporter.received(batchSize, PayloadSizes.sizeOf(payload));
+				batchSizeRecorder.record(batchSize);
+				if (latency != null || sequence != null || capture != null) {
+					forEachRecord(message, record -> {
+						if (latency != null) {
+							latency.record(record);
 						}
-						start.set(System.currentTimeMillis());
-						executorService.execute(new ReportStats());
-					}
+						if (sequence != null) {
+							sequence.verify(record);
+						}
+						if (capture != null) {
+							capture.record(record);
+						}
+					});
 				}
+			};
+		}
+
+		/**
+		 * Hand every element of a batch to the action as a message of its own, with the headers of its record when
+		 * the binder provides them in {@link BinderHeaders#BATCH_HEADERS}, and otherwise the headers of the batch.
+		 */
+		static void forEachRecord(Message<?> batch, Consumer<Message<?>> action) {
+			if (!(batch.getPayload() instanceof Collection<?>)) {
+				action.accept(batch);
+				return;
 			}
-			intermediateCounter.incrementAndGet();
-			if (reportBytes) {
-				Object payload = message.getPayload();
-				if (payload instanceof byte[]) {
-					intermediateBytes.addAndGet(((byte[]) payload).length);
+			Collection<?> payloads = (Collection<?>) batch.getPayload();
+			Object batchHeaders = batch.getHeaders().get(BinderHeaders.BATCH_HEADERS);
+			List<?> recordHeaders = (batchHeaders instanceof List<?>
+					&& ((List<?>) batchHeaders).size() == payloads.size()) ? (List<?>) batchHeaders : null;
+			int index = 0;
+			for (Object payload : payloads) {
+				Object headers = (recordHeaders != null) ? recordHeaders.get(index) : null;
+				index++;
+				if (payload == null) {
+					continue;
 				}
-				else if (payload instanceof String) {
-					intermediateBytes.addAndGet((((String) payload).getBytes()).length);
+				MessageBuilder<?> record = MessageBuilder.withPayload(payload);
+				if (headers instanceof Map<?, ?>) {
+					for (Map.Entry<?, ?> header : ((Map<?, ?>) headers).entrySet()) {
+						record.setHeader(String.valueOf(header.getKey()), header.getValue());
+					}
+				}
+				else {
+					record.copyHeaders(batch.getHeaders());
+					record.removeHeader(BinderHeaders.BATCH_HEADERS);
 				}
+				action.accept(record.build());
 			}
-		};
+		}
+
+		@Bean
+		BatchSizeRecorder batchSizeRecorder(ObjectProvider<MeterRegistry> meterRegistry) {
+			return new BatchSizeRecorder(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+		}
+
 	}
 
-	private class ReportStats implements Runnable {
-		@Override
-		public void run() {
-			int reportEveryMs = properties.getReportEveryMs();
-			long intervalStart = System.currentTimeMillis();
-			try {
-				Thread.sleep(reportEveryMs);
-				long timeNow = System.currentTimeMillis();
-				long currentCounter = intermediateCounter.getAndSet(0L);
-				long currentBytes = intermediateBytes.getAndSet(0L);
-				long totalCounter = counter.addAndGet(currentCounter);
-				long totalBytes = bytes.addAndGet(currentBytes);
-
-				logger.info(
-						String.format("Messages: %10d in %5.2f%s = %11.2f/s",
-								currentCounter,
-								(timeNow - intervalStart) / 1000.0, timeUnit, ((double) currentCounter * 1000 / reportEveryMs)));
-				logger.info(
-						String.format("Messages: %10d in %5.2f%s = %11.2f/s",
-								totalCounter, (timeNow - start.get()) / 1000.0, timeUnit,
-								((double) totalCounter * 1000 / (timeNow - start.get()))));
-				if (reportBytes) {
-					logger.info(
-							String.format("Throughput: %12d in %5.2f%s = %11.2fMB/s, ",
-									currentBytes,
-									(timeNow - intervalStart) / 1000.0, timeUnit,
-									((currentBytes / (1024.0 * 1024)) * 1000 / reportEveryMs)));
-					logger.info(
-							String.format("Throughput: %12d in %5.2f%s = %11.2fMB/s",
-									totalBytes, (timeNow - start.get()) / 1000.0, timeUnit,
-									((totalBytes / (1024.0 * 1024)) * 1000 / (timeNow - start.get()))));
-				}
-			}
-			catch (InterruptedException e) {
-				Thread.currentThread().interrupt();
-				logger.warn("Thread interrupted", e);
-			}
+	@Configuration
+	@ConditionalOnProperty(prefix = "throughput.latency", name = "enabled", havingValue = "true")
+	static class LatencyConfiguration {
+
+		@Bean
+		LatencyRecorder latencyRecorder(ThroughputSinkProperties properties,
+				ObjectProvider<MeterRegistry> meterRegistry) {
+			return new LatencyRecorder(properties.getLatency(),
+					meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+		}
+
+		@Bean
+		LatencyEndpoint latencyEndpoint(LatencyRecorder latencyRecorder) {
+			return new LatencyEndpoint(latencyRecorder);
 		}
+
+	}
+
+	@Configuration
+	@ConditionalOnProperty(prefix = "throughput.sequence", name = "enabled", havingValue = "true")
+	static class SequenceConfiguration {
+
+		@Bean
+		SequenceVerifier sequenceVerifier(ThroughputSinkProperties properties,
+				ObjectProvider<MeterRegistry> meterRegistry) {
+			return new SequenceVerifier(properties.getSequence(),
+					meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+		}
+
 	}
+
+	@Configuration
+	@ConditionalOnProperty(prefix = "throughput.capture", name = "file")
+	static class CaptureConfiguration {
+
+		@Bean(destroyMethod = "close")
+		CaptureRecorder captureRecorder(ThroughputSinkProperties properties) {
+			return new CaptureRecorder(properties.getCapture().getFile().toPath());
+		}
+
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2013-2020 the original author or authors.
+ * Copyright 2013-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,9 @@
 
 package org.springframework.cloud.stream.app.sink.throughput;
 
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -31,6 +34,27 @@ public class ThroughputSinkProperties {
 	 */
 	private int reportEveryMs = 1000;
 
+	/**
+	 * whether to consume the batches of messages delivered by the binder, which requires 'batch-mode' on the
+	 * consumer binding, counting every message of a batch.
+	 */
+	private boolean batchMode;
+
+	/**
+	 * End-to-end latency measurement.
+	 */
+	private final Latency latency = new Latency();
+
+	/**
+	 * Verification of the sequence numbers of the messages.
+	 */
+	private final Sequence sequence = new Sequence();
+
+	/**
+	 * Capture of the messages received, for the load generator source to replay.
+	 */
+	private final Capture capture = new Capture();
+
 	public int getReportEveryMs() {
 		return reportEveryMs;
 	}
@@ -39,4 +63,197 @@ public class ThroughputSinkProperties {
 		this.reportEveryMs = reportEveryMs;
 	}
 
+	public boolean isBatchMode() {
+		return batchMode;
+	}
+
+	public void setBatchMode(boolean batchMode) {
+		this.batchMode = batchMode;
+	}
+
+	public Latency getLatency() {
+		return latency;
+	}
+
+	public Sequence getSequence() {
+		return sequence;
+	}
+
+	public Capture getCapture() {
+		return capture;
+	}
+
+	public enum TimestampSource {
+
+		/**
+		 * The send timestamp is read from a message header.
+		 */
+		HEADER,
+
+		/**
+		 * The send timestamp is read from the first 8 bytes of the payload, big-endian.
+		 */
+		PAYLOAD
+
+	}
+
+	public static class Latency {
+
+		/**
+		 * whether to record the latency between the send timestamp of every message and its arrival.
+		 */
+		private boolean enabled;
+
+		/**
+		 * where to read the send timestamp from.
+		 */
+		private TimestampSource timestampSource = TimestampSource.HEADER;
+
+		/**
+		 * the header holding the send timestamp, as a number or 8 big-endian bytes.
+		 */
+		private String timestampHeader = "sendTimestamp";
+
+		/**
+		 * the unit of the send timestamp, counted since the epoch.
+		 */
+		private TimeUnit timestampUnit = TimeUnit.MILLISECONDS;
+
+		/**
+		 * the interval at which messages are expected to be sent, in microseconds, used to correct the
+		 * histograms for coordinated omission; 0 disables the correction.
+		 */
+		private long expectedIntervalUs;
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public TimestampSource getTimestampSource() {
+			return timestampSource;
+		}
+
+		public void setTimestampSource(TimestampSource timestampSource) {
+			this.timestampSource = timestampSource;
+		}
+
+		public String getTimestampHeader() {
+			return timestampHeader;
+		}
+
+		public void setTimestampHeader(String timestampHeader) {
+			this.timestampHeader = timestampHeader;
+		}
+
+		public TimeUnit getTimestampUnit() {
+			return timestampUnit;
+		}
+
+		public void setTimestampUnit(TimeUnit timestampUnit) {
+			this.timestampUnit = timestampUnit;
+		}
+
+		public long getExpectedIntervalUs() {
+			return expectedIntervalUs;
+		}
+
+		public void setExpectedIntervalUs(long expectedIntervalUs) {
+			this.expectedIntervalUs = expectedIntervalUs;
+		}
+
+	}
+
+	public static class Sequence {
+
+		/**
+		 * whether to verify that the sequence numbers of every producer arrive without gaps, duplicates or reordering.
+		 */
+		private boolean enabled;
+
+		/**
+		 * the header holding the sequence number, as a number or 8 big-endian bytes.
+		 */
+		private String sequenceHeader = "sequence";
+
+		/**
+		 * the header identifying the producer, or partition, each sequence belongs to, as set by the load generator;
+		 * messages without it, or all messages when not set, belong to the same sequence.
+		 */
+		private String producerHeader = "producer";
+
+		/**
+		 * how many of the most recent sequence numbers of a producer are tracked; a missing number is reported as a
+		 * gap once that many higher numbers arrived.
+		 */
+		private int windowSize = 1024;
+
+		/**
+		 * the maximum number of producers tracked; messages of additional producers are not verified.
+		 */
+		private int maxProducers = 1024;
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public String getSequenceHeader() {
+			return sequenceHeader;
+		}
+
+		public void setSequenceHeader(String sequenceHeader) {
+			this.sequenceHeader = sequenceHeader;
+		}
+
+		public String getProducerHeader() {
+			return producerHeader;
+		}
+
+		public void setProducerHeader(String producerHeader) {
+			this.producerHeader = producerHeader;
+		}
+
+		public int getWindowSize() {
+			return windowSize;
+		}
+
+		public void setWindowSize(int windowSize) {
+			this.windowSize = windowSize;
+		}
+
+		public int getMaxProducers() {
+			return maxProducers;
+		}
+
+		public void setMaxProducers(int maxProducers) {
+			this.maxProducers = maxProducers;
+		}
+
+	}
+
+	public static class Capture {
+
+		/**
+		 * the file to record the messages received into, in the capture format replayed by the load generator
+		 * source; no capture when not set.
+		 */
+		private File file;
+
+		public File getFile() {
+			return file;
+		}
+
+		public void setFile(File file) {
+			this.file = file;
+		}
+
+	}
+
 }
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.sink.throughput;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.integration.support.MessageBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CaptureRecorderTests {
+
+	@Test
+	public void recordsMessagesInTheCaptureFormat(@TempDir Path directory) throws IOException {
+		Path file = directory.resolve("capture.bin");
+		CaptureRecorder recorder = new CaptureRecorder(file);
+		recorder.record(MessageBuilder.withPayload("héllo").setHeader("sequence", 7L)
+				.setHeader("ignored", new Object()).build());
+		recorder.record(MessageBuilder.withPayload(new Object()).build());
+		recorder.record(MessageBuilder.withPayload(List.of(new byte[] { 1, 2 }, new byte[] { 3 })).build());
+		recorder.close();
+
+		try (DataInputStream input = new DataInputStream(Files.newInputStream(file))) {
+			assertThat(input.readInt()).isEqualTo(CaptureRecorder.MAGIC);
+			assertThat(input.readInt()).isEqualTo(CaptureRecorder.VERSION);
+
+			input.readInt();
+			assertThat(input.readLong()).isZero();
+			Map<String, String> headers = readHeaders(input);
+			assertThat(headers).containsEntry("sequence", "7").doesNotContainKeys("ignored", "id", "timestamp");
+			assertThat(new String(readBytes(input), StandardCharsets.UTF_8)).isEqualTo("héllo");
+
+			for (byte[] expected : new byte[][] { { 1, 2 }, { 3 } }) {
+				int length = input.readInt();
+				assertThat(length).isEqualTo(8 + 2 + 4 + expected.length);
+				assertThat(input.readLong()).isPositive();
+				assertThat(readHeaders(input)).isEmpty();
+				assertThat(readBytes(input)).isEqualTo(expected);
+			}
+			assertThat(input.read()).isEqualTo(-1);
+		}
+	}
+
+	private static Map<String, String> readHeaders(DataInputStream input) throws IOException {
+		Map<String, String> headers = new HashMap<>();
+		int count = input.readUnsignedShort();
+		for (int i = 0; i < count; i++) {
+			byte[] name = new byte[input.readUnsignedShort()];
+			input.readFully(name);
+			headers.put(new String(name, StandardCharsets.UTF_8), new String(readBytes(input), StandardCharsets.UTF_8));
+		}
+		return headers;
+	}
+
+	private static byte[] readBytes(DataInputStream input) throws IOException {
+		byte[] bytes = new byte[input.readInt()];
+		input.readFully(bytes);
+		return bytes;
+	}
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.sink.throughput;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.stream.app.sink.throughput.ThroughputSinkProperties.TimestampSource;
+import org.springframework.integration.support.MessageBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LatencyRecorderTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final ThroughputSinkProperties.Latency properties = new ThroughputSinkProperties.Latency();
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void recordsHeaderTimestamps() {
+		LatencyRecorder recorder = new LatencyRecorder(this.properties, this.meterRegistry);
+		long now = System.currentTimeMillis();
+		recorder.record(MessageBuilder.withPayload("a").setHeader("sendTimestamp", now - 50).build());
+		recorder.record(MessageBuilder.withPayload("b").setHeader("sendTimestamp", String.valueOf(now - 50)).build());
+		recorder.record(MessageBuilder.withPayload("c").build());
+		recorder.report();
+
+		Map<String, Object> interval = (Map<String, Object>) recorder.summary().get("interval");
+		assertThat(interval.get("count")).isEqualTo(2L);
+		assertThat((long) interval.get("p50")).isBetween(50_000L, 5_000_000L);
+		assertThat(recorder.summary().get("missingTimestamps")).isEqualTo(1L);
+		assertThat(this.meterRegistry.get("throughput.latency").tag("percentile", "max").gauge().value())
+				.isGreaterThanOrEqualTo(50_000.0);
+
+		recorder.report();
+		Map<String, Object> summary = recorder.summary();
+		assertThat(((Map<String, Object>) summary.get("interval")).get("count")).isEqualTo(0L);
+		assertThat(((Map<String, Object>) summary.get("total")).get("count")).isEqualTo(2L);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void recordsPayloadTimestampsWithCoordinatedOmissionCorrection() {
+		this.properties.setTimestampSource(TimestampSource.PAYLOAD);
+		this.properties.setTimestampUnit(TimeUnit.MICROSECONDS);
+		this.properties.setExpectedIntervalUs(10_000);
+		LatencyRecorder recorder = new LatencyRecorder(this.properties, this.meterRegistry);
+		long nowUs = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+		byte[] payload = ByteBuffer.allocate(16).putLong(nowUs - 100_000).array();
+		recorder.record(MessageBuilder.withPayload(payload).build());
+		recorder.report();
+
+		Map<String, Object> total = (Map<String, Object>) recorder.summary().get("total");
+		// one measured value of ~100ms plus the values of the ~9 messages that should have been sent meanwhile
+		assertThat((long) total.get("count")).isBetween(10L, 1000L);
+		assertThat((long) total.get("max")).isGreaterThanOrEqualTo(100_000L);
+	}
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.sink.throughput;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares measuring the size of a String payload by encoding it, as the sink used to, with counting the bytes of
+ * its UTF-8 encoding in place. Run with {@code -prof gc} to compare the allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayloadSizeBenchmark {
+
+	@Param({ "ascii", "latin1", "cjk" })
+	public String text;
+
+	@Param({ "100", "10000" })
+	public int length;
+
+	private String payload;
+
+	@Setup
+	public void setUp() {
+		String unit;
+		switch (this.text) {
+			case "latin1":
+				unit = "Zürich café ";
+				break;
+			case "cjk":
+				unit = "日本語のテキスト ";
+				break;
+			default:
+				unit = "plain text ";
+		}
+		StringBuilder payload = new StringBuilder(this.length);
+		while (payload.length() < this.length) {
+			payload.append(unit);
+		}
+		this.payload = payload.substring(0, this.length);
+	}
+
+	@Benchmark
+	public int getBytes() {
+		return this.payload.getBytes().length;
+	}
+
+	@Benchmark
+	public long payloadSizes() {
+		return PayloadSizes.sizeOf(this.payload);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(PayloadSizeBenchmark.class.getSimpleName()).build()).run();
+	}
+
+}
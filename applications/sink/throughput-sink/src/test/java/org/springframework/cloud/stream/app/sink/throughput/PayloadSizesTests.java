@@ -0,0 +1,54 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.sink.throughput;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PayloadSizesTests {
+
+	@Test
+	public void utf8LengthMatchesEncoding() {
+		for (String text : new String[] { "", "plain ascii", "café crème", "Zürich €", "emoji 😀 end", "日本語",
+				"unpaired \ud83d high", "unpaired \ude00 low", "trailing \ud83d" }) {
+			assertThat(PayloadSizes.sizeOf(text)).as(text).isEqualTo(text.getBytes(StandardCharsets.UTF_8).length);
+			assertThat(PayloadSizes.sizeOf(new StringBuilder(text))).as(text)
+					.isEqualTo(text.getBytes(StandardCharsets.UTF_8).length);
+		}
+	}
+
+	@Test
+	public void measuresBuffersAndCollections() {
+		ByteBuffer buffer = ByteBuffer.allocate(10);
+		buffer.position(4);
+		assertThat(PayloadSizes.sizeOf(buffer)).isEqualTo(6);
+		assertThat(PayloadSizes.sizeOf(Arrays.asList("ab", new byte[3], "é"))).isEqualTo(7);
+		assertThat(PayloadSizes.sizeOf(42)).isZero();
+
+		assertThat(PayloadSizes.isMeasurable(buffer)).isTrue();
+		assertThat(PayloadSizes.isMeasurable(Collections.singletonList("a"))).isTrue();
+		assertThat(PayloadSizes.isMeasurable(Collections.emptyList())).isFalse();
+		assertThat(PayloadSizes.isMeasurable(42)).isFalse();
+	}
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.sink.throughput;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.integration.support.MessageBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SequenceVerifierTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final ThroughputSinkProperties.Sequence properties = new ThroughputSinkProperties.Sequence();
+
+	@Test
+	public void inOrderSequenceHasNoErrors() {
+		SequenceVerifier verifier = new SequenceVerifier(this.properties, this.meterRegistry);
+		for (long i = 100; i < 10_000; i++) {
+			send(verifier, i, null);
+		}
+		assertCounts(verifier, 0, 0, 0, 0);
+	}
+
+	@Test
+	public void detectsGapsDuplicatesAndReordering() {
+		this.properties.setWindowSize(64);
+		SequenceVerifier verifier = new SequenceVerifier(this.properties, this.meterRegistry);
+		send(verifier, 0, null);
+		send(verifier, 2, null);
+		send(verifier, 1, null);
+		send(verifier, 2, null);
+		send(verifier, 4, null);
+		// 3 is still within the window, so not yet reported as a gap
+		assertCounts(verifier, 0, 1, 1, 0);
+
+		for (long i = 5; i < 70; i++) {
+			send(verifier, i, null);
+		}
+		assertCounts(verifier, 1, 1, 1, 0);
+		send(verifier, 3, null);
+		assertThat(verifier.getLate()).isEqualTo(1);
+
+		// a jump beyond the window reports the numbers that can no longer arrive in the window as missing
+		send(verifier, 1000, null);
+		assertThat(verifier.getGaps()).isEqualTo(1 + (1000 - 64 - 69));
+		assertThat(this.meterRegistry.get("throughput.sequence.gaps").functionCounter().count()).isEqualTo(868.0);
+	}
+
+	@Test
+	public void tracksLoadGeneratorProducersSeparatelyByDefault() {
+		SequenceVerifier verifier = new SequenceVerifier(this.properties, this.meterRegistry);
+		for (long i = 0; i < 100; i++) {
+			for (int producer = 0; producer < 4; producer++) {
+				verifier.verify(MessageBuilder.withPayload("x").setHeader("sequence", i)
+						.setHeader("producer", producer).build());
+			}
+		}
+		assertCounts(verifier, 0, 0, 0, 0);
+		assertThat(verifier.getUnverified()).isZero();
+	}
+
+	@Test
+	public void tracksProducersSeparatelyUpToTheMaximum() {
+		this.properties.setProducerHeader("producer");
+		this.properties.setMaxProducers(2);
+		SequenceVerifier verifier = new SequenceVerifier(this.properties, this.meterRegistry);
+		for (long i = 0; i < 10; i++) {
+			send(verifier, i, "a");
+			send(verifier, i, "b");
+			send(verifier, i, "b");
+			send(verifier, i, "c");
+		}
+		verifier.verify(MessageBuilder.withPayload("no sequence").build());
+
+		assertThat(verifier.getGaps()).isZero();
+		assertThat(verifier.getDuplicates()).isEqualTo(10);
+		assertThat(verifier.getUnverified()).isEqualTo(11);
+	}
+
+	private static void send(SequenceVerifier verifier, long sequence, String producer) {
+		verifier.verify(MessageBuilder.withPayload("x").setHeader("sequence", sequence)
+				.setHeader("producer", producer).build());
+	}
+
+	private static void assertCounts(SequenceVerifier verifier, long gaps, long duplicates, long outOfOrder,
+			long late) {
+		assertThat(verifier.getGaps()).as("gaps").isEqualTo(gaps);
+		assertThat(verifier.getDuplicates()).as("duplicates").isEqualTo(duplicates);
+		assertThat(verifier.getOutOfOrder()).as("out of order").isEqualTo(outOfOrder);
+		assertThat(verifier.getLate()).as("late").isEqualTo(late);
+	}
+
+}
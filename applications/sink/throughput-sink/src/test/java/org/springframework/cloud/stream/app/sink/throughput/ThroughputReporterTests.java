@@ -0,0 +1,70 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.sink.throughput;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(OutputCaptureExtension.class)
+public class ThroughputReporterTests {
+
+	@Test
+	public void keepsReportingAfterAFailedReport(CapturedOutput output) {
+		AtomicInteger reports = new AtomicInteger();
+		ThroughputReporter reporter = new ThroughputReporter(10, new SimpleMeterRegistry(), List.of(() -> {
+			if (reports.incrementAndGet() == 1) {
+				throw new IllegalStateException("report failure");
+			}
+		}));
+		try {
+			reporter.start(false);
+			Awaitility.await().until(() -> reports.get() > 2);
+		}
+		finally {
+			reporter.close();
+		}
+		assertThat(output.getOut()).contains("Interval report failed").contains("report failure");
+	}
+
+	@Test
+	public void runsTheOtherReportsOfAnIntervalAfterAFailedOne(CapturedOutput output) {
+		AtomicInteger reports = new AtomicInteger();
+		ThroughputReporter reporter = new ThroughputReporter(60_000, new SimpleMeterRegistry(), List.of(() -> {
+			throw new IllegalStateException("report failure");
+		}, reports::incrementAndGet));
+		reporter.start(false);
+		try {
+			reporter.report();
+		}
+		finally {
+			reporter.close();
+		}
+		assertThat(reports.get()).isEqualTo(1);
+		assertThat(output.getOut()).contains("Interval report failed").contains("report failure");
+	}
+
+}
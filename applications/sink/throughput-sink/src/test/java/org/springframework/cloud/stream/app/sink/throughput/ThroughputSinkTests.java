@@ -1,5 +1,5 @@
 /*
- * Copyright 2015-2020 the original author or authors.
+ * Copyright 2015-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,11 @@
 
 package org.springframework.cloud.stream.app.sink.throughput;
 
+import java.util.List;
+import java.util.Map;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.awaitility.Awaitility;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -25,13 +30,17 @@ import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.boot.test.system.CapturedOutput;
 import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.cloud.stream.binder.BinderHeaders;
 import org.springframework.cloud.stream.binder.test.InputDestination;
 import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
 import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 import org.springframework.integration.support.MessageBuilder;
 import org.springframework.messaging.Message;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 @ExtendWith(OutputCaptureExtension.class)
 public class ThroughputSinkTests {
 
@@ -50,8 +59,115 @@ public class ThroughputSinkTests {
 		}
 	}
 
+	@Test
+	public void testReportsContinuously(CapturedOutput output) {
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+				TestChannelBinderConfiguration
+						.getCompleteConfiguration(ThroughputSinkMetricsTestConfiguration.class))
+				.web(WebApplicationType.NONE)
+				.run("--throughput.report-every-ms=100")) {
+
+			InputDestination source = context.getBean(InputDestination.class);
+			source.send(MessageBuilder.withPayload("hello").build());
+			source.send(MessageBuilder.withPayload(new byte[] { 1, 2, 3 }).build());
+			Awaitility.await().until(() -> output.getOut().split("Throughput:").length > 5);
+
+			MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+			assertThat(meterRegistry.get("throughput.messages").functionCounter().count()).isEqualTo(2.0);
+			assertThat(meterRegistry.get("throughput.bytes").functionCounter().count()).isEqualTo(8.0);
+			assertThat(meterRegistry.get("throughput.messages.rate").gauge().value()).isZero();
+			assertThat(meterRegistry.get("throughput.megabytes.rate").gauge()).isNotNull();
+		}
+	}
+
+	@Test
+	public void testReportsLatency(CapturedOutput output) {
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+				TestChannelBinderConfiguration
+						.getCompleteConfiguration(ThroughputSinkTestConfiguration.class))
+				.web(WebApplicationType.NONE)
+				.run("--throughput.report-every-ms=100", "--throughput.latency.enabled=true")) {
+
+			InputDestination source = context.getBean(InputDestination.class);
+			source.send(MessageBuilder.withPayload("hello")
+					.setHeader("sendTimestamp", System.currentTimeMillis() - 20).build());
+			Awaitility.await().until(output::getOut, value -> value.contains("Latency:") && value.contains("(total)"));
+			assertThat(context.getBean(LatencyEndpoint.class).latency()).containsKeys("interval", "total");
+		}
+	}
+
+	@Test
+	public void testReportsSequenceErrors(CapturedOutput output) {
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+				TestChannelBinderConfiguration
+						.getCompleteConfiguration(ThroughputSinkTestConfiguration.class))
+				.web(WebApplicationType.NONE)
+				.run("--throughput.report-every-ms=100", "--throughput.sequence.enabled=true")) {
+
+			InputDestination source = context.getBean(InputDestination.class);
+			for (long sequence : new long[] { 1, 3, 2, 3 }) {
+				source.send(MessageBuilder.withPayload("hello").setHeader("sequence", sequence).build());
+			}
+			Awaitility.await().until(output::getOut,
+					value -> value.contains("Sequence: gaps = 0, duplicates = 1, out of order = 1"));
+		}
+	}
+
+	@Test
+	public void testBatchMode(CapturedOutput output) {
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+				TestChannelBinderConfiguration
+						.getCompleteConfiguration(ThroughputSinkMetricsTestConfiguration.class))
+				.web(WebApplicationType.NONE)
+				.run("--throughput.report-every-ms=100", "--throughput.batch-mode=true",
+						"--spring.cloud.stream.bindings.throughputConsumer-in-0.consumer.batch-mode=true")) {
+
+			InputDestination source = context.getBean(InputDestination.class);
+			source.send(MessageBuilder.withPayload(List.of("a".getBytes(), "bc".getBytes(), "def".getBytes())).build());
+			source.send(MessageBuilder.withPayload(List.of("g".getBytes())).build());
+			Awaitility.await().until(output::getOut, value -> value.contains("Batches:") && value.contains("(total)"));
+
+			MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+			assertThat(meterRegistry.get("throughput.messages").functionCounter().count()).isEqualTo(4.0);
+			assertThat(meterRegistry.get("throughput.bytes").functionCounter().count()).isEqualTo(7.0);
+			assertThat(meterRegistry.get("throughput.batches").functionCounter().count()).isEqualTo(2.0);
+			assertThat(meterRegistry.get("throughput.batch.size").summary().max()).isEqualTo(3.0);
+		}
+	}
+
+	@Test
+	public void testBatchModeVerifiesSequencePerRecord(CapturedOutput output) {
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+				TestChannelBinderConfiguration
+						.getCompleteConfiguration(ThroughputSinkTestConfiguration.class))
+				.web(WebApplicationType.NONE)
+				.run("--throughput.report-every-ms=100", "--throughput.batch-mode=true",
+						"--throughput.sequence.enabled=true",
+						"--spring.cloud.stream.bindings.throughputConsumer-in-0.consumer.batch-mode=true")) {
+
+			InputDestination source = context.getBean(InputDestination.class);
+			source.send(MessageBuilder.withPayload(List.of("a", "b", "c", "d"))
+					.setHeader(BinderHeaders.BATCH_HEADERS, List.of(Map.of("sequence", 1L), Map.of("sequence", 3L),
+							Map.of("sequence", 2L), Map.of("sequence", 3L)))
+					.build());
+			Awaitility.await().until(output::getOut,
+					value -> value.contains("Sequence: gaps = 0, duplicates = 1, out of order = 1"));
+		}
+	}
+
 	@EnableAutoConfiguration
 	@Import(ThroughputSinkConfiguration.class)
 	public static class ThroughputSinkTestConfiguration {
 	}
+
+	@EnableAutoConfiguration
+	@Import(ThroughputSinkConfiguration.class)
+	public static class ThroughputSinkMetricsTestConfiguration {
+
+		@Bean
+		public MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+
+	}
 }
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.source.load.generator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Reads the messages of a capture file through a memory-mapped {@link FileChannel}, so the operating system pages
+ * the file in without copying it through user space buffers.
+ * <p>
+ * A capture file, as written by the throughput sink, starts with the {@code SCAP} magic number and the format version,
+ * as 4 byte integers, followed by one record per message. Every record is prefixed by its length in bytes, as a 4
+ * byte integer, and holds:
+ * <ul>
+ * <li>the time the message was captured, in nanoseconds since the first message, as an 8 byte integer</li>
+ * <li>the number of headers as a 2 byte integer, followed by, for every header, its name prefixed by its length as a
+ * 2 byte integer and its value prefixed by its length as a 4 byte integer, both UTF-8 encoded</li>
+ * <li>the payload, prefixed by its length as a 4 byte integer</li>
+ * </ul>
+ * All integers are big-endian. Files larger than what a single buffer can map are mapped in regions.
+ */
+class CaptureReader implements Closeable {
+
+	static final int MAGIC = 0x53434150;
+
+	static final int VERSION = 1;
+
+	private static final Log logger = LogFactory.getLog(CaptureReader.class);
+
+	private static final int FILE_HEADER_SIZE = 8;
+
+	/**
+	 * The largest region of the file mapped at once.
+	 */
+	private static final long MAX_REGION = 1L << 30;
+
+	private final Path file;
+
+	private final FileChannel channel;
+
+	private final long size;
+
+	private MappedByteBuffer region;
+
+	private long regionStart;
+
+	private long position;
+
+	private long timeNanos;
+
+	private Map<String, Object> headers;
+
+	private byte[] payload;
+
+	CaptureReader(Path file) throws IOException {
+		this.file = file;
+		this.channel = FileChannel.open(file, StandardOpenOption.READ);
+		this.size = this.channel.size();
+		if (this.size < FILE_HEADER_SIZE) {
+			this.channel.close();
+			throw new IllegalStateException(file + " is not a capture file");
+		}
+		map(0);
+		if (this.region.getInt(0) != MAGIC || this.region.getInt(4) != VERSION) {
+			this.channel.close();
+			throw new IllegalStateException(file + " is not a capture file of version " + VERSION);
+		}
+		this.position = FILE_HEADER_SIZE;
+	}
+
+	/**
+	 * Read the next message.
+	 * @return whether there was a next message, false at the end of the file
+	 */
+	boolean next() throws IOException {
+		if (this.position + 4 > this.size) {
+			return false;
+		}
+		ensureMapped(4);
+		int length = this.region.getInt((int) (this.position - this.regionStart));
+		if (length < 0 || length > MAX_REGION - 4 || this.position + 4 + length > this.size) {
+			// the capture was interrupted while writing the last record
+			logger.warn(String.format("Ignoring the truncated record at %d of %s", this.position, this.file));
+			this.position = this.size;
+			return false;
+		}
+		ensureMapped(4 + length);
+		ByteBuffer record = this.region.duplicate();
+		record.position((int) (this.position - this.regionStart) + 4);
+		this.timeNanos = record.getLong();
+		int headerCount = Short.toUnsignedInt(record.getShort());
+		this.headers = new HashMap<>(headerCount * 2);
+		for (int i = 0; i < headerCount; i++) {
+			String name = readString(record, Short.toUnsignedInt(record.getShort()));
+			this.headers.put(name, readString(record, record.getInt()));
+		}
+		// the payload is copied out of the mapped region, which is unmapped once the file is read
+		this.payload = new byte[record.getInt()];
+		record.get(this.payload);
+		this.position += 4 + length;
+		return true;
+	}
+
+	/**
+	 * Go back to the first message.
+	 */
+	void rewind() throws IOException {
+		this.position = FILE_HEADER_SIZE;
+		if (this.regionStart != 0) {
+			map(0);
+		}
+	}
+
+	long getTimeNanos() {
+		return this.timeNanos;
+	}
+
+	Map<String, Object> getHeaders() {
+		return this.headers;
+	}
+
+	byte[] getPayload() {
+		return this.payload;
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.channel.close();
+	}
+
+	private void ensureMapped(int length) throws IOException {
+		if (this.position + length > this.regionStart + this.region.limit()) {
+			map(this.position);
+		}
+	}
+
+	private void map(long start) throws IOException {
+		this.region = this.channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(this.size - start, MAX_REGION));
+		this.regionStart = start;
+	}
+
+	private static String readString(ByteBuffer buffer, int length) {
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.source.load.generator;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.cloud.stream.app.source.load.generator.LoadGeneratorSourceProperties.KeyStrategy;
+import org.springframework.util.Assert;
+
+/**
+ * Picks the key of every message among a set of keys created at startup, in turn, uniformly or following a Zipf
+ * distribution where a few hot keys get most messages, and counts the messages sent with every key.
+ */
+class KeyGenerator {
+
+	private static final Log logger = LogFactory.getLog(KeyGenerator.class);
+
+	/**
+	 * The number of keys whose count is logged, the most used first.
+	 */
+	private static final int REPORTED_KEYS = 20;
+
+	private final KeyStrategy strategy;
+
+	private final String[] keys;
+
+	private final LongAdder[] counts;
+
+	/**
+	 * The cumulative probabilities of the keys for a Zipf distribution.
+	 */
+	private final double[] zipf;
+
+	KeyGenerator(LoadGeneratorSourceProperties properties) {
+		this.strategy = properties.getKeyStrategy();
+		if (this.strategy == KeyStrategy.FIXED) {
+			List<String> keys = properties.getKeys();
+			Assert.notEmpty(keys, "Keys are required for the fixed key strategy");
+			this.keys = keys.toArray(new String[0]);
+		}
+		else {
+			Assert.isTrue(properties.getKeyCount() > 0, "The key count must be positive");
+			this.keys = new String[properties.getKeyCount()];
+			for (int i = 0; i < this.keys.length; i++) {
+				this.keys[i] = "key-" + i;
+			}
+		}
+		this.counts = new LongAdder[this.keys.length];
+		for (int i = 0; i < this.counts.length; i++) {
+			this.counts[i] = new LongAdder();
+		}
+		this.zipf = (this.strategy == KeyStrategy.ZIPF) ? zipf(this.keys.length, properties.getZipfExponent()) : null;
+	}
+
+	/**
+	 * The key of the next message of a producer.
+	 * @param producerId the id of the producer
+	 * @param sequence the number of messages sent by the producer before this one
+	 */
+	String next(int producerId, long sequence) {
+		int index = index(producerId, sequence);
+		this.counts[index].increment();
+		return this.keys[index];
+	}
+
+	private int index(int producerId, long sequence) {
+		switch (this.strategy) {
+			case SEQUENTIAL:
+				return (int) Math.floorMod(producerId + sequence, (long) this.keys.length);
+			case ZIPF:
+				int index = Arrays.binarySearch(this.zipf, ThreadLocalRandom.current().nextDouble());
+				// the insertion point of a value between two cumulative probabilities is the index of the key
+				return Math.min((index >= 0) ? index : -index - 1, this.keys.length - 1);
+			default:
+				return ThreadLocalRandom.current().nextInt(this.keys.length);
+		}
+	}
+
+	/**
+	 * Log the number of messages sent with the most used keys.
+	 */
+	void report() {
+		long total = Arrays.stream(this.counts).mapToLong(LongAdder::sum).sum();
+		String top = IntStream.range(0, this.keys.length).boxed()
+				.sorted(Comparator.comparingLong((Integer i) -> this.counts[i].sum()).reversed())
+				.limit(REPORTED_KEYS)
+				.map(i -> this.keys[i] + "=" + this.counts[i].sum())
+				.collect(Collectors.joining(", "));
+		logger.info(String.format("Keys: %d messages over %d keys, mean %.1f per key, most used: %s",
+				total, this.keys.length, (double) total / this.keys.length, top));
+	}
+
+	long getCount(String key) {
+		for (int i = 0; i < this.keys.length; i++) {
+			if (this.keys[i].equals(key)) {
+				return this.counts[i].sum();
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * The cumulative probabilities of the ranks of a Zipf distribution, where the probability of rank k is
+	 * proportional to 1 / k^exponent.
+	 */
+	static double[] zipf(int size, double exponent) {
+		double[] cumulative = new double[size];
+		double sum = 0;
+		for (int k = 0; k < size; k++) {
+			sum += 1 / Math.pow(k + 1, exponent);
+			cumulative[k] = sum;
+		}
+		for (int k = 0; k < size; k++) {
+			cumulative[k] /= sum;
+		}
+		return cumulative;
+	}
+
+}
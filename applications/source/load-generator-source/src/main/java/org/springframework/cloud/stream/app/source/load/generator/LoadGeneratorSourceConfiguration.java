@@ -1,5 +1,5 @@
 /*
- * Copyright 2015-2020 the original author or authors.
+ * Copyright 2015-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,27 +16,51 @@
 
 package org.springframework.cloud.stream.app.source.load.generator;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Supplier;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import reactor.core.publisher.EmitterProcessor;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.stream.app.source.load.generator.LoadGeneratorSourceProperties.KeyStrategy;
+import org.springframework.cloud.stream.app.source.load.generator.LoadGeneratorSourceProperties.ProducerThreads;
+import org.springframework.cloud.stream.app.source.load.generator.LoadGeneratorSourceProperties.TimestampLocation;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.integration.endpoint.AbstractEndpoint;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.support.GenericMessage;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
 
 /**
- * A source that sends a set amount of empty byte array messages to verify the speed
- * of the infrastructure.
+ * A source that sends a set amount of messages, with payloads of a configured size and
+ * content, to verify the speed of the infrastructure, optionally carrying their send timestamp and sequence number
+ * for the throughput sink to measure latency and verify delivery, or that replays the
+ * messages of a capture file recorded by the throughput sink.
+ * <p>
+ * The producers emit into a bounded buffer that the binder drains on demand: a producer
+ * waits while the buffer is full, so the binder is never flooded. With a target rate,
+ * every producer is paced by a {@link TokenBucket} and reports the rate it achieved.
  *
  * @author Glenn Renfro
  * @author Gary Russell
@@ -46,78 +70,428 @@ import org.springframework.messaging.support.GenericMessage;
 @EnableConfigurationProperties({LoadGeneratorSourceProperties.class})
 public class LoadGeneratorSourceConfiguration {
 
-	private static final Log logger = LogFactory.getLog(LoadGeneratorSourceConfiguration.class);
+	/**
+	 * The header holding the send timestamp, in milliseconds since the epoch.
+	 */
+	public static final String TIMESTAMP_HEADER = "sendTimestamp";
+
+	/**
+	 * The header holding the id of the producer of a message.
+	 */
+	public static final String PRODUCER_HEADER = "producer";
 
-	private final EmitterProcessor<Message<?>> processor = EmitterProcessor.create();
+	/**
+	 * The header holding the sequence number of a message, counted from 0 for every producer.
+	 */
+	public static final String SEQUENCE_HEADER = "sequence";
+
+	private static final Log logger = LogFactory.getLog(LoadGeneratorSourceConfiguration.class);
 
 	@Autowired
 	private LoadGeneratorSourceProperties properties;
 
 	@Bean
-	public Supplier<Flux<Message<?>>> loadGeneratorSupplier() {
-		return () -> processor;
+	public Supplier<Flux<Message<?>>> loadGeneratorSupplier(LoadGeneratorEndpoint loadGeneratorEndpoint) {
+		return loadGeneratorEndpoint::asFlux;
 	}
 
 	@Bean
 	public LoadGeneratorEndpoint loadGeneratorEndpoint() {
-		return new LoadGeneratorEndpoint(properties, processor);
+		return new LoadGeneratorEndpoint(properties);
 	}
 
 	static class LoadGeneratorEndpoint extends AbstractEndpoint {
 
+		/**
+		 * How long a producer waits before emitting again into a full buffer.
+		 */
+		private static final long BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
 		private final LoadGeneratorSourceProperties properties;
-		private final EmitterProcessor<Message<?>> processor;
+		private final Sinks.Many<Message<?>> sink;
+		private final PayloadPool payloadPool;
 		private final AtomicBoolean running = new AtomicBoolean(false);
+		private volatile KeyGenerator keyGenerator;
 		private volatile ExecutorService executorService;
+		private volatile Executor producerExecutor;
 
-		LoadGeneratorEndpoint(LoadGeneratorSourceProperties properties, EmitterProcessor<Message<?>> processor) {
+		LoadGeneratorEndpoint(LoadGeneratorSourceProperties properties) {
 			this.properties = properties;
-			this.processor = processor;
+			this.payloadPool = PayloadPool.create(properties);
+			Assert.isTrue(!properties.isGenerateTimestamp()
+					|| properties.getTimestampLocation() == TimestampLocation.HEADER || minPayloadSize() >= 8,
+					"Payloads of at least 8 bytes are required for the timestamp to be written to the payload");
+			Assert.isTrue(properties.getProducerThreads() != ProducerThreads.SHARED
+					|| (properties.getMessageRate() > 0 && properties.getPhases().isEmpty()),
+					"Producers on shared threads require a message rate and no phases");
+			Assert.isTrue(properties.getProducerThreads() != ProducerThreads.VIRTUAL
+					|| Runtime.version().feature() >= 21,
+					"Virtual producer threads require Java 21 or later, running on Java " + Runtime.version());
+			Assert.isTrue(properties.getProducers() > 0, "At least one producer is required");
+			Assert.isTrue(properties.getProducerSteps().stream()
+					.allMatch(producers -> producers != null && producers > 0),
+					"Every step of producers requires at least one producer");
+			this.sink = Sinks.many().unicast()
+					.onBackpressureBuffer(Queues.<Message<?>>get(properties.getBufferSize()).get());
+		}
+
+		private int minPayloadSize() {
+			int size = Integer.MAX_VALUE;
+			for (int i = 0; i < this.payloadPool.size(); i++) {
+				size = Math.min(size, this.payloadPool.getPayload(i).length);
+			}
+			return size;
+		}
+
+		Flux<Message<?>> asFlux() {
+			return this.sink.asFlux();
 		}
 
 		@Override
 		protected void doStart() {
 			if (running.compareAndSet(false, true)) {
-				this.executorService = Executors.newFixedThreadPool(this.properties.getProducers());
-				for (int i = 0; i < properties.getProducers(); i++) {
-					this.executorService.execute(new Producer(i, this.processor,
-							this.properties.getMessageCount(), this.properties.getMessageSize()));
+				if (this.properties.getReplay().getFile() != null) {
+					this.executorService = Executors.newSingleThreadExecutor();
+					this.executorService.execute(new Replayer(this.properties.getReplay()));
+					return;
 				}
+				this.keyGenerator = (this.properties.getKeyStrategy() == KeyStrategy.NONE) ? null
+						: new KeyGenerator(this.properties);
+				this.producerExecutor = createProducerExecutor();
+				this.executorService = Executors.newSingleThreadExecutor();
+				this.executorService.execute(this::runProducers);
 			}
 		}
 
 		@Override
 		protected void doStop() {
 			if (running.compareAndSet(true, false)) {
-				executorService.shutdown();
+				// the producers complete once they see that the endpoint is stopped
+				executorService.shutdownNow();
+				if (this.producerExecutor instanceof ExecutorService) {
+					((ExecutorService) this.producerExecutor).shutdown();
+				}
+				else if (this.producerExecutor instanceof SimpleAsyncTaskExecutor) {
+					((SimpleAsyncTaskExecutor) this.producerExecutor).close();
+				}
 			}
 		}
 
-		private static class Producer implements Runnable {
-			private final int producerId;
+		KeyGenerator getKeyGenerator() {
+			return this.keyGenerator;
+		}
+
+		private Executor createProducerExecutor() {
+			switch (this.properties.getProducerThreads()) {
+				case VIRTUAL:
+					SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("load-generator-");
+					executor.setVirtualThreads(true);
+					return executor;
+				case SHARED:
+					int threads = (this.properties.getSchedulerThreads() > 0) ? this.properties.getSchedulerThreads()
+							: Runtime.getRuntime().availableProcessors();
+					return new ScheduledThreadPoolExecutor(threads, new CustomizableThreadFactory("load-generator-"));
+				default:
+					return Executors.newCachedThreadPool(new CustomizableThreadFactory("load-generator-"));
+			}
+		}
+
+		/**
+		 * Run the producers, or every step of producers in turn, and log how the aggregate rate scaled with their
+		 * number.
+		 */
+		private void runProducers() {
+			List<Integer> steps = this.properties.getProducerSteps().isEmpty()
+					? List.of(this.properties.getProducers()) : this.properties.getProducerSteps();
+			List<ProducerRun> runs = new ArrayList<>();
+			int firstProducerId = 0;
+			try {
+				for (int producers : steps) {
+					if (!this.running.get()) {
+						break;
+					}
+					ProducerRun run = startProducers(firstProducerId, producers);
+					// every producer has an id of its own, so that the sequences of different steps are not mixed
+					firstProducerId += producers;
+					run.await();
+					runs.add(run);
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			if (this.keyGenerator != null) {
+				this.keyGenerator.report();
+			}
+			if (runs.size() > 1) {
+				StringBuilder report = new StringBuilder("Scaling of the aggregate rate with the number of producers:");
+				for (ProducerRun run : runs) {
+					report.append(System.lineSeparator()).append(run.summary());
+				}
+				LoadGeneratorSourceConfiguration.logger.info(report);
+			}
+		}
+
+		private ProducerRun startProducers(int firstProducerId, int producers) {
+			LoadProfile loadProfile = this.properties.getPhases().isEmpty() ? null
+					: new LoadProfile(this.properties.getPhases(), producers);
+			ProducerRun run = new ProducerRun(producers, this.properties.getProducerThreads().name().toLowerCase(),
+					(loadProfile != null) ? 0 : this.properties.getMessageRate());
+			for (int i = 0; i < producers; i++) {
+				int producerId = firstProducerId + i;
+				MessageGenerator messageGenerator = new MessageGenerator(producerId, this.payloadPool,
+						this.keyGenerator, this.properties);
+				if (this.properties.getProducerThreads() == ProducerThreads.SHARED) {
+					this.producerExecutor.execute(new ScheduledProducer(producerId, this.properties.getMessageCount(),
+							this.properties.getMessageRate(), messageGenerator, run));
+				}
+				else {
+					this.producerExecutor.execute(new Producer(producerId, this.properties.getMessageCount(),
+							this.properties.getMessageRate(), loadProfile, messageGenerator, run));
+				}
+			}
+			return run;
+		}
 
-			private final EmitterProcessor<Message<?>> processor;
+		/**
+		 * Emit the message, waiting while the buffer is full or another producer is emitting.
+		 * @return whether the message was emitted, false if the endpoint was stopped or the sink terminated
+		 */
+		private boolean emit(Message<?> message) {
+			while (this.running.get()) {
+				Sinks.EmitResult result = this.sink.tryEmitNext(message);
+				switch (result) {
+					case OK:
+						return true;
+					case FAIL_NON_SERIALIZED:
+						Thread.onSpinWait();
+						break;
+					case FAIL_OVERFLOW:
+					case FAIL_ZERO_SUBSCRIBER:
+						LockSupport.parkNanos(BACKOFF_NANOS);
+						break;
+					default:
+						return false;
+				}
+			}
+			return false;
+		}
+
+		private class Producer implements Runnable {
+			private final int producerId;
 
 			private final int messageCount;
 
-			private final int messageSize;
+			private final TokenBucket tokenBucket;
 
-			Producer(int producerId, EmitterProcessor<Message<?>> processor, int messageCount, int messageSize) {
+			private final LoadProfile loadProfile;
+
+			private final MessageGenerator messageGenerator;
+
+			private final ProducerRun run;
+
+			private long sent;
+
+			Producer(int producerId, int messageCount, double messageRate, LoadProfile loadProfile,
+					MessageGenerator messageGenerator, ProducerRun run) {
 				this.producerId = producerId;
-				this.processor = processor;
 				this.messageCount = messageCount;
-				this.messageSize = messageSize;
+				this.tokenBucket = (messageRate > 0) ? new TokenBucket(messageRate) : null;
+				this.loadProfile = loadProfile;
+				this.messageGenerator = messageGenerator;
+				this.run = run;
 			}
 
 			@Override
 			public void run() {
-				LoadGeneratorSourceConfiguration.logger.info(String.format("Producer %d sending %d messages", this.producerId, this.messageCount));
-				Message<byte[]> message = new GenericMessage<>(new byte[this.messageSize]);
-				for (int i = 0; i < this.messageCount; i++) {
-					this.processor.onNext(message);
+				try {
+					if (this.loadProfile != null) {
+						runPhases();
+					}
+					else {
+						runMessageCount();
+					}
+				}
+				finally {
+					this.run.completed(this.sent);
+				}
+			}
+
+			private void runMessageCount() {
+				LoadGeneratorSourceConfiguration.logger.info(
+						String.format("Producer %d sending %d messages", this.producerId, this.messageCount));
+				long start = System.nanoTime();
+				while (this.sent < this.messageCount) {
+					if (this.tokenBucket != null) {
+						this.tokenBucket.acquire();
+					}
+					if (!emit(this.messageGenerator.next(this.sent))) {
+						break;
+					}
+					this.sent++;
+				}
+				report(this.sent, System.nanoTime() - start);
+				LoadGeneratorSourceConfiguration.logger.info("All Messages Dispatched");
+			}
+
+			private void runPhases() {
+				for (int i = 0; i < this.loadProfile.size(); i++) {
+					long start = System.nanoTime();
+					long duration = this.loadProfile.getPhase(i).getDuration().toNanos();
+					boolean paced = this.loadProfile.isPaced(i);
+					long sent = 0;
+					long next = 0;
+					long due = 0;
+					for (long elapsed = 0; elapsed < duration; elapsed = System.nanoTime() - start) {
+						if (paced) {
+							if (due < elapsed - TokenBucket.BURST_NANOS) {
+								// as with a token bucket, the messages beyond the burst that could not be sent
+								// are skipped
+								next = (long) Math.ceil(
+										this.loadProfile.messagesAt(i, elapsed - TokenBucket.BURST_NANOS));
+								due = this.loadProfile.dueAt(i, next);
+							}
+							if (due >= duration) {
+								TokenBucket.waitUntil(start + duration);
+								break;
+							}
+							TokenBucket.waitUntil(start + due);
+						}
+						if (!emit(this.messageGenerator.next(this.sent))) {
+							return;
+						}
+						this.sent++;
+						sent++;
+						if (paced) {
+							due = this.loadProfile.dueAt(i, ++next);
+						}
+					}
+					this.loadProfile.completed(i, sent, System.nanoTime() - start);
 				}
 				LoadGeneratorSourceConfiguration.logger.info("All Messages Dispatched");
 			}
+
+			private void report(long sent, long elapsedNanos) {
+				double elapsed = elapsedNanos / 1e9;
+				String target = (this.tokenBucket != null)
+						? String.format("%.2f/s", this.tokenBucket.getRate()) : "unlimited";
+				LoadGeneratorSourceConfiguration.logger.info(
+						String.format("Producer %d sent %d messages in %.3fs = %.2f/s, target %s",
+								this.producerId, sent, elapsed, sent / elapsed, target));
+			}
+		}
+
+		/**
+		 * A producer that sends its messages from the threads of a shared scheduler, scheduling itself again until
+		 * its next message is due, so that many paced producers need only a few threads.
+		 */
+		private class ScheduledProducer implements Runnable {
+
+			private final int producerId;
+
+			private final int messageCount;
+
+			private final TokenBucket tokenBucket;
+
+			private final MessageGenerator messageGenerator;
+
+			private final ProducerRun run;
+
+			private long sent;
+
+			ScheduledProducer(int producerId, int messageCount, double messageRate, MessageGenerator messageGenerator,
+					ProducerRun run) {
+				this.producerId = producerId;
+				this.messageCount = messageCount;
+				this.tokenBucket = new TokenBucket(messageRate);
+				this.messageGenerator = messageGenerator;
+				this.run = run;
+			}
+
+			@Override
+			public void run() {
+				while (this.sent < this.messageCount && running.get()) {
+					long wait = this.tokenBucket.tryAcquire();
+					if (wait > 0) {
+						try {
+							((ScheduledExecutorService) producerExecutor).schedule(this, wait, TimeUnit.NANOSECONDS);
+							return;
+						}
+						catch (RejectedExecutionException e) {
+							break;
+						}
+					}
+					if (!emit(this.messageGenerator.next(this.sent))) {
+						break;
+					}
+					this.sent++;
+				}
+				if (LoadGeneratorSourceConfiguration.logger.isDebugEnabled()) {
+					LoadGeneratorSourceConfiguration.logger.debug(String.format("Producer %d sent %d messages",
+							this.producerId, this.sent));
+				}
+				this.run.completed(this.sent);
+			}
+		}
+
+		/**
+		 * Sends the messages of a capture file, as a single producer to keep their order.
+		 */
+		private class Replayer implements Runnable {
+
+			private final LoadGeneratorSourceProperties.Replay replay;
+
+			Replayer(LoadGeneratorSourceProperties.Replay replay) {
+				this.replay = replay;
+			}
+
+			@Override
+			public void run() {
+				TokenBucket tokenBucket = (this.replay.getRate() > 0) ? new TokenBucket(this.replay.getRate()) : null;
+				long start = System.nanoTime();
+				long sent = 0;
+				try (CaptureReader reader = new CaptureReader(this.replay.getFile().toPath())) {
+					LoadGeneratorSourceConfiguration.logger.info("Replaying " + this.replay.getFile());
+					long replayStart = start;
+					boolean empty = true;
+					while (running.get()) {
+						if (!reader.next()) {
+							if (!this.replay.isLoop() || empty) {
+								break;
+							}
+							reader.rewind();
+							replayStart = System.nanoTime();
+							continue;
+						}
+						empty = false;
+						if (tokenBucket != null) {
+							tokenBucket.acquire();
+						}
+						else if (this.replay.getSpeed() > 0) {
+							TokenBucket.waitUntil(
+									replayStart + (long) (reader.getTimeNanos() / this.replay.getSpeed()));
+						}
+						Map<String, Object> headers = reader.getHeaders();
+						if (properties.isGenerateTimestamp()) {
+							headers.put(TIMESTAMP_HEADER, System.currentTimeMillis());
+						}
+						if (properties.isGenerateSequence()) {
+							headers.put(PRODUCER_HEADER, 0);
+							headers.put(SEQUENCE_HEADER, sent);
+						}
+						if (!emit(new GenericMessage<>(reader.getPayload(), headers))) {
+							break;
+						}
+						sent++;
+					}
+				}
+				catch (IOException e) {
+					throw new UncheckedIOException("Failed to replay " + this.replay.getFile(), e);
+				}
+				double elapsed = (System.nanoTime() - start) / 1e9;
+				LoadGeneratorSourceConfiguration.logger.info(String.format("Replayed %d messages in %.3fs = %.2f/s",
+						sent, elapsed, sent / elapsed));
+			}
 		}
 	}
 }
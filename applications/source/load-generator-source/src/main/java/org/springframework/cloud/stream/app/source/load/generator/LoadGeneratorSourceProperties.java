@@ -1,5 +1,5 @@
 /*
- * Copyright 2013-2020 the original author or authors.
+ * Copyright 2013-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,7 +16,13 @@
 
 package org.springframework.cloud.stream.app.source.load.generator;
 
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.core.io.Resource;
 
 /**
  * Holds configuration options for the LoadGenerator source.
@@ -31,6 +37,23 @@ public class LoadGeneratorSourceProperties {
 	 */
 	private int producers = 1;
 
+	/**
+	 * Numbers of producers to run in turn instead of 'producers', each run logged with the aggregate rate achieved,
+	 * to find the number from which the binder does not scale anymore.
+	 */
+	private List<Integer> producerSteps = new ArrayList<>();
+
+	/**
+	 * Threads the producers run on.
+	 */
+	private ProducerThreads producerThreads = ProducerThreads.PLATFORM;
+
+	/**
+	 * Number of threads of the scheduler shared by the producers with 'SHARED' producer threads, the number of
+	 * processors when 0.
+	 */
+	private int schedulerThreads = 0;
+
 	/**
 	 * Message size.
 	 */
@@ -46,6 +69,89 @@ public class LoadGeneratorSourceProperties {
 	 */
 	private boolean generateTimestamp = false;
 
+	/**
+	 * Where the send timestamp, in milliseconds since the epoch, is written.
+	 */
+	private TimestampLocation timestampLocation = TimestampLocation.HEADER;
+
+	/**
+	 * Whether the messages carry the producer id and a sequence number.
+	 */
+	private boolean generateSequence = false;
+
+	/**
+	 * Target messages per second of every producer, 0 for as fast as the binder accepts them.
+	 */
+	private double messageRate = 0;
+
+	/**
+	 * Number of messages buffered ahead of the binder, the producers waiting while it is full.
+	 */
+	private int bufferSize = 256;
+
+	/**
+	 * Phases of the load profile, run in order by every producer instead of sending 'message-count' messages.
+	 */
+	private List<Phase> phases = new ArrayList<>();
+
+	/**
+	 * How the payloads are generated.
+	 */
+	private PayloadType payloadType = PayloadType.ZEROS;
+
+	/**
+	 * Fraction of the blocks of random payloads that repeat a single byte, from 0 for incompressible payloads to 1.
+	 */
+	private double compressibility = 0.5;
+
+	/**
+	 * Template of JSON payloads, with {{int}}, {{long}}, {{double}}, {{boolean}}, {{string}} and {{uuid}}
+	 * placeholders replaced by random values.
+	 */
+	private String jsonTemplate =
+			"{\"id\":\"{{uuid}}\",\"name\":\"{{string}}\",\"count\":{{int}},\"value\":{{double}},\"active\":{{boolean}}}";
+
+	/**
+	 * File of corpus payloads, one per line, sampled into the payload pool.
+	 */
+	private Resource corpusFile;
+
+	/**
+	 * Number of distinct payloads generated at startup, or sampled from the corpus, and sent in turn.
+	 */
+	private int payloadPoolSize = 1024;
+
+	/**
+	 * How the key of every message is picked.
+	 */
+	private KeyStrategy keyStrategy = KeyStrategy.NONE;
+
+	/**
+	 * Number of keys, named key-0 to key-N, for the sequential, uniform and Zipf key strategies.
+	 */
+	private int keyCount = 100;
+
+	/**
+	 * Exponent of the Zipf key distribution; the higher, the more messages get the hottest keys.
+	 */
+	private double zipfExponent = 1.0;
+
+	/**
+	 * Keys of the fixed key strategy.
+	 */
+	private List<String> keys = new ArrayList<>();
+
+	/**
+	 * Header holding the key of every message, to be used for partitioning, for instance with a
+	 * 'partition-key-expression' of headers['partitionKey'] or with the 'kafka_messageKey' header.
+	 */
+	private String keyHeader = "partitionKey";
+
+	/**
+	 * Replay of the messages of a capture file instead of generated ones.
+	 */
+	private final Replay replay = new Replay();
+
 	public int getProducers() {
 		return producers;
 	}
@@ -54,6 +160,30 @@ public class LoadGeneratorSourceProperties {
 		this.producers = producers;
 	}
 
+	public List<Integer> getProducerSteps() {
+		return producerSteps;
+	}
+
+	public void setProducerSteps(List<Integer> producerSteps) {
+		this.producerSteps = producerSteps;
+	}
+
+	public ProducerThreads getProducerThreads() {
+		return producerThreads;
+	}
+
+	public void setProducerThreads(ProducerThreads producerThreads) {
+		this.producerThreads = producerThreads;
+	}
+
+	public int getSchedulerThreads() {
+		return schedulerThreads;
+	}
+
+	public void setSchedulerThreads(int schedulerThreads) {
+		this.schedulerThreads = schedulerThreads;
+	}
+
 	public int getMessageSize() {
 		return messageSize;
 	}
@@ -77,4 +207,333 @@ public class LoadGeneratorSourceProperties {
 	public void setGenerateTimestamp(boolean generateTimestamp) {
 		this.generateTimestamp = generateTimestamp;
 	}
+
+	public TimestampLocation getTimestampLocation() {
+		return timestampLocation;
+	}
+
+	public void setTimestampLocation(TimestampLocation timestampLocation) {
+		this.timestampLocation = timestampLocation;
+	}
+
+	public boolean isGenerateSequence() {
+		return generateSequence;
+	}
+
+	public void setGenerateSequence(boolean generateSequence) {
+		this.generateSequence = generateSequence;
+	}
+
+	public double getMessageRate() {
+		return messageRate;
+	}
+
+	public void setMessageRate(double messageRate) {
+		this.messageRate = messageRate;
+	}
+
+	public int getBufferSize() {
+		return bufferSize;
+	}
+
+	public void setBufferSize(int bufferSize) {
+		this.bufferSize = bufferSize;
+	}
+
+	public List<Phase> getPhases() {
+		return phases;
+	}
+
+	public void setPhases(List<Phase> phases) {
+		this.phases = phases;
+	}
+
+	public PayloadType getPayloadType() {
+		return payloadType;
+	}
+
+	public void setPayloadType(PayloadType payloadType) {
+		this.payloadType = payloadType;
+	}
+
+	public double getCompressibility() {
+		return compressibility;
+	}
+
+	public void setCompressibility(double compressibility) {
+		this.compressibility = compressibility;
+	}
+
+	public String getJsonTemplate() {
+		return jsonTemplate;
+	}
+
+	public void setJsonTemplate(String jsonTemplate) {
+		this.jsonTemplate = jsonTemplate;
+	}
+
+	public Resource getCorpusFile() {
+		return corpusFile;
+	}
+
+	public void setCorpusFile(Resource corpusFile) {
+		this.corpusFile = corpusFile;
+	}
+
+	public int getPayloadPoolSize() {
+		return payloadPoolSize;
+	}
+
+	public void setPayloadPoolSize(int payloadPoolSize) {
+		this.payloadPoolSize = payloadPoolSize;
+	}
+
+	public KeyStrategy getKeyStrategy() {
+		return keyStrategy;
+	}
+
+	public void setKeyStrategy(KeyStrategy keyStrategy) {
+		this.keyStrategy = keyStrategy;
+	}
+
+	public int getKeyCount() {
+		return keyCount;
+	}
+
+	public void setKeyCount(int keyCount) {
+		this.keyCount = keyCount;
+	}
+
+	public double getZipfExponent() {
+		return zipfExponent;
+	}
+
+	public void setZipfExponent(double zipfExponent) {
+		this.zipfExponent = zipfExponent;
+	}
+
+	public List<String> getKeys() {
+		return keys;
+	}
+
+	public void setKeys(List<String> keys) {
+		this.keys = keys;
+	}
+
+	public String getKeyHeader() {
+		return keyHeader;
+	}
+
+	public void setKeyHeader(String keyHeader) {
+		this.keyHeader = keyHeader;
+	}
+
+	public Replay getReplay() {
+		return replay;
+	}
+
+	public enum ProducerThreads {
+
+		/**
+		 * Every producer runs on a platform thread of its own.
+		 */
+		PLATFORM,
+
+		/**
+		 * Every producer runs on a virtual thread of its own; requires Java 21.
+		 */
+		VIRTUAL,
+
+		/**
+		 * The producers are paced by a scheduler with a few threads, sending their messages when due; requires a
+		 * 'message-rate'.
+		 */
+		SHARED
+
+	}
+
+	public enum KeyStrategy {
+
+		/**
+		 * The messages carry no key.
+		 */
+		NONE,
+
+		/**
+		 * Every producer uses the keys in turn.
+		 */
+		SEQUENTIAL,
+
+		/**
+		 * Every key is picked with the same probability.
+		 */
+		UNIFORM,
+
+		/**
+		 * The keys are picked following a Zipf distribution, key-0 being the hottest.
+		 */
+		ZIPF,
+
+		/**
+		 * The configured keys are picked with the same probability.
+		 */
+		FIXED
+
+	}
+
+	public enum PayloadType {
+
+		/**
+		 * Payloads of 'message-size' zero bytes.
+		 */
+		ZEROS,
+
+		/**
+		 * Payloads of 'message-size' random bytes, with the given compressibility.
+		 */
+		RANDOM,
+
+		/**
+		 * JSON documents generated from the JSON template.
+		 */
+		JSON,
+
+		/**
+		 * Payloads sampled from the lines of the corpus file.
+		 */
+		CORPUS
+
+	}
+
+	public enum TimestampLocation {
+
+		/**
+		 * The send timestamp is written to the 'sendTimestamp' header.
+		 */
+		HEADER,
+
+		/**
+		 * The send timestamp is written to the first 8 bytes of the payload, big-endian.
+		 */
+		PAYLOAD,
+
+		/**
+		 * The send timestamp is written to both the header and the payload.
+		 */
+		BOTH
+
+	}
+
+	public static class Phase {
+
+		/**
+		 * Name of the phase, such as warm-up, ramp, steady, spike or cool-down.
+		 */
+		private String name = "phase";
+
+		/**
+		 * Duration of the phase.
+		 */
+		private Duration duration = Duration.ofMinutes(1);
+
+		/**
+		 * Target messages per second of every producer at the start of the phase, 0 for as fast as the binder
+		 * accepts them.
+		 */
+		private double rate = 0;
+
+		/**
+		 * Target messages per second of every producer at the end of the phase, the rate changing linearly
+		 * during the phase; the start rate when not set.
+		 */
+		private Double endRate;
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public Duration getDuration() {
+			return duration;
+		}
+
+		public void setDuration(Duration duration) {
+			this.duration = duration;
+		}
+
+		public double getRate() {
+			return rate;
+		}
+
+		public void setRate(double rate) {
+			this.rate = rate;
+		}
+
+		public double getEndRate() {
+			return (endRate != null) ? endRate : rate;
+		}
+
+		public void setEndRate(Double endRate) {
+			this.endRate = endRate;
+		}
+	}
+
+	public static class Replay {
+
+		/**
+		 * Capture file whose messages are replayed, in the format written by the throughput sink.
+		 */
+		private File file;
+
+		/**
+		 * Speed of the replay relative to the capture, the messages being sent at their original inter-arrival
+		 * times scaled by this factor; 0 for as fast as the binder accepts them.
+		 */
+		private double speed = 1.0;
+
+		/**
+		 * Fixed messages per second of the replay, overriding the original inter-arrival times when set.
+		 */
+		private double rate = 0;
+
+		/**
+		 * Whether to replay the capture again from the start once done, until stopped.
+		 */
+		private boolean loop = false;
+
+		public File getFile() {
+			return file;
+		}
+
+		public void setFile(File file) {
+			this.file = file;
+		}
+
+		public double getSpeed() {
+			return speed;
+		}
+
+		public void setSpeed(double speed) {
+			this.speed = speed;
+		}
+
+		public double getRate() {
+			return rate;
+		}
+
+		public void setRate(double rate) {
+			this.rate = rate;
+		}
+
+		public boolean isLoop() {
+			return loop;
+		}
+
+		public void setLoop(boolean loop) {
+			this.loop = loop;
+		}
+	}
 }
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.source.load.generator;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.cloud.stream.app.source.load.generator.LoadGeneratorSourceProperties.Phase;
+
+/**
+ * A sequence of phases that every producer goes through, each for its duration at its own target rate, changing
+ * linearly from the start to the end rate of the phase for a ramp. Once every producer completed a phase, the
+ * messages sent by all of them are logged against the target.
+ * <p>
+ * The time every message of a phase is due is computed from the number of messages the target rate amounts to since
+ * the start of the phase, so that a ramp is followed exactly, even from a rate of 0.
+ */
+class LoadProfile {
+
+	private static final Log logger = LogFactory.getLog(LoadProfile.class);
+
+	private final List<Phase> phases;
+
+	private final int producers;
+
+	private final LongAdder[] sent;
+
+	private final LongAccumulator[] elapsed;
+
+	private final AtomicInteger[] completed;
+
+	LoadProfile(List<Phase> phases, int producers) {
+		this.phases = phases;
+		this.producers = producers;
+		this.sent = new LongAdder[phases.size()];
+		this.elapsed = new LongAccumulator[phases.size()];
+		this.completed = new AtomicInteger[phases.size()];
+		for (int i = 0; i < phases.size(); i++) {
+			this.sent[i] = new LongAdder();
+			this.elapsed[i] = new LongAccumulator(Math::max, 0);
+			this.completed[i] = new AtomicInteger();
+		}
+	}
+
+	int size() {
+		return this.phases.size();
+	}
+
+	Phase getPhase(int index) {
+		return this.phases.get(index);
+	}
+
+	/**
+	 * Whether the producers are paced during the phase, rather than sending as fast as possible.
+	 */
+	boolean isPaced(int index) {
+		Phase phase = this.phases.get(index);
+		return phase.getRate() > 0 || phase.getEndRate() > 0;
+	}
+
+	/**
+	 * The number of messages a producer should have sent at the given time into a paced phase.
+	 */
+	double messagesAt(int index, long elapsedNanos) {
+		Phase phase = this.phases.get(index);
+		double seconds = elapsedNanos / 1e9;
+		double acceleration = (phase.getEndRate() - phase.getRate()) / (phase.getDuration().toNanos() / 1e9);
+		return phase.getRate() * seconds + acceleration * seconds * seconds / 2;
+	}
+
+	/**
+	 * The time into a paced phase at which the given message of a producer is due, counted from 0, or
+	 * {@link Long#MAX_VALUE} if the rate drops to 0 before.
+	 */
+	long dueAt(int index, long message) {
+		Phase phase = this.phases.get(index);
+		double rate = phase.getRate();
+		double acceleration = (phase.getEndRate() - rate) / (phase.getDuration().toNanos() / 1e9);
+		double seconds;
+		if (acceleration == 0) {
+			seconds = message / rate;
+		}
+		else {
+			// the solution of rate * t + acceleration * t^2 / 2 = message
+			double discriminant = rate * rate + 2 * acceleration * message;
+			if (discriminant < 0) {
+				return Long.MAX_VALUE;
+			}
+			seconds = (Math.sqrt(discriminant) - rate) / acceleration;
+		}
+		return (seconds * 1e9 < Long.MAX_VALUE) ? (long) (seconds * 1e9) : Long.MAX_VALUE;
+	}
+
+	/**
+	 * Record that a producer completed a phase, logging the summary of the phase when it was the last one.
+	 */
+	void completed(int index, long sent, long elapsedNanos) {
+		this.sent[index].add(sent);
+		this.elapsed[index].accumulate(elapsedNanos);
+		if (this.completed[index].incrementAndGet() == this.producers) {
+			report(index);
+		}
+	}
+
+	private void report(int index) {
+		Phase phase = this.phases.get(index);
+		long sent = this.sent[index].sum();
+		double elapsed = this.elapsed[index].get() / 1e9;
+		double seconds = phase.getDuration().toNanos() / 1e9;
+		if (!isPaced(index)) {
+			logger.info(String.format("Phase %s: %d messages in %.3fs = %.2f/s, target unlimited",
+					phase.getName(), sent, elapsed, sent / elapsed));
+		}
+		else {
+			double expected = (phase.getRate() + phase.getEndRate()) / 2 * seconds * this.producers;
+			logger.info(String.format("Phase %s: %d messages in %.3fs = %.2f/s, target %.2f/s, %.1f%% of target",
+					phase.getName(), sent, elapsed, sent / elapsed, expected / seconds, 100.0 * sent / expected));
+		}
+	}
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.source.load.generator;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.cloud.stream.app.source.load.generator.LoadGeneratorSourceProperties.TimestampLocation;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.GenericMessage;
+
+/**
+ * Creates the messages of a producer from the payloads of the pool, in turn. Without timestamp or sequence the
+ * messages of the pool are sent as they are; the payloads are otherwise shared, unless they carry the send timestamp,
+ * and only the headers are created for every message.
+ */
+class MessageGenerator {
+
+	private final int producerId;
+
+	private final PayloadPool payloadPool;
+
+	private final boolean timestampHeader;
+
+	private final boolean timestampPayload;
+
+	private final boolean sequence;
+
+	private final KeyGenerator keyGenerator;
+
+	private final String keyHeader;
+
+	MessageGenerator(int producerId, PayloadPool payloadPool, KeyGenerator keyGenerator,
+			LoadGeneratorSourceProperties properties) {
+		this.producerId = producerId;
+		this.payloadPool = payloadPool;
+		TimestampLocation timestampLocation = properties.getTimestampLocation();
+		this.timestampHeader = properties.isGenerateTimestamp() && timestampLocation != TimestampLocation.PAYLOAD;
+		this.timestampPayload = properties.isGenerateTimestamp() && timestampLocation != TimestampLocation.HEADER;
+		this.sequence = properties.isGenerateSequence();
+		this.keyGenerator = keyGenerator;
+		this.keyHeader = properties.getKeyHeader();
+	}
+
+	/**
+	 * The message to send now.
+	 * @param sequence the number of messages sent by the producer before this one
+	 */
+	Message<byte[]> next(long sequence) {
+		// every producer starts at a different payload
+		long index = this.producerId + sequence;
+		if (!this.timestampHeader && !this.timestampPayload && !this.sequence && this.keyGenerator == null) {
+			return this.payloadPool.getMessage(index);
+		}
+		long now = System.currentTimeMillis();
+		byte[] payload = this.payloadPool.getPayload(index);
+		if (this.timestampPayload) {
+			// the binder may still hold the previous messages, so the payload cannot be written in place
+			payload = payload.clone();
+			putLong(payload, now);
+		}
+		Map<String, Object> headers = new HashMap<>(8);
+		if (this.timestampHeader) {
+			headers.put(LoadGeneratorSourceConfiguration.TIMESTAMP_HEADER, now);
+		}
+		if (this.sequence) {
+			headers.put(LoadGeneratorSourceConfiguration.PRODUCER_HEADER, this.producerId);
+			headers.put(LoadGeneratorSourceConfiguration.SEQUENCE_HEADER, sequence);
+		}
+		if (this.keyGenerator != null) {
+			headers.put(this.keyHeader, this.keyGenerator.next(this.producerId, sequence));
+		}
+		return new GenericMessage<>(payload, headers);
+	}
+
+	private static void putLong(byte[] bytes, long value) {
+		for (int i = 7; i >= 0; i--) {
+			bytes[i] = (byte) value;
+			value >>>= 8;
+		}
+	}
+
+}
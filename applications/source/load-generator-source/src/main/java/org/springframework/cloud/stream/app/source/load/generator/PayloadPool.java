@@ -0,0 +1,252 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.source.load.generator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.core.io.Resource;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.GenericMessage;
+import org.springframework.util.Assert;
+
+/**
+ * A bounded pool of payloads generated at startup, so that sending a message does not allocate its payload. The
+ * payloads are never modified once generated and are shared by all producers, along with a message for each of them.
+ */
+final class PayloadPool {
+
+	private static final Pattern PLACEHOLDER = Pattern.compile("\\{\\{(\\w+)}}");
+
+	private static final char[] ALPHANUMERIC = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789"
+			.toCharArray();
+
+	/**
+	 * The size of the blocks that are either random or repeated in a random payload, small enough for compressors
+	 * to find the repeated ones.
+	 */
+	private static final int BLOCK_SIZE = 64;
+
+	private final byte[][] payloads;
+
+	private final List<Message<byte[]>> messages;
+
+	private PayloadPool(byte[][] payloads) {
+		this.payloads = payloads;
+		this.messages = new ArrayList<>(payloads.length);
+		for (byte[] payload : payloads) {
+			this.messages.add(new GenericMessage<>(payload));
+		}
+	}
+
+	int size() {
+		return this.payloads.length;
+	}
+
+	/**
+	 * The payload at the given index, modulo the size of the pool.
+	 */
+	byte[] getPayload(long index) {
+		return this.payloads[(int) Math.floorMod(index, (long) this.payloads.length)];
+	}
+
+	/**
+	 * A message without headers holding the payload at the given index, modulo the size of the pool.
+	 */
+	Message<byte[]> getMessage(long index) {
+		return this.messages.get((int) Math.floorMod(index, (long) this.payloads.length));
+	}
+
+	static PayloadPool create(LoadGeneratorSourceProperties properties) {
+		SplittableRandom random = new SplittableRandom();
+		switch (properties.getPayloadType()) {
+			case RANDOM:
+				return generate(properties.getPayloadPoolSize(),
+						() -> randomPayload(random, properties.getMessageSize(), properties.getCompressibility()));
+			case JSON:
+				List<Object> template = parseTemplate(properties.getJsonTemplate());
+				return generate(properties.getPayloadPoolSize(), () -> jsonPayload(random, template));
+			case CORPUS:
+				return new PayloadPool(sample(random, properties.getCorpusFile(), properties.getPayloadPoolSize()));
+			default:
+				return new PayloadPool(new byte[][] { new byte[properties.getMessageSize()] });
+		}
+	}
+
+	private static PayloadPool generate(int size, Supplier<byte[]> generator) {
+		Assert.isTrue(size > 0, "The payload pool size must be positive");
+		byte[][] payloads = new byte[size][];
+		for (int i = 0; i < size; i++) {
+			payloads[i] = generator.get();
+		}
+		return new PayloadPool(payloads);
+	}
+
+	/**
+	 * Random bytes, but for the given fraction of blocks that repeat a single byte value.
+	 */
+	static byte[] randomPayload(SplittableRandom random, int size, double compressibility) {
+		Assert.isTrue(compressibility >= 0 && compressibility <= 1, "The compressibility must be between 0 and 1");
+		byte[] payload = new byte[size];
+		for (int offset = 0; offset < size; offset += BLOCK_SIZE) {
+			int end = Math.min(offset + BLOCK_SIZE, size);
+			if (random.nextDouble() < compressibility) {
+				// leave the block as zeros
+				continue;
+			}
+			for (int i = offset; i < end; i++) {
+				payload[i] = (byte) random.nextInt(256);
+			}
+		}
+		return payload;
+	}
+
+	/**
+	 * The literal parts of the template, as strings, and its placeholders, as their names.
+	 */
+	static List<Object> parseTemplate(String template) {
+		List<Object> parts = new ArrayList<>();
+		Matcher matcher = PLACEHOLDER.matcher(template);
+		int last = 0;
+		while (matcher.find()) {
+			parts.add(template.substring(last, matcher.start()));
+			Placeholder placeholder = Placeholder.of(matcher.group(1));
+			Assert.notNull(placeholder, () -> "Unknown placeholder '" + matcher.group() + "' in the JSON template");
+			parts.add(placeholder);
+			last = matcher.end();
+		}
+		parts.add(template.substring(last));
+		return parts;
+	}
+
+	static byte[] jsonPayload(SplittableRandom random, List<Object> template) {
+		StringBuilder json = new StringBuilder();
+		for (Object part : template) {
+			if (part instanceof Placeholder) {
+				((Placeholder) part).append(json, random);
+			}
+			else {
+				json.append((String) part);
+			}
+		}
+		return json.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Sample lines of the corpus, with the same probability for every line, however large the corpus.
+	 */
+	private static byte[][] sample(SplittableRandom random, Resource corpus, int size) {
+		Assert.notNull(corpus, "A corpus file is required for corpus payloads");
+		Assert.isTrue(size > 0, "The payload pool size must be positive");
+		List<byte[]> reservoir = new ArrayList<>(size);
+		long lines = 0;
+		try (BufferedReader reader = new BufferedReader(
+				new InputStreamReader(corpus.getInputStream(), StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.isEmpty()) {
+					continue;
+				}
+				lines++;
+				if (reservoir.size() < size) {
+					reservoir.add(line.getBytes(StandardCharsets.UTF_8));
+				}
+				else {
+					long slot = random.nextLong(lines);
+					if (slot < size) {
+						reservoir.set((int) slot, line.getBytes(StandardCharsets.UTF_8));
+					}
+				}
+			}
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException("Failed to read the corpus file " + corpus, e);
+		}
+		Assert.isTrue(!reservoir.isEmpty(), () -> "The corpus file " + corpus + " has no payloads");
+		return reservoir.toArray(new byte[0][]);
+	}
+
+	enum Placeholder {
+
+		INT {
+			@Override
+			void append(StringBuilder json, SplittableRandom random) {
+				json.append(random.nextInt(1_000_000));
+			}
+		},
+
+		LONG {
+			@Override
+			void append(StringBuilder json, SplittableRandom random) {
+				json.append(random.nextLong(Long.MAX_VALUE));
+			}
+		},
+
+		DOUBLE {
+			@Override
+			void append(StringBuilder json, SplittableRandom random) {
+				json.append(random.nextDouble() * 1000);
+			}
+		},
+
+		BOOLEAN {
+			@Override
+			void append(StringBuilder json, SplittableRandom random) {
+				json.append(random.nextBoolean());
+			}
+		},
+
+		STRING {
+			@Override
+			void append(StringBuilder json, SplittableRandom random) {
+				int length = 4 + random.nextInt(13);
+				for (int i = 0; i < length; i++) {
+					json.append(ALPHANUMERIC[random.nextInt(ALPHANUMERIC.length)]);
+				}
+			}
+		},
+
+		UUID {
+			@Override
+			void append(StringBuilder json, SplittableRandom random) {
+				json.append(new java.util.UUID(random.nextLong(), random.nextLong()));
+			}
+		};
+
+		abstract void append(StringBuilder json, SplittableRandom random);
+
+		static Placeholder of(String name) {
+			for (Placeholder placeholder : values()) {
+				if (placeholder.name().equalsIgnoreCase(name)) {
+					return placeholder;
+				}
+			}
+			return null;
+		}
+
+	}
+
+}
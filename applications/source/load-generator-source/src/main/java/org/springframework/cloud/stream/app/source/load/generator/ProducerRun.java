@@ -0,0 +1,100 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.source.load.generator;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * A run of a number of producers, started together, that records the messages they send until the last one completes
+ * and logs the aggregate rate they achieved against the target.
+ */
+class ProducerRun {
+
+	private static final Log logger = LogFactory.getLog(ProducerRun.class);
+
+	private final int producers;
+
+	private final String threads;
+
+	private final double targetRate;
+
+	private final AtomicInteger active;
+
+	private final LongAdder sent = new LongAdder();
+
+	private final CountDownLatch completed = new CountDownLatch(1);
+
+	private final long start = System.nanoTime();
+
+	private volatile long end;
+
+	/**
+	 * @param producers the number of producers of the run
+	 * @param threads the kind of threads the producers run on
+	 * @param targetRate the target messages per second of every producer, 0 when unlimited or not constant
+	 */
+	ProducerRun(int producers, String threads, double targetRate) {
+		this.producers = producers;
+		this.threads = threads;
+		this.targetRate = targetRate;
+		this.active = new AtomicInteger(producers);
+	}
+
+	int getProducers() {
+		return this.producers;
+	}
+
+	/**
+	 * Record that a producer completed, after sending the given number of messages.
+	 */
+	void completed(long sent) {
+		this.sent.add(sent);
+		if (this.active.decrementAndGet() == 0) {
+			this.end = System.nanoTime();
+			logger.info("Producers: " + summary());
+			this.completed.countDown();
+		}
+	}
+
+	/**
+	 * Wait until every producer completed.
+	 */
+	void await() throws InterruptedException {
+		this.completed.await();
+	}
+
+	double getAggregateRate() {
+		return this.sent.sum() / ((this.end - this.start) / 1e9);
+	}
+
+	String summary() {
+		double aggregateRate = getAggregateRate();
+		String target = (this.targetRate > 0)
+				? String.format("%.1f%% of target %.2f/s", 100 * aggregateRate / (this.targetRate * this.producers),
+						this.targetRate * this.producers)
+				: "target unlimited";
+		return String.format("%8d on %s threads, %12d messages in %8.3fs = %12.2f/s aggregate, "
+				+ "%10.2f/s per producer, %s", this.producers, this.threads, this.sent.sum(),
+				(this.end - this.start) / 1e9, aggregateRate, aggregateRate / this.producers, target);
+	}
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.source.load.generator;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Paces a producer to a target rate with nanosecond precision. Every message takes a token and tokens are added
+ * continuously at the target rate; a producer that fell behind may use the tokens accumulated meanwhile, up to the
+ * burst, so it catches up without flooding the binder.
+ * <p>
+ * Not thread-safe: every producer has its own bucket.
+ */
+final class TokenBucket {
+
+	/**
+	 * Waits shorter than this are spun rather than parked, parking being too coarse for them.
+	 */
+	private static final long SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+	/**
+	 * The tokens kept at most, as a time span at the target rate.
+	 */
+	static final long BURST_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+	private final double rate;
+
+	private final long intervalNanos;
+
+	private final long burstNanos;
+
+	private long next;
+
+	/**
+	 * @param rate the target number of messages per second
+	 */
+	TokenBucket(double rate) {
+		this.rate = rate;
+		this.intervalNanos = Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / rate));
+		this.burstNanos = Math.max(BURST_NANOS - this.intervalNanos, 0);
+		this.next = System.nanoTime();
+	}
+
+	double getRate() {
+		return this.rate;
+	}
+
+	/**
+	 * Take a token, waiting until one is available.
+	 */
+	void acquire() {
+		long now = refill();
+		long deadline = this.next;
+		this.next += this.intervalNanos;
+		if (deadline > now) {
+			waitUntil(deadline);
+		}
+	}
+
+	/**
+	 * Take a token if one is available, without waiting.
+	 * @return 0 if a token was taken, otherwise the nanoseconds until one is available
+	 */
+	long tryAcquire() {
+		long now = refill();
+		if (this.next > now) {
+			return this.next - now;
+		}
+		this.next += this.intervalNanos;
+		return 0;
+	}
+
+	private long refill() {
+		long now = System.nanoTime();
+		if (this.next < now - this.burstNanos) {
+			// the tokens beyond the burst are not kept
+			this.next = now - this.burstNanos;
+		}
+		return now;
+	}
+
+	/**
+	 * Wait until the given {@link System#nanoTime()}.
+	 */
+	static void waitUntil(long deadline) {
+		long remaining;
+		while ((remaining = deadline - System.nanoTime()) > 0) {
+			if (remaining > SPIN_NANOS) {
+				LockSupport.parkNanos(remaining - SPIN_NANOS);
+			}
+			else {
+				Thread.onSpinWait();
+			}
+		}
+	}
+
+}
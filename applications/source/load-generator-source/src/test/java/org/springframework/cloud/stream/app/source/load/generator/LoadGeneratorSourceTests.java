@@ -1,5 +1,5 @@
 /*
- * Copyright 2015-2021 the original author or authors.
+ * Copyright 2015-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,11 +16,28 @@
 
 package org.springframework.cloud.stream.app.source.load.generator;
 
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.awaitility.Awaitility;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 
 import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
 import org.springframework.cloud.stream.binder.test.OutputDestination;
 import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
 import org.springframework.context.ConfigurableApplicationContext;
@@ -28,7 +45,9 @@ import org.springframework.context.annotation.Import;
 import org.springframework.messaging.Message;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+@ExtendWith(OutputCaptureExtension.class)
 public class LoadGeneratorSourceTests {
 
 	@Test
@@ -46,6 +65,201 @@ public class LoadGeneratorSourceTests {
 		}
 	}
 
+	@Test
+	public void testRateControlledProducers(CapturedOutput output) {
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+				TestChannelBinderConfiguration
+						.getCompleteConfiguration(LoadGeneratorTestConfiguration.class))
+				.web(WebApplicationType.NONE)
+				.run("--spring.cloud.function.definition=loadGeneratorSupplier",
+						"--load-generator.producers=2", "--load-generator.message-count=50",
+						"--load-generator.message-rate=200", "--load-generator.buffer-size=16")) {
+
+			OutputDestination target = context.getBean(OutputDestination.class);
+			long start = System.nanoTime();
+			for (int i = 0; i < 100; i++) {
+				assertThat(target.receive(10000, "loadGeneratorSupplier-out-0")).isNotNull();
+			}
+			// 50 messages at 200/s take at least 245ms, less the burst of 10ms
+			assertThat(System.nanoTime() - start).isGreaterThan(TimeUnit.MILLISECONDS.toNanos(200));
+			assertThat(target.receive(100, "loadGeneratorSupplier-out-0")).isNull();
+			Awaitility.await().until(output::getOut, value -> value.contains("Producer 0 sent 50 messages")
+					&& value.contains("Producer 1 sent 50 messages") && value.contains("target 200.00/s"));
+		}
+	}
+
+	@Test
+	public void testTimestampAndSequence() {
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+				TestChannelBinderConfiguration
+						.getCompleteConfiguration(LoadGeneratorTestConfiguration.class))
+				.web(WebApplicationType.NONE)
+				.run("--spring.cloud.function.definition=loadGeneratorSupplier",
+						"--load-generator.message-count=3", "--load-generator.message-size=16",
+						"--load-generator.generate-timestamp=true", "--load-generator.timestamp-location=BOTH",
+						"--load-generator.generate-sequence=true")) {
+
+			OutputDestination target = context.getBean(OutputDestination.class);
+			long before = System.currentTimeMillis() - 10000;
+			for (long sequence = 0; sequence < 3; sequence++) {
+				Message<byte[]> message = target.receive(10000, "loadGeneratorSupplier-out-0");
+				long timestamp = ByteBuffer.wrap(message.getPayload()).getLong();
+				assertThat(message.getPayload()).hasSize(16);
+				assertThat(timestamp).isBetween(before, System.currentTimeMillis());
+				assertThat(message.getHeaders().get("sendTimestamp")).isEqualTo(timestamp);
+				assertThat(message.getHeaders().get("producer")).isEqualTo(0);
+				assertThat(message.getHeaders().get("sequence")).isEqualTo(sequence);
+			}
+		}
+	}
+
+	@Test
+	public void testLoadProfile(CapturedOutput output) {
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+				TestChannelBinderConfiguration
+						.getCompleteConfiguration(LoadGeneratorTestConfiguration.class))
+				.web(WebApplicationType.NONE)
+				.run("--spring.cloud.function.definition=loadGeneratorSupplier",
+						"--load-generator.producers=2", "--load-generator.buffer-size=1024",
+						"--load-generator.phases[0].name=ramp", "--load-generator.phases[0].duration=500ms",
+						"--load-generator.phases[0].rate=0", "--load-generator.phases[0].end-rate=200",
+						"--load-generator.phases[1].name=steady", "--load-generator.phases[1].duration=500ms",
+						"--load-generator.phases[1].rate=100")) {
+
+			OutputDestination target = context.getBean(OutputDestination.class);
+			int received = 0;
+			while (target.receive(1000, "loadGeneratorSupplier-out-0") != null) {
+				received++;
+			}
+			// 2 producers sending 50 messages during the ramp and 50 more during the steady phase
+			assertThat(received).isBetween(180, 220);
+			Awaitility.await().until(output::getOut, value -> value.contains("Phase ramp:")
+					&& value.contains("target 200.00/s") && value.contains("Phase steady:"));
+		}
+	}
+
+	@Test
+	public void testZipfKeys(CapturedOutput output) {
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+				TestChannelBinderConfiguration
+						.getCompleteConfiguration(LoadGeneratorTestConfiguration.class))
+				.web(WebApplicationType.NONE)
+				.run("--spring.cloud.function.definition=loadGeneratorSupplier",
+						"--load-generator.message-count=2000", "--load-generator.buffer-size=4096",
+						"--load-generator.key-strategy=ZIPF", "--load-generator.key-count=10")) {
+
+			OutputDestination target = context.getBean(OutputDestination.class);
+			Map<Object, Integer> counts = new HashMap<>();
+			for (int i = 0; i < 2000; i++) {
+				Message<byte[]> message = target.receive(10000, "loadGeneratorSupplier-out-0");
+				counts.merge(message.getHeaders().get("partitionKey"), 1, Integer::sum);
+			}
+			// with an exponent of 1 the hottest of 10 keys gets about a third of the messages and the coldest 3%
+			assertThat(counts.get("key-0")).isBetween(500, 1000);
+			assertThat(counts.get("key-9")).isBetween(20, 120);
+			KeyGenerator keyGenerator = context.getBean(LoadGeneratorSourceConfiguration.LoadGeneratorEndpoint.class)
+					.getKeyGenerator();
+			assertThat(keyGenerator.getCount("key-0")).isEqualTo((long) counts.get("key-0"));
+			Awaitility.await().until(output::getOut,
+					value -> value.contains("Keys: 2000 messages over 10 keys") && value.contains("most used: key-0="));
+		}
+	}
+
+	@Test
+	public void testSharedSchedulerProducerSteps(CapturedOutput output) {
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+				TestChannelBinderConfiguration
+						.getCompleteConfiguration(LoadGeneratorTestConfiguration.class))
+				.web(WebApplicationType.NONE)
+				.run("--spring.cloud.function.definition=loadGeneratorSupplier",
+						"--load-generator.message-count=50", "--load-generator.message-rate=100",
+						"--load-generator.generate-sequence=true", "--load-generator.producer-threads=shared",
+						"--load-generator.scheduler-threads=2", "--load-generator.producer-steps=1,4")) {
+
+			OutputDestination target = context.getBean(OutputDestination.class);
+			Map<Object, Integer> counts = new HashMap<>();
+			for (int i = 0; i < 250; i++) {
+				Message<byte[]> message = target.receive(10000, "loadGeneratorSupplier-out-0");
+				counts.merge(message.getHeaders().get(LoadGeneratorSourceConfiguration.PRODUCER_HEADER), 1,
+						Integer::sum);
+			}
+			// the producers of every step have ids of their own
+			assertThat(counts).containsOnlyKeys(0, 1, 2, 3, 4)
+					.allSatisfy((producer, count) -> assertThat(count).isEqualTo(50));
+			Awaitility.await().until(output::getOut, value -> value.contains("Scaling of the aggregate rate")
+					&& value.contains("1 on shared threads") && value.contains("4 on shared threads"));
+		}
+	}
+
+	@Test
+	public void testReplay(@TempDir Path directory) throws IOException {
+		Path file = directory.resolve("capture.bin");
+		try (DataOutputStream output = new DataOutputStream(Files.newOutputStream(file))) {
+			output.writeInt(CaptureReader.MAGIC);
+			output.writeInt(CaptureReader.VERSION);
+			for (int i = 0; i < 3; i++) {
+				byte[] payload = ("payload-" + i).getBytes(StandardCharsets.UTF_8);
+				output.writeInt(8 + 2 + 2 + 3 + 4 + 1 + 4 + payload.length);
+				output.writeLong(TimeUnit.MILLISECONDS.toNanos(200) * i);
+				output.writeShort(1);
+				output.writeShort(3);
+				output.write("key".getBytes(StandardCharsets.UTF_8));
+				output.writeInt(1);
+				output.write(String.valueOf(i).getBytes(StandardCharsets.UTF_8));
+				output.writeInt(payload.length);
+				output.write(payload);
+			}
+			// a record whose capture was interrupted
+			output.writeInt(100);
+			output.writeLong(0);
+		}
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+				TestChannelBinderConfiguration
+						.getCompleteConfiguration(LoadGeneratorTestConfiguration.class))
+				.web(WebApplicationType.NONE)
+				.run("--spring.cloud.function.definition=loadGeneratorSupplier",
+						"--load-generator.replay.file=" + file, "--load-generator.replay.speed=2")) {
+
+			OutputDestination target = context.getBean(OutputDestination.class);
+			long start = System.nanoTime();
+			for (int i = 0; i < 3; i++) {
+				Message<byte[]> message = target.receive(10000, "loadGeneratorSupplier-out-0");
+				assertThat(new String(message.getPayload(), StandardCharsets.UTF_8)).isEqualTo("payload-" + i);
+				assertThat(message.getHeaders().get("key")).isEqualTo(String.valueOf(i));
+			}
+			// 400ms of capture replayed twice as fast
+			assertThat(System.nanoTime() - start).isGreaterThan(TimeUnit.MILLISECONDS.toNanos(150));
+			assertThat(target.receive(500, "loadGeneratorSupplier-out-0")).isNull();
+		}
+	}
+
+	@Test
+	public void testProducerStepWithoutProducersIsRejected() {
+		assertThatThrownBy(() -> new SpringApplicationBuilder(
+				TestChannelBinderConfiguration
+						.getCompleteConfiguration(LoadGeneratorTestConfiguration.class))
+				.web(WebApplicationType.NONE)
+				.run("--spring.cloud.function.definition=loadGeneratorSupplier",
+						"--load-generator.producer-steps=2,0").close())
+				.rootCause()
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Every step of producers requires at least one producer");
+	}
+
+	@Test
+	@EnabledForJreRange(max = JRE.JAVA_20)
+	public void testVirtualThreadsAreRejectedBeforeJava21() {
+		assertThatThrownBy(() -> new SpringApplicationBuilder(
+				TestChannelBinderConfiguration
+						.getCompleteConfiguration(LoadGeneratorTestConfiguration.class))
+				.web(WebApplicationType.NONE)
+				.run("--spring.cloud.function.definition=loadGeneratorSupplier",
+						"--load-generator.producer-threads=virtual").close())
+				.rootCause()
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageStartingWith("Virtual producer threads require Java 21 or later");
+	}
+
 	@EnableAutoConfiguration
 	@Import(LoadGeneratorSourceConfiguration.class)
 	public static class LoadGeneratorTestConfiguration {
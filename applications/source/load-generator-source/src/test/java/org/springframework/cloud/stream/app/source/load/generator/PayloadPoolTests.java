@@ -0,0 +1,104 @@
+/*
+ * Copyright 2026-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.source.load.generator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.Deflater;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.cloud.stream.app.source.load.generator.LoadGeneratorSourceProperties.PayloadType;
+import org.springframework.core.io.FileSystemResource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+public class PayloadPoolTests {
+
+	private final LoadGeneratorSourceProperties properties = new LoadGeneratorSourceProperties();
+
+	@Test
+	public void randomPayloadsHaveTheGivenCompressibility() {
+		this.properties.setPayloadType(PayloadType.RANDOM);
+		this.properties.setMessageSize(64 * 1024);
+		this.properties.setPayloadPoolSize(4);
+		for (double compressibility : new double[] { 0.0, 0.5, 0.9 }) {
+			this.properties.setCompressibility(compressibility);
+			PayloadPool pool = PayloadPool.create(this.properties);
+			assertThat(pool.size()).isEqualTo(4);
+			byte[] payload = pool.getPayload(0);
+			assertThat(payload).hasSize(64 * 1024);
+			double saved = 1 - (double) compressedSize(payload) / payload.length;
+			assertThat(saved).isBetween(compressibility - 0.05, compressibility + 0.05);
+		}
+	}
+
+	@Test
+	public void jsonPayloadsAreGeneratedFromTheTemplate() throws IOException {
+		this.properties.setPayloadType(PayloadType.JSON);
+		this.properties.setPayloadPoolSize(16);
+		PayloadPool pool = PayloadPool.create(this.properties);
+		ObjectMapper objectMapper = new ObjectMapper();
+		Set<String> ids = new HashSet<>();
+		for (int i = 0; i < pool.size(); i++) {
+			JsonNode json = objectMapper.readTree(pool.getPayload(i));
+			assertThat(json.get("count").isInt()).isTrue();
+			assertThat(json.get("active").isBoolean()).isTrue();
+			ids.add(json.get("id").asText());
+		}
+		assertThat(ids).hasSize(16);
+		assertThat(pool.getMessage(17).getPayload()).isSameAs(pool.getPayload(1));
+		assertThatIllegalArgumentException().isThrownBy(() -> PayloadPool.parseTemplate("{\"a\":{{unknown}}}"));
+	}
+
+	@Test
+	public void corpusPayloadsAreSampled(@TempDir Path directory) throws IOException {
+		Path corpus = directory.resolve("corpus.txt");
+		Files.write(corpus, List.of("one", "", "two", "three", "four"));
+		this.properties.setPayloadType(PayloadType.CORPUS);
+		this.properties.setCorpusFile(new FileSystemResource(corpus));
+		this.properties.setPayloadPoolSize(3);
+		PayloadPool pool = PayloadPool.create(this.properties);
+		assertThat(pool.size()).isEqualTo(3);
+		for (int i = 0; i < pool.size(); i++) {
+			assertThat(new String(pool.getPayload(i), StandardCharsets.UTF_8)).isIn("one", "two", "three", "four");
+		}
+	}
+
+	private static int compressedSize(byte[] payload) {
+		Deflater deflater = new Deflater();
+		deflater.setInput(payload);
+		deflater.finish();
+		byte[] buffer = new byte[payload.length * 2];
+		int size = 0;
+		while (!deflater.finished()) {
+			size += deflater.deflate(buffer);
+		}
+		deflater.end();
+		return size;
+	}
+
+}